@@ -14,7 +14,9 @@
 
 plugins {
     `java-library`
+    `java-test-fixtures`
     checkstyle
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -22,15 +24,17 @@ repositories {
 }
 
 dependencies {
-    implementation("com.networknt:json-schema-validator:1.5.2") {
+    api("com.networknt:json-schema-validator:1.5.2") {
         exclude("com.fasterxml.jackson.dataformat", "jackson-dataformat-yaml")
     }
+    api("com.apicatalog:titanium-json-ld:1.4.1")
+    api("com.fasterxml.jackson.core:jackson-databind:2.18.0")
+    implementation("org.glassfish:jakarta.json:2.0.1")
 
-    testImplementation("org.assertj:assertj-core:3.26.3")
-    testImplementation("com.apicatalog:titanium-json-ld:1.4.1")
-    testImplementation("org.glassfish:jakarta.json:2.0.1")
-    testImplementation("com.fasterxml.jackson.core:jackson-databind:2.18.0")
-    testImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jakarta-jsonp:2.18.0")
+    testFixturesApi("org.junit.jupiter:junit-jupiter-api:5.8.1")
+    testFixturesApi("org.assertj:assertj-core:3.26.3")
+    testFixturesApi("org.glassfish:jakarta.json:2.0.1")
+    testFixturesImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jakarta-jsonp:2.18.0")
 }
 
 testing {
@@ -39,4 +43,12 @@ testing {
             useJUnitJupiter("5.8.1")
         }
     }
-}
\ No newline at end of file
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
@@ -12,4 +12,6 @@
  *
  */
 
-rootProject.name = "artifacts"
\ No newline at end of file
+rootProject.name = "artifacts"
+
+include("standin")
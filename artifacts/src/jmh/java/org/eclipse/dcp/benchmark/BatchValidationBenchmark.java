@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import org.eclipse.dcp.schema.BatchValidationResult;
+import org.eclipse.dcp.schema.DcpBatchValidator;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpMessageValidator;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures batch validation of credential messages and statuses at different degrees of parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchValidationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private DcpBatchValidator validator;
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        validator = new DcpBatchValidator(new DcpMessageValidator(DcpSchemaRegistry.getInstance().warmUp()), parallelism);
+        var credentialMessage = BenchmarkPayloads.toJson(BenchmarkPayloads.example(DcpMessageType.CREDENTIAL_MESSAGE));
+        var credentialStatus = BenchmarkPayloads.toJson(BenchmarkPayloads.example(DcpMessageType.CREDENTIAL_STATUS));
+        messages = new ArrayList<>();
+        for (var i = 0; i < 10_000; i++) {
+            messages.add(i % 2 == 0 ? credentialMessage : credentialStatus);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.close();
+    }
+
+    @Benchmark
+    public List<BatchValidationResult> validateBatch() {
+        return validator.validate(messages);
+    }
+}
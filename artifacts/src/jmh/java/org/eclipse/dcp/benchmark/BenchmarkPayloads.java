@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static java.util.Map.entry;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OBJECT;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+import static org.eclipse.dcp.schema.DcpMessageType.ISSUER_METADATA;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * Loads the bundled example messages used as benchmark payloads.
+ */
+final class BenchmarkPayloads {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Map<DcpMessageType, String> EXAMPLES = Map.ofEntries(
+            entry(PRESENTATION_QUERY_MESSAGE, "/presentation/example/presentation-query-message.json"),
+            entry(PRESENTATION_RESPONSE_MESSAGE, "/presentation/example/presentation-response-message.json"),
+            entry(CREDENTIAL_REQUEST_MESSAGE, "/issuance/example/credential-request-message.json"),
+            entry(CREDENTIAL_MESSAGE, "/issuance/example/credential-message.json"),
+            entry(CREDENTIAL_OFFER_MESSAGE, "/issuance/example/credential-offer-message.json"),
+            entry(CREDENTIAL_OBJECT, "/issuance/example/credential-object.json"),
+            entry(CREDENTIAL_STATUS, "/issuance/example/credential-status.json"),
+            entry(ISSUER_METADATA, "/issuance/example/issuer-metadata.json")
+    );
+
+    private BenchmarkPayloads() {
+    }
+
+    static String exampleFile(DcpMessageType type) {
+        return EXAMPLES.get(type);
+    }
+
+    static JsonNode example(DcpMessageType type) {
+        try (var stream = BenchmarkPayloads.class.getResourceAsStream(exampleFile(type))) {
+            return MAPPER.readTree(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the example credential message with its {@code credentials} array grown to the given size.
+     */
+    static JsonNode credentialMessage(int credentialCount) {
+        var message = (ObjectNode) example(CREDENTIAL_MESSAGE);
+        var templates = message.withArray("credentials").deepCopy();
+        var credentials = message.putArray("credentials");
+        for (var i = 0; i < credentialCount; i++) {
+            credentials.add(templates.get(i % templates.size()).deepCopy());
+        }
+        return message;
+    }
+
+    /**
+     * Returns the example presentation response message with its {@code presentation} array grown to the given size.
+     */
+    static JsonNode presentationResponseMessage(int presentationCount) {
+        var message = (ObjectNode) example(PRESENTATION_RESPONSE_MESSAGE);
+        var presentations = message.putArray("presentation");
+        for (var i = 0; i < presentationCount; i++) {
+            presentations.add("eyJhbGciOiJFUzI1NiJ9.presentation" + i + ".c2lnbmF0dXJl");
+        }
+        return message;
+    }
+
+    static String toJson(JsonNode node) {
+        try {
+            return MAPPER.writeValueAsString(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
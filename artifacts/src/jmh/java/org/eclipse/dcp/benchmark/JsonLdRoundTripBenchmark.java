@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.JsonDocument;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import org.eclipse.dcp.context.DcpDocumentLoader;
+import org.eclipse.dcp.context.DcpJsonLdCodec;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import static com.apicatalog.jsonld.JsonLd.compact;
+import static com.apicatalog.jsonld.JsonLd.expand;
+import static com.apicatalog.jsonld.lang.Keywords.CONTEXT;
+
+/**
+ * Measures JSON-LD expansion and compaction of the bundled examples against {@code dcp.jsonld}, following the path of the
+ * round-trip tests, with the generic processor and with the {@link DcpJsonLdCodec} fast path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonLdRoundTripBenchmark {
+
+    @Param({
+            "PRESENTATION_QUERY_MESSAGE", "PRESENTATION_RESPONSE_MESSAGE", "CREDENTIAL_REQUEST_MESSAGE", "CREDENTIAL_MESSAGE",
+            "CREDENTIAL_OFFER_MESSAGE", "CREDENTIAL_OBJECT", "CREDENTIAL_STATUS", "ISSUER_METADATA"
+    })
+    public DcpMessageType type;
+
+    private JsonLdOptions options;
+    private DcpJsonLdCodec codec;
+    private JsonObject message;
+    private JsonObject context;
+    private JsonArray expanded;
+
+    @Setup
+    public void setUp() throws JsonLdError {
+        options = new JsonLdOptions();
+        options.setDocumentLoader(DcpDocumentLoader.getInstance());
+        codec = new DcpJsonLdCodec();
+
+        try (var reader = Json.createReader(new StringReader(BenchmarkPayloads.toJson(BenchmarkPayloads.example(type))))) {
+            message = reader.readObject();
+        }
+        context = Json.createObjectBuilder().add(CONTEXT, message.get(CONTEXT)).build();
+        expanded = expandMessage();
+    }
+
+    @Benchmark
+    public JsonArray expandMessage() throws JsonLdError {
+        return expand(JsonDocument.of(message)).options(options).get();
+    }
+
+    @Benchmark
+    public JsonObject compactMessage() throws JsonLdError {
+        return compact(JsonDocument.of(expanded), JsonDocument.of(context)).options(options).get();
+    }
+
+    @Benchmark
+    public JsonObject roundTrip() throws JsonLdError {
+        var result = expand(JsonDocument.of(message)).options(options).get();
+        return compact(JsonDocument.of(result), JsonDocument.of(context)).options(options).get();
+    }
+
+    @Benchmark
+    public JsonArray codecExpand() throws JsonLdError {
+        return codec.expand(message);
+    }
+
+    @Benchmark
+    public JsonObject codecCompact() throws JsonLdError {
+        return codec.compact(expanded, message.get(CONTEXT));
+    }
+
+    @Benchmark
+    public JsonObject codecRoundTrip() throws JsonLdError {
+        return codec.compact(codec.expand(message), message.get(CONTEXT));
+    }
+}
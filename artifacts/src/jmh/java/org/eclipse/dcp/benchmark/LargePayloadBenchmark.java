@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.networknt.schema.InputFormat.JSON;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * Measures parsing and validation of messages scaled up to thousands of credentials or presentations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LargePayloadBenchmark {
+
+    @Param({ "10", "100", "1000", "5000" })
+    public int size;
+
+    private JsonSchema credentialMessageSchema;
+    private JsonSchema presentationResponseSchema;
+    private String credentialMessage;
+    private String presentationResponseMessage;
+
+    @Setup
+    public void setUp() {
+        var registry = DcpSchemaRegistry.getInstance().warmUp();
+        credentialMessageSchema = registry.getSchema(CREDENTIAL_MESSAGE);
+        presentationResponseSchema = registry.getSchema(PRESENTATION_RESPONSE_MESSAGE);
+        credentialMessage = BenchmarkPayloads.toJson(BenchmarkPayloads.credentialMessage(size));
+        presentationResponseMessage = BenchmarkPayloads.toJson(BenchmarkPayloads.presentationResponseMessage(size));
+    }
+
+    @Benchmark
+    public JsonNode parseCredentialMessage() throws IOException {
+        return BenchmarkPayloads.MAPPER.readTree(credentialMessage);
+    }
+
+    @Benchmark
+    public Set<ValidationMessage> validateCredentialMessage() {
+        return credentialMessageSchema.validate(credentialMessage, JSON);
+    }
+
+    @Benchmark
+    public Set<ValidationMessage> validatePresentationResponseMessage() {
+        return presentationResponseSchema.validate(presentationResponseMessage, JSON);
+    }
+}
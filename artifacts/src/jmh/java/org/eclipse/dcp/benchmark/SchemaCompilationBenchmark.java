@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import com.networknt.schema.JsonSchema;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of building a schema factory and compiling a schema from scratch, as the test fixtures do per test, with a
+ * lookup in a warm registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaCompilationBenchmark {
+
+    @Param({ "PRESENTATION_QUERY_MESSAGE", "CREDENTIAL_MESSAGE", "ISSUER_METADATA" })
+    public DcpMessageType type;
+
+    private DcpSchemaRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new DcpSchemaRegistry().warmUp();
+    }
+
+    @Benchmark
+    public JsonSchema cold() {
+        return new DcpSchemaRegistry().getSchema(type);
+    }
+
+    @Benchmark
+    public JsonSchema warm() {
+        return registry.getSchema(type);
+    }
+}
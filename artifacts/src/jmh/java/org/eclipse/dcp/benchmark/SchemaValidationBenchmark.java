@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.OutputFormat;
+import com.networknt.schema.ValidationMessage;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.networknt.schema.InputFormat.JSON;
+
+/**
+ * Measures validation of the bundled example of each message type against its precompiled schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaValidationBenchmark {
+
+    @Param({
+            "PRESENTATION_QUERY_MESSAGE", "PRESENTATION_RESPONSE_MESSAGE", "CREDENTIAL_REQUEST_MESSAGE", "CREDENTIAL_MESSAGE",
+            "CREDENTIAL_OFFER_MESSAGE", "CREDENTIAL_OBJECT", "CREDENTIAL_STATUS", "ISSUER_METADATA"
+    })
+    public DcpMessageType type;
+
+    private JsonSchema schema;
+    private JsonNode message;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        schema = DcpSchemaRegistry.getInstance().warmUp().getSchema(type);
+        message = BenchmarkPayloads.example(type);
+        text = BenchmarkPayloads.toJson(message);
+    }
+
+    @Benchmark
+    public Set<ValidationMessage> validateTree() {
+        return schema.validate(message);
+    }
+
+    @Benchmark
+    public Set<ValidationMessage> validateText() {
+        return schema.validate(text, JSON);
+    }
+
+    @Benchmark
+    public boolean isValidTree() {
+        return schema.validate(message, OutputFormat.BOOLEAN);
+    }
+
+    @Benchmark
+    public boolean isValidText() {
+        return schema.validate(text, JSON, OutputFormat.BOOLEAN);
+    }
+}
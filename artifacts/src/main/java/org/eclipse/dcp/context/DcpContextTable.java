@@ -0,0 +1,242 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The term tables of the protected DCP context, precomputed from {@code dcp.jsonld}.
+ * <p>
+ * The context defines prefixes, the {@code id} and {@code type} keyword aliases, and one term per DCP type whose type-scoped
+ * context defines the properties of that type. Property terms are therefore only looked up within the scope of a type.
+ */
+final class DcpContextTable {
+    static final String ID = "@id";
+    static final String TYPE = "@type";
+    static final String VALUE = "@value";
+    static final String JSON = "@json";
+    static final String VOCAB = "@vocab";
+    static final String SET = "@set";
+    static final String CONTEXT = "@context";
+    static final String CONTAINER = "@container";
+    static final String ID_ALIAS = "id";
+    static final String TYPE_ALIAS = "type";
+
+    private final Map<String, String> prefixes = new HashMap<>();
+    private final Map<String, String> globalTerms = new HashMap<>();
+    private final Map<String, TypeScope> typesByTerm = new HashMap<>();
+    private final Map<String, TypeScope> typesByIri = new HashMap<>();
+
+    private DcpContextTable(JsonObject context) {
+        context.forEach((term, definition) -> {
+            if (term.startsWith("@")) {
+                return;
+            }
+            if (definition.getValueType() == JsonValue.ValueType.STRING) {
+                var value = ((JsonString) definition).getString();
+                if (value.startsWith("http://") || value.startsWith("https://")) {
+                    prefixes.put(term, value);
+                }
+            }
+        });
+        context.forEach((term, definition) -> {
+            if (term.startsWith("@") || prefixes.containsKey(term)) {
+                return;
+            }
+            if (definition.getValueType() == JsonValue.ValueType.STRING) {
+                var value = ((JsonString) definition).getString();
+                if (!value.startsWith("@")) {
+                    globalTerms.put(term, expandIri(value));
+                }
+            } else if (definition.getValueType() == JsonValue.ValueType.OBJECT) {
+                globalTerms.put(term, expandIri(definition.asJsonObject().getString(ID)));
+            }
+        });
+        // type-scoped contexts are built last, since they see all global terms
+        context.forEach((term, definition) -> {
+            if (definition.getValueType() == JsonValue.ValueType.OBJECT && definition.asJsonObject().containsKey(CONTEXT)) {
+                var scope = new TypeScope(term, globalTerms.get(term), definition.asJsonObject().getJsonObject(CONTEXT));
+                typesByTerm.put(term, scope);
+                typesByIri.put(scope.iri(), scope);
+            }
+        });
+    }
+
+    /**
+     * Loads the table from the bundled {@code dcp.jsonld}.
+     */
+    static DcpContextTable load() {
+        try (var stream = DcpContextTable.class.getResourceAsStream("/context/dcp.jsonld");
+                var reader = JsonProvider.provider().createReader(stream)) {
+            return new DcpContextTable(reader.readObject().getJsonObject(CONTEXT));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    TypeScope typeByTerm(String term) {
+        return typesByTerm.get(term);
+    }
+
+    TypeScope typeByIri(String iri) {
+        return typesByIri.get(iri);
+    }
+
+    /**
+     * Returns true if the value would be interpreted as a compact IRI or keyword, or compacted to one, i.e. the value is not an
+     * IRI that both expansion and compaction pass through unchanged.
+     */
+    boolean isAmbiguousIri(String value, TypeScope scope) {
+        if (value.isEmpty() || value.charAt(0) == '@' || value.startsWith("_:")) {
+            return true;
+        }
+        var colon = value.indexOf(':');
+        if (colon >= 0) {
+            var prefix = value.substring(0, colon);
+            if (isTerm(prefix, scope)) {
+                return true;
+            }
+        }
+        for (var namespace : prefixes.values()) {
+            if (value.startsWith(namespace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTerm(String term, TypeScope scope) {
+        return ID_ALIAS.equals(term) || TYPE_ALIAS.equals(term) || prefixes.containsKey(term) || globalTerms.containsKey(term) ||
+                (scope != null && scope.terms.containsKey(term));
+    }
+
+    private String expandIri(String value) {
+        var colon = value.indexOf(':');
+        if (colon > 0) {
+            var namespace = prefixes.get(value.substring(0, colon));
+            if (namespace != null) {
+                return namespace + value.substring(colon + 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * A term definition of the DCP context.
+     *
+     * @param term the term
+     * @param iri the expanded IRI
+     * @param type the type mapping, i.e. {@code @id}, {@code @vocab}, {@code @json}, an expanded datatype IRI or null
+     * @param set true if the term has a {@code @set} container
+     */
+    record TermDefinition(String term, String iri, String type, boolean set) {
+    }
+
+    /**
+     * A DCP type and the terms that are active within its type-scoped context.
+     */
+    final class TypeScope {
+        private final String term;
+        private final String iri;
+        private final Map<String, TermDefinition> terms = new HashMap<>();
+        private final Map<String, TermDefinition> properties = new HashMap<>();
+        private final Map<String, TermDefinition> propertiesByIri = new HashMap<>();
+        private final Map<String, String> vocabIris = new HashMap<>();
+        private final Map<String, String> vocabTerms = new HashMap<>();
+
+        private TypeScope(String term, String iri, JsonObject context) {
+            this.term = term;
+            this.iri = iri;
+            context.forEach((name, definition) -> {
+                if (definition.getValueType() == JsonValue.ValueType.STRING) {
+                    terms.put(name, new TermDefinition(name, expandIri(((JsonString) definition).getString()), null, false));
+                } else {
+                    var object = definition.asJsonObject();
+                    var type = object.containsKey(TYPE) ? object.getString(TYPE) : null;
+                    var container = object.containsKey(CONTAINER) ? object.getString(CONTAINER) : null;
+                    var termDefinition = new TermDefinition(name, expandIri(object.getString(ID)),
+                            type == null || type.startsWith("@") ? type : expandIri(type), SET.equals(container));
+                    terms.put(name, termDefinition);
+                    properties.put(name, termDefinition);
+                }
+            });
+            // a property IRI must map back to a single term, otherwise compaction depends on the value
+            properties.values().forEach(definition -> {
+                if (propertiesByIri.put(definition.iri(), definition) != null) {
+                    throw new IllegalStateException("Ambiguous property IRI in DCP context: " + definition.iri());
+                }
+            });
+
+            // terms usable as vocabulary values: expansion accepts any term. Compaction follows the JSON-LD term selection for
+            // an IRI without value: @set containers before none, @id type mappings before none, then the shortest and
+            // lexicographically least term
+            var candidates = new HashMap<String, TermDefinition>();
+            globalTerms.forEach((name, value) -> candidates.put(name, new TermDefinition(name, value, null, false)));
+            candidates.putAll(terms);
+            candidates.values().forEach(definition -> vocabIris.put(definition.term(), definition.iri()));
+            candidates.values().stream()
+                    .filter(definition -> definition.type() == null || ID.equals(definition.type()))
+                    .sorted(Comparator.comparingInt((TermDefinition definition) -> definition.set() ? 0 : 1)
+                            .thenComparingInt(definition -> ID.equals(definition.type()) ? 0 : 1)
+                            .thenComparingInt(definition -> definition.term().length())
+                            .thenComparing(TermDefinition::term))
+                    .forEach(definition -> vocabTerms.putIfAbsent(definition.iri(), definition.term()));
+        }
+
+        String term() {
+            return term;
+        }
+
+        String iri() {
+            return iri;
+        }
+
+        TermDefinition property(String name) {
+            return properties.get(name);
+        }
+
+        TermDefinition propertyByIri(String propertyIri) {
+            return propertiesByIri.get(propertyIri);
+        }
+
+        /**
+         * Expands a value of a {@code @vocab} typed property, or returns null if the value is not a term.
+         */
+        String expandVocab(String value) {
+            return vocabIris.get(value);
+        }
+
+        /**
+         * Compacts an IRI of a {@code @vocab} typed property to a term, or returns null if no term is selected.
+         */
+        String compactVocab(String value) {
+            return vocabTerms.get(value);
+        }
+
+        List<String> propertyNames() {
+            return List.copyOf(properties.keySet());
+        }
+    }
+}
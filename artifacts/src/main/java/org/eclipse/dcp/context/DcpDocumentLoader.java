@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.document.Document;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import jakarta.json.Json;
+import jakarta.json.JsonStructure;
+import org.eclipse.dcp.metrics.DcpMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+import static org.eclipse.dcp.schema.SchemaConstants.ODRL_CONTEXT;
+
+/**
+ * An offline JSON-LD document loader serving pinned contexts from memory.
+ * <p>
+ * The bundled DCP and ODRL contexts, and any context added through the {@link Builder}, are parsed once when the loader is
+ * built. Lookups of pinned contexts never touch the network. Other URLs are passed to the fallback loader if one is configured
+ * and fail otherwise.
+ */
+public final class DcpDocumentLoader implements DocumentLoader {
+
+    private final Map<String, JsonStructure> contexts;
+    private final DocumentLoader fallback;
+    private final DcpMetrics metrics;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private DcpDocumentLoader(Map<String, JsonStructure> contexts, DocumentLoader fallback, DcpMetrics metrics) {
+        this.contexts = Map.copyOf(contexts);
+        this.fallback = fallback;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the process-wide loader serving the bundled contexts, without fallback.
+     */
+    public static DcpDocumentLoader getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns a builder that is pre-populated with the bundled DCP and ODRL contexts.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+        var context = contexts.get(url.toString());
+        if (context != null) {
+            hits.increment();
+            metrics.contextLookup(url.toString(), true);
+            // the parsed content is immutable, only the lightweight document wrapper is created per lookup
+            var document = JsonDocument.of(context);
+            document.setDocumentUrl(url);
+            return document;
+        }
+        misses.increment();
+        metrics.contextLookup(url.toString(), false);
+        if (fallback != null) {
+            return fallback.loadDocument(url, options);
+        }
+        throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Document is not pinned: " + url);
+    }
+
+    /**
+     * Returns true if the URL is served from memory.
+     */
+    public boolean isPinned(String url) {
+        return contexts.containsKey(url);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Builds {@link DcpDocumentLoader} instances.
+     */
+    public static final class Builder {
+        private final Map<String, JsonStructure> contexts = new HashMap<>();
+        private DocumentLoader fallback;
+        private DcpMetrics metrics = DcpMetrics.NOOP;
+
+        private Builder() {
+            context(DCP_CONTEXT, "/context/dcp.jsonld");
+            context(ODRL_CONTEXT, "/context/odrl.jsonld");
+        }
+
+        /**
+         * Pins a context to a classpath resource. The resource is parsed immediately.
+         */
+        public Builder context(String url, String resource) {
+            try (var stream = DcpDocumentLoader.class.getResourceAsStream(resource)) {
+                if (stream == null) {
+                    throw new IllegalArgumentException("Context resource not found: " + resource);
+                }
+                try (var reader = Json.createReader(stream)) {
+                    return context(url, reader.read());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public Builder context(String url, JsonStructure context) {
+            contexts.put(url, context);
+            return this;
+        }
+
+        /**
+         * Sets the loader used for documents that are not pinned, e.g. a caching network loader.
+         */
+        public Builder fallback(DocumentLoader fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        /**
+         * Sets the metrics receiving every lookup as a hit or a miss of the pinned contexts.
+         */
+        public Builder metrics(DcpMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public DcpDocumentLoader build() {
+            return new DcpDocumentLoader(contexts, fallback, metrics);
+        }
+    }
+
+    private static final class Holder {
+        private static final DcpDocumentLoader INSTANCE = builder().build();
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context;
+
+import com.apicatalog.jsonld.JsonLd;
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+import org.eclipse.dcp.context.DcpContextTable.TermDefinition;
+import org.eclipse.dcp.context.DcpContextTable.TypeScope;
+import org.eclipse.dcp.metrics.DcpMetrics;
+import org.eclipse.dcp.metrics.JsonLdStage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.eclipse.dcp.context.DcpContextTable.CONTEXT;
+import static org.eclipse.dcp.context.DcpContextTable.ID;
+import static org.eclipse.dcp.context.DcpContextTable.ID_ALIAS;
+import static org.eclipse.dcp.context.DcpContextTable.JSON;
+import static org.eclipse.dcp.context.DcpContextTable.TYPE;
+import static org.eclipse.dcp.context.DcpContextTable.TYPE_ALIAS;
+import static org.eclipse.dcp.context.DcpContextTable.VALUE;
+import static org.eclipse.dcp.context.DcpContextTable.VOCAB;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+
+/**
+ * Expands and compacts DCP messages that only use the DCP context.
+ * <p>
+ * Since {@code dcp.jsonld} is protected and fixed per version, its term definitions and type-scoped contexts are precomputed
+ * and DCP messages are expanded and compacted in a single pass over the document. The result is the same as the one of the
+ * JSON-LD processing algorithms. Documents that reference other contexts, use terms or value shapes outside the DCP context,
+ * or would require any other part of the algorithms are processed by the generic Titanium processor instead.
+ * <p>
+ * With {@link DcpMetrics} other than {@link DcpMetrics#NOOP}, the time of every expansion and compaction is recorded, split
+ * by fast path and generic processor.
+ */
+public class DcpJsonLdCodec {
+    private static final DcpContextTable TABLE = DcpContextTable.load();
+
+    private final JsonProvider provider = JsonProvider.provider();
+    private final JsonLdOptions options;
+    private final DcpMetrics metrics;
+    private final boolean measured;
+    private final LongAdder fastPath = new LongAdder();
+    private final LongAdder fallback = new LongAdder();
+
+    /**
+     * Creates a codec that falls back to the generic processor with the shared {@link DcpDocumentLoader}.
+     */
+    public DcpJsonLdCodec() {
+        this(DcpDocumentLoader.getInstance());
+    }
+
+    /**
+     * Creates a codec that falls back to the generic processor with the given document loader.
+     */
+    public DcpJsonLdCodec(DocumentLoader documentLoader) {
+        this(documentLoader, DcpMetrics.NOOP);
+    }
+
+    /**
+     * Creates a codec that falls back to the generic processor with the given document loader and records its timings.
+     */
+    public DcpJsonLdCodec(DocumentLoader documentLoader, DcpMetrics metrics) {
+        options = new JsonLdOptions();
+        options.setDocumentLoader(documentLoader);
+        this.metrics = metrics;
+        this.measured = metrics.enabled();
+    }
+
+    /**
+     * Expands a document.
+     *
+     * @param document the compacted document
+     * @return the expanded document
+     * @throws JsonLdError if the generic processor fails on a document outside the fast path
+     */
+    public JsonArray expand(JsonObject document) throws JsonLdError {
+        var start = measured ? System.nanoTime() : 0;
+        if (isDcpContext(document.get(CONTEXT))) {
+            var node = expandNode(document, true);
+            if (node != null) {
+                fastPath.increment();
+                var expanded = provider.createArrayBuilder().add(node).build();
+                record(JsonLdStage.EXPAND, true, start);
+                return expanded;
+            }
+        }
+        fallback.increment();
+        try {
+            return JsonLd.expand(JsonDocument.of(document)).options(options).get();
+        } finally {
+            record(JsonLdStage.EXPAND, false, start);
+        }
+    }
+
+    /**
+     * Compacts an expanded document.
+     *
+     * @param expanded the expanded document
+     * @param context the value of the {@code @context} to compact against, e.g. the {@code @context} of the original message
+     * @return the compacted document
+     * @throws JsonLdError if the generic processor fails on a document outside the fast path
+     */
+    public JsonObject compact(JsonStructure expanded, JsonValue context) throws JsonLdError {
+        var start = measured ? System.nanoTime() : 0;
+        if (isDcpContext(context)) {
+            var node = singleNode(expanded);
+            var builder = node == null ? null : provider.createObjectBuilder().add(CONTEXT, context);
+            if (builder != null && compactNode(node, builder)) {
+                fastPath.increment();
+                var compacted = builder.build();
+                record(JsonLdStage.COMPACT, true, start);
+                return compacted;
+            }
+        }
+        fallback.increment();
+        var contextDocument = provider.createObjectBuilder().add(CONTEXT, context).build();
+        try {
+            return JsonLd.compact(JsonDocument.of(expanded), JsonDocument.of(contextDocument)).options(options).get();
+        } finally {
+            record(JsonLdStage.COMPACT, false, start);
+        }
+    }
+
+    /**
+     * The number of documents processed by the fast path.
+     */
+    public long fastPathCount() {
+        return fastPath.sum();
+    }
+
+    /**
+     * The number of documents handed to the generic processor.
+     */
+    public long fallbackCount() {
+        return fallback.sum();
+    }
+
+    private void record(JsonLdStage stage, boolean fastPath, long start) {
+        if (measured) {
+            metrics.jsonLd(stage, fastPath, System.nanoTime() - start);
+        }
+    }
+
+    private boolean isDcpContext(JsonValue context) {
+        if (context == null) {
+            return false;
+        }
+        if (context.getValueType() == JsonValue.ValueType.ARRAY) {
+            var array = context.asJsonArray();
+            return array.size() == 1 && isDcpContext(array.get(0));
+        }
+        return context.getValueType() == JsonValue.ValueType.STRING && DCP_CONTEXT.equals(((JsonString) context).getString());
+    }
+
+    private JsonObject singleNode(JsonStructure expanded) {
+        if (expanded.getValueType() == JsonValue.ValueType.ARRAY) {
+            var array = expanded.asJsonArray();
+            return array.size() == 1 && array.get(0).getValueType() == JsonValue.ValueType.OBJECT ? array.getJsonObject(0) : null;
+        }
+        return expanded.asJsonObject();
+    }
+
+    // expansion: each method returns null if the input is outside the fast path
+
+    private JsonObject expandNode(JsonObject node, boolean root) {
+        var type = node.get(TYPE_ALIAS);
+        if (type == null || type.getValueType() != JsonValue.ValueType.STRING) {
+            return null;
+        }
+        var scope = TABLE.typeByTerm(((JsonString) type).getString());
+        if (scope == null) {
+            return null;
+        }
+        var builder = provider.createObjectBuilder()
+                .add(TYPE, provider.createArrayBuilder().add(scope.iri()));
+        for (var entry : node.entrySet()) {
+            var key = entry.getKey();
+            var value = entry.getValue();
+            if (TYPE_ALIAS.equals(key) || (root && CONTEXT.equals(key))) {
+                continue;
+            }
+            if (ID_ALIAS.equals(key)) {
+                if (value.getValueType() != JsonValue.ValueType.STRING || TABLE.isAmbiguousIri(((JsonString) value).getString(), scope)) {
+                    return null;
+                }
+                builder.add(ID, value);
+                continue;
+            }
+            var definition = scope.property(key);
+            if (definition == null) {
+                return null;
+            }
+            var expanded = expandProperty(definition, value, scope);
+            if (expanded == null) {
+                return null;
+            }
+            builder.add(definition.iri(), expanded);
+        }
+        return builder.build();
+    }
+
+    private JsonArray expandProperty(TermDefinition definition, JsonValue value, TypeScope scope) {
+        var values = provider.createArrayBuilder();
+        if (JSON.equals(definition.type())) {
+            if (value.getValueType() == JsonValue.ValueType.NULL) {
+                return null;
+            }
+            return values.add(provider.createObjectBuilder().add(VALUE, value).add(TYPE, JSON)).build();
+        }
+        if (value.getValueType() == JsonValue.ValueType.ARRAY) {
+            var array = value.asJsonArray();
+            if (array.isEmpty()) {
+                return null;
+            }
+            for (var item : array) {
+                var expanded = item.getValueType() == JsonValue.ValueType.ARRAY ? null : expandValue(definition, item, scope);
+                if (expanded == null) {
+                    return null;
+                }
+                values.add(expanded);
+            }
+            return values.build();
+        }
+        var expanded = expandValue(definition, value, scope);
+        return expanded == null ? null : values.add(expanded).build();
+    }
+
+    private JsonObject expandValue(TermDefinition definition, JsonValue value, TypeScope scope) {
+        var type = definition.type();
+        if (value.getValueType() == JsonValue.ValueType.OBJECT) {
+            // nested nodes, type-scoped contexts do not propagate into them
+            return type == null ? expandNode(value.asJsonObject(), false) : null;
+        }
+        if (value.getValueType() != JsonValue.ValueType.STRING) {
+            return null;
+        }
+        var string = ((JsonString) value).getString();
+        if (type == null) {
+            return provider.createObjectBuilder().add(VALUE, value).build();
+        }
+        if (ID.equals(type)) {
+            return TABLE.isAmbiguousIri(string, scope) ? null : provider.createObjectBuilder().add(ID, value).build();
+        }
+        if (VOCAB.equals(type)) {
+            var iri = scope.expandVocab(string);
+            return iri == null ? null : provider.createObjectBuilder().add(ID, iri).build();
+        }
+        return provider.createObjectBuilder().add(VALUE, value).add(TYPE, type).build();
+    }
+
+    // compaction: each method returns null or false if the input is outside the fast path
+
+    private boolean compactNode(JsonObject node, JsonObjectBuilder builder) {
+        var types = node.get(TYPE);
+        if (types == null || types.getValueType() != JsonValue.ValueType.ARRAY || types.asJsonArray().size() != 1 ||
+                types.asJsonArray().get(0).getValueType() != JsonValue.ValueType.STRING) {
+            return false;
+        }
+        var scope = TABLE.typeByIri(types.asJsonArray().getString(0));
+        if (scope == null) {
+            return false;
+        }
+        builder.add(TYPE_ALIAS, scope.term());
+        for (var entry : node.entrySet()) {
+            var key = entry.getKey();
+            var value = entry.getValue();
+            if (TYPE.equals(key)) {
+                continue;
+            }
+            if (ID.equals(key)) {
+                if (value.getValueType() != JsonValue.ValueType.STRING || TABLE.isAmbiguousIri(((JsonString) value).getString(), scope)) {
+                    return false;
+                }
+                builder.add(ID_ALIAS, value);
+                continue;
+            }
+            var definition = scope.propertyByIri(key);
+            if (definition == null || value.getValueType() != JsonValue.ValueType.ARRAY) {
+                return false;
+            }
+            var compacted = compactProperty(definition, value.asJsonArray(), scope);
+            if (compacted == null) {
+                return false;
+            }
+            builder.add(definition.term(), compacted);
+        }
+        return true;
+    }
+
+    private JsonValue compactProperty(TermDefinition definition, JsonArray values, TypeScope scope) {
+        // mirrors the JSON-LD 'add value' algorithm: compacted arrays are flattened into the property value, which is only
+        // kept as an array for @set containers or if it holds more than one item
+        var items = new ArrayList<JsonValue>(values.size());
+        for (var value : values) {
+            if (value.getValueType() != JsonValue.ValueType.OBJECT) {
+                return null;
+            }
+            var compacted = compactValue(definition, value.asJsonObject(), scope);
+            if (compacted == null) {
+                return null;
+            }
+            if (compacted.getValueType() == JsonValue.ValueType.ARRAY) {
+                for (var item : compacted.asJsonArray()) {
+                    if (item.getValueType() == JsonValue.ValueType.ARRAY) {
+                        return null;
+                    }
+                    items.add(item);
+                }
+            } else {
+                items.add(compacted);
+            }
+        }
+        if (items.size() == 1 && !definition.set()) {
+            return items.get(0);
+        }
+        return items.isEmpty() && !definition.set() ? null : toArray(items);
+    }
+
+    private JsonValue compactValue(TermDefinition definition, JsonObject value, TypeScope scope) {
+        var type = definition.type();
+        if (JSON.equals(type)) {
+            return value.size() == 2 && JSON.equals(stringOrNull(value.get(TYPE))) ? value.get(VALUE) : null;
+        }
+        if (ID.equals(type) || VOCAB.equals(type)) {
+            var id = value.size() == 1 ? stringOrNull(value.get(ID)) : null;
+            if (id == null) {
+                return null;
+            }
+            if (VOCAB.equals(type)) {
+                var term = scope.compactVocab(id);
+                return term == null ? null : provider.createValue(term);
+            }
+            return TABLE.isAmbiguousIri(id, scope) ? null : value.get(ID);
+        }
+        if (!value.containsKey(VALUE)) {
+            if (type != null) {
+                return null;
+            }
+            var builder = provider.createObjectBuilder();
+            return compactNode(value, builder) ? builder.build() : null;
+        }
+        if (value.get(VALUE).getValueType() != JsonValue.ValueType.STRING) {
+            return null;
+        }
+        if (type == null) {
+            return value.size() == 1 ? value.get(VALUE) : null;
+        }
+        return value.size() == 2 && type.equals(stringOrNull(value.get(TYPE))) ? value.get(VALUE) : null;
+    }
+
+    private JsonArray toArray(List<JsonValue> items) {
+        JsonArrayBuilder builder = provider.createArrayBuilder();
+        items.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static String stringOrNull(JsonValue value) {
+        return value != null && value.getValueType() == JsonValue.ValueType.STRING ? ((JsonString) value).getString() : null;
+    }
+}
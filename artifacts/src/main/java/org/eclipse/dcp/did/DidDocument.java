@@ -0,0 +1,139 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.security.PublicKey;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed DID document with an index of its verification methods by {@code kid}.
+ * <p>
+ * The public keys of all verification methods are decoded when the document is parsed, including methods embedded in a
+ * verification relationship. Relative method ids such as {@code #key-1} are resolved against the document id.
+ */
+public final class DidDocument {
+
+    private final String id;
+    private final JsonNode document;
+    private final Map<String, VerificationMethod> methods;
+
+    private DidDocument(String id, JsonNode document, Map<String, VerificationMethod> methods) {
+        this.id = id;
+        this.document = document;
+        this.methods = methods;
+    }
+
+    /**
+     * Parses a DID document.
+     *
+     * @throws IllegalArgumentException if the document has no id
+     */
+    public static DidDocument parse(JsonNode document) {
+        var id = document.path("id").asText(null);
+        if (id == null) {
+            throw new IllegalArgumentException("DID document has no id");
+        }
+        var rawMethods = new LinkedHashMap<String, JsonNode>();
+        var relationships = new HashMap<String, Set<String>>();
+        for (var method : document.path("verificationMethod")) {
+            rawMethods.put(absolute(id, method.path("id").asText()), method);
+        }
+        for (var relationship : VerificationMethod.RELATIONSHIPS) {
+            for (var reference : document.path(relationship)) {
+                String methodId;
+                if (reference.isObject()) {
+                    methodId = absolute(id, reference.path("id").asText());
+                    rawMethods.putIfAbsent(methodId, reference);
+                } else {
+                    methodId = absolute(id, reference.asText());
+                }
+                relationships.computeIfAbsent(methodId, key -> new HashSet<>()).add(relationship);
+            }
+        }
+        var methods = new HashMap<String, VerificationMethod>();
+        rawMethods.forEach((methodId, method) -> methods.put(methodId, new VerificationMethod(
+                methodId,
+                method.path("type").asText(null),
+                method.path("controller").asText(id),
+                decodeKey(method),
+                Set.copyOf(relationships.getOrDefault(methodId, Set.of())))));
+        return new DidDocument(id, document, Map.copyOf(methods));
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Returns the document as resolved.
+     */
+    public JsonNode document() {
+        return document;
+    }
+
+    /**
+     * Returns the verification method of a {@code kid}, which may be absolute or relative to the document id, or null if the
+     * document has no such method.
+     */
+    public VerificationMethod verificationMethod(String kid) {
+        return methods.get(absolute(id, kid));
+    }
+
+    public Collection<VerificationMethod> verificationMethods() {
+        return methods.values();
+    }
+
+    /**
+     * Returns the endpoint of the first service of the type, e.g. {@code CredentialService}, or null if there is none.
+     */
+    public String serviceEndpoint(String type) {
+        for (var service : document.path("service")) {
+            var serviceType = service.path("type");
+            if (type.equals(serviceType.asText()) || (serviceType.isArray() && containsText(serviceType, type))) {
+                return service.path("serviceEndpoint").asText(null);
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsText(JsonNode array, String value) {
+        for (var element : array) {
+            if (value.equals(element.asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String absolute(String documentId, String methodId) {
+        return methodId.startsWith("#") ? documentId + methodId : methodId;
+    }
+
+    private static PublicKey decodeKey(JsonNode method) {
+        try {
+            return PublicKeys.decode(method);
+        } catch (IllegalArgumentException e) {
+            // the method is kept, so that a lookup reports an unusable key instead of a missing method
+            return null;
+        }
+    }
+}
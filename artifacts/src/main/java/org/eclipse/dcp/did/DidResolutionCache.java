@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches parsed DID documents.
+ * <p>
+ * Documents are cached for a fixed time to live, failed resolutions for a shorter negative time to live, so that a DID that
+ * cannot be resolved is not requested again for every token referring to it. Concurrent lookups of a DID that is not cached
+ * share a single resolution, which is started outside the lock of the cache entry. A resolved document whose {@code id} is not
+ * the requested DID is a failed resolution.
+ */
+public final class DidResolutionCache {
+
+    private final DidResolver resolver;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final LongAdder resolutions = new LongAdder();
+
+    private DidResolutionCache(DidResolver resolver, Duration ttl, Duration negativeTtl, Clock clock) {
+        this.resolver = resolver;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+    }
+
+    public static Builder builder(DidResolver resolver) {
+        return new Builder(resolver);
+    }
+
+    /**
+     * Returns the parsed document of a DID.
+     * <p>
+     * The future fails with {@link IllegalArgumentException} if the document has no id or its id is not the DID.
+     */
+    public CompletableFuture<DidDocument> resolve(String did) {
+        return entry(did).thenApply(entry -> {
+            if (entry.failure() != null) {
+                throw new CompletionException(entry.failure());
+            }
+            return entry.document();
+        });
+    }
+
+    /**
+     * Returns the verification method of a {@code kid} such as {@code did:web:example.com#key-1}, checking that the method
+     * is referenced by the verification relationship.
+     * <p>
+     * The future fails with {@link IllegalArgumentException} if the {@code kid} has no fragment, and with
+     * {@link IllegalStateException} if the document has no such method, the method is not referenced by the relationship or its
+     * key could not be decoded.
+     *
+     * @param kid the absolute id of the verification method
+     * @param relationship the required relationship, e.g. {@link VerificationMethod#AUTHENTICATION}
+     */
+    public CompletableFuture<VerificationMethod> verificationMethod(String kid, String relationship) {
+        var fragment = kid.indexOf('#');
+        if (fragment <= 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("kid is not an absolute DID URL: " + kid));
+        }
+        return resolve(kid.substring(0, fragment)).thenApply(document -> {
+            var method = document.verificationMethod(kid);
+            if (method == null) {
+                throw new IllegalStateException("No verification method " + kid);
+            }
+            if (!method.hasRelationship(relationship)) {
+                throw new IllegalStateException("Verification method %s is not authorized for %s".formatted(kid, relationship));
+            }
+            if (method.publicKey() == null) {
+                throw new IllegalStateException("Unsupported key of verification method " + kid);
+            }
+            return method;
+        });
+    }
+
+    /**
+     * Drops a cached document.
+     */
+    public void invalidate(String did) {
+        entries.remove(did);
+    }
+
+    /**
+     * Returns the number of resolutions since the cache was created.
+     */
+    public long resolutionCount() {
+        return resolutions.sum();
+    }
+
+    private CompletableFuture<Entry> entry(String did) {
+        var now = clock.instant();
+        var current = entries.get(did);
+        if (current != null && isFresh(current, now)) {
+            return current;
+        }
+        // the resolver is called after compute returns, so that it does not run under the lock of the map bin
+        var placeholder = new CompletableFuture<Entry>();
+        var future = entries.compute(did, (key, existing) -> existing != null && isFresh(existing, now) ? existing : placeholder);
+        if (future == placeholder) {
+            load(did).thenAccept(placeholder::complete);
+        }
+        return future;
+    }
+
+    private CompletableFuture<Entry> load(String did) {
+        resolutions.increment();
+        CompletableFuture<Entry> future;
+        try {
+            future = resolver.resolve(did).thenApply(document -> new Entry(parse(did, document), null, clock.instant().plus(ttl)));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.exceptionally(failure -> new Entry(null, unwrap(failure), clock.instant().plus(negativeTtl)));
+    }
+
+    private static DidDocument parse(String did, JsonNode document) {
+        var parsed = DidDocument.parse(document);
+        if (!did.equals(parsed.id())) {
+            throw new IllegalArgumentException("Document of %s has the id %s".formatted(did, parsed.id()));
+        }
+        return parsed;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static boolean isFresh(CompletableFuture<Entry> future, Instant now) {
+        return !future.isDone() || future.join().expiresAt().isAfter(now);
+    }
+
+    private record Entry(DidDocument document, Throwable failure, Instant expiresAt) {
+    }
+
+    /**
+     * Builds {@link DidResolutionCache} instances.
+     */
+    public static final class Builder {
+        private final DidResolver resolver;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration negativeTtl = Duration.ofSeconds(30);
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(DidResolver resolver) {
+            this.resolver = Objects.requireNonNull(resolver, "resolver");
+        }
+
+        /**
+         * Sets how long resolved documents are cached. Defaults to five minutes.
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets how long failed resolutions are cached. Defaults to 30 seconds.
+         */
+        public Builder negativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public DidResolutionCache build() {
+            return new DidResolutionCache(resolver, ttl, negativeTtl, clock);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves DIDs to DID documents.
+ */
+@FunctionalInterface
+public interface DidResolver {
+
+    /**
+     * Resolves the DID document of a DID. The future fails if the DID cannot be resolved.
+     */
+    CompletableFuture<JsonNode> resolve(String did);
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves {@code did:web} DIDs over HTTP.
+ */
+public class DidWebResolver implements DidResolver {
+    private static final String DID_WEB_PREFIX = "did:web:";
+    private static final String WELL_KNOWN = "/.well-known";
+    private static final String DID_DOCUMENT = "/did.json";
+    private static final Pattern PORT_SEPARATOR = Pattern.compile("%3A", Pattern.CASE_INSENSITIVE);
+    private static final Pattern VALID_HOST = Pattern.compile("[^%@/?#\\\\\\s]+");
+
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final String scheme;
+
+    /**
+     * Creates a resolver fetching DID documents over HTTPS.
+     */
+    public DidWebResolver(HttpClient client, ObjectMapper mapper) {
+        this(client, mapper, "https");
+    }
+
+    /**
+     * Creates a resolver. Use the scheme {@code http} only for tests.
+     *
+     * @param client the client fetching DID documents
+     * @param mapper the mapper parsing DID documents
+     * @param scheme the URL scheme
+     */
+    public DidWebResolver(HttpClient client, ObjectMapper mapper, String scheme) {
+        this.client = client;
+        this.mapper = mapper;
+        this.scheme = scheme;
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> resolve(String did) {
+        URI url;
+        try {
+            url = documentUrl(did);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var request = HttpRequest.newBuilder(url).header("Accept", "application/did+json, application/json").GET().build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("Resolving %s failed with HTTP %d".formatted(did, response.statusCode())));
+            }
+            try {
+                return mapper.readTree(response.body());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the URL of the DID document of a {@code did:web} DID.
+     * <p>
+     * As defined by the {@code did:web} method, only a percent-encoded port separator {@code %3A} is decoded in the host. A host
+     * with other percent-encoded characters or with characters that would change the authority, path or query of the URL, such
+     * as {@code @} or {@code /}, is rejected.
+     *
+     * @throws IllegalArgumentException if the DID is not a {@code did:web} DID or its host is invalid
+     */
+    public URI documentUrl(String did) {
+        if (did == null || !did.startsWith(DID_WEB_PREFIX) || did.length() == DID_WEB_PREFIX.length()) {
+            throw new IllegalArgumentException("Not a did:web DID: " + did);
+        }
+        var segments = did.substring(DID_WEB_PREFIX.length()).split(":");
+        var host = PORT_SEPARATOR.matcher(segments[0]).replaceAll(":");
+        if (host.isEmpty() || !VALID_HOST.matcher(host).matches()) {
+            throw new IllegalArgumentException("Invalid did:web host: " + segments[0]);
+        }
+        var url = new StringBuilder(scheme).append("://").append(host);
+        if (segments.length == 1) {
+            url.append(WELL_KNOWN);
+        }
+        for (var i = 1; i < segments.length; i++) {
+            url.append('/').append(segments[i]);
+        }
+        return URI.create(url.append(DID_DOCUMENT).toString());
+    }
+}
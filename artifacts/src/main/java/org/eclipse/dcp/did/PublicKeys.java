@@ -0,0 +1,156 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.EdECPoint;
+import java.security.spec.EdECPublicKeySpec;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Decodes the public keys of verification methods into JCA keys.
+ */
+final class PublicKeys {
+    private static final String BASE58_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+    private static final int ED25519_KEY_LENGTH = 32;
+
+    private PublicKeys() {
+    }
+
+    /**
+     * Decodes the {@code publicKeyJwk} or {@code publicKeyMultibase} of a verification method.
+     *
+     * @throws IllegalArgumentException if the method has no key or the key type is not supported
+     */
+    static PublicKey decode(JsonNode method) {
+        try {
+            if (method.has("publicKeyJwk")) {
+                return fromJwk(method.get("publicKeyJwk"));
+            }
+            if (method.has("publicKeyMultibase")) {
+                return fromMultibase(method.get("publicKeyMultibase").asText());
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid public key of verification method " + method.path("id").asText(), e);
+        }
+        throw new IllegalArgumentException("Verification method has no supported public key: " + method.path("id").asText());
+    }
+
+    static PublicKey fromJwk(JsonNode jwk) throws GeneralSecurityException {
+        var keyType = jwk.path("kty").asText();
+        switch (keyType) {
+            case "EC" -> {
+                var parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec(curveName(jwk.path("crv").asText())));
+                var point = new ECPoint(unsigned(jwk, "x"), unsigned(jwk, "y"));
+                return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+            }
+            case "OKP" -> {
+                if (!"Ed25519".equals(jwk.path("crv").asText())) {
+                    throw new IllegalArgumentException("Unsupported OKP curve: " + jwk.path("crv").asText());
+                }
+                return ed25519(Base64.getUrlDecoder().decode(jwk.path("x").asText()));
+            }
+            case "RSA" -> {
+                return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(unsigned(jwk, "n"), unsigned(jwk, "e")));
+            }
+            default -> throw new IllegalArgumentException("Unsupported JWK key type: " + keyType);
+        }
+    }
+
+    /**
+     * Decodes a base58btc multibase Ed25519 key with its multicodec prefix, as used by {@code Multikey} and
+     * {@code Ed25519VerificationKey2020} methods.
+     */
+    static PublicKey fromMultibase(String value) throws GeneralSecurityException {
+        if (value.isEmpty() || value.charAt(0) != 'z') {
+            throw new IllegalArgumentException("Unsupported multibase encoding: " + value);
+        }
+        var bytes = base58(value.substring(1));
+        if (bytes.length != ED25519_KEY_LENGTH + 2 || (bytes[0] & 0xff) != 0xed || bytes[1] != 0x01) {
+            throw new IllegalArgumentException("Unsupported multicodec key, only Ed25519 keys are supported");
+        }
+        return ed25519(Arrays.copyOfRange(bytes, 2, bytes.length));
+    }
+
+    private static PublicKey ed25519(byte[] encoded) throws GeneralSecurityException {
+        if (encoded.length != ED25519_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid Ed25519 key length: " + encoded.length);
+        }
+        // RFC 8032: little-endian y coordinate, the most significant bit holds the parity of x
+        var reversed = new byte[ED25519_KEY_LENGTH];
+        for (var i = 0; i < ED25519_KEY_LENGTH; i++) {
+            reversed[i] = encoded[ED25519_KEY_LENGTH - 1 - i];
+        }
+        var oddX = (reversed[0] & 0x80) != 0;
+        reversed[0] &= 0x7f;
+        var point = new EdECPoint(oddX, new BigInteger(1, reversed));
+        return KeyFactory.getInstance("Ed25519").generatePublic(new EdECPublicKeySpec(NamedParameterSpec.ED25519, point));
+    }
+
+    private static String curveName(String crv) {
+        return switch (crv) {
+            case "P-256" -> "secp256r1";
+            case "P-384" -> "secp384r1";
+            case "P-521" -> "secp521r1";
+            case "secp256k1" -> "secp256k1";
+            default -> throw new IllegalArgumentException("Unsupported EC curve: " + crv);
+        };
+    }
+
+    private static BigInteger unsigned(JsonNode jwk, String member) {
+        if (!jwk.path(member).isTextual()) {
+            throw new IllegalArgumentException("JWK is missing " + member);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get(member).asText()));
+    }
+
+    private static byte[] base58(String value) {
+        var number = BigInteger.ZERO;
+        var base = BigInteger.valueOf(58);
+        var leadingZeros = 0;
+        for (var i = 0; i < value.length(); i++) {
+            var digit = BASE58_ALPHABET.indexOf(value.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid base58 character: " + value.charAt(i));
+            }
+            if (digit == 0 && number.signum() == 0) {
+                leadingZeros++;
+            }
+            number = number.multiply(base).add(BigInteger.valueOf(digit));
+        }
+        var bytes = number.toByteArray();
+        var offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        if (number.signum() == 0) {
+            offset = bytes.length;
+        }
+        var result = new byte[leadingZeros + bytes.length - offset];
+        System.arraycopy(bytes, offset, result, leadingZeros, bytes.length - offset);
+        return result;
+    }
+}
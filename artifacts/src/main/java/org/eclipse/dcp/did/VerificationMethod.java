@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import java.security.PublicKey;
+import java.util.Set;
+
+/**
+ * A verification method of a DID document with its decoded key.
+ *
+ * @param id the absolute id of the method, used as {@code kid}
+ * @param type the method type, e.g. {@code JsonWebKey2020}
+ * @param controller the controller DID
+ * @param publicKey the decoded key, null if the key could not be decoded
+ * @param relationships the verification relationships referring to the method
+ */
+public record VerificationMethod(String id, String type, String controller, PublicKey publicKey, Set<String> relationships) {
+    public static final String AUTHENTICATION = "authentication";
+    public static final String ASSERTION_METHOD = "assertionMethod";
+    public static final String KEY_AGREEMENT = "keyAgreement";
+    public static final String CAPABILITY_INVOCATION = "capabilityInvocation";
+    public static final String CAPABILITY_DELEGATION = "capabilityDelegation";
+
+    /**
+     * The verification relationships defined by DID Core.
+     */
+    public static final Set<String> RELATIONSHIPS = Set.of(AUTHENTICATION, ASSERTION_METHOD, KEY_AGREEMENT, CAPABILITY_INVOCATION,
+            CAPABILITY_DELEGATION);
+
+    public boolean hasRelationship(String relationship) {
+        return relationships.contains(relationship);
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.issuance;
+
+import org.eclipse.dcp.message.CredentialRequestStatus;
+import org.eclipse.dcp.message.CredentialStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.eclipse.dcp.message.CredentialRequestStatus.ISSUED;
+import static org.eclipse.dcp.message.CredentialRequestStatus.RECEIVED;
+import static org.eclipse.dcp.message.CredentialRequestStatus.REJECTED;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+
+/**
+ * Tracks the status of credential requests on the issuer side and serves the Credential Request Status API.
+ * <p>
+ * A request is registered as {@code RECEIVED} and moves once to either {@code ISSUED} or {@code REJECTED}. Transitions are
+ * compare-and-set operations on the current {@link CredentialStatus}, so concurrent attempts to complete a request cannot
+ * both succeed. Statuses are indexed by {@code issuerPid} and {@code holderPid} in concurrent maps and are read without
+ * locks; reads return the stored, immutable {@link CredentialStatus} messages.
+ * <p>
+ * If a log file is configured, every registration and transition is appended to it as a fixed-size, checksummed record of the
+ * complete status. Appends reserve their record with an atomic counter and write to a memory-mapped segment of the file, so
+ * writers do not lock each other either. Since a status only ever advances from {@code RECEIVED} to a final status, the log
+ * is replayed without regard to record order: the most advanced record of a request wins. Records that were reserved but
+ * not completely written before a crash fail their checksum and are skipped. A change is in the log when its method returns;
+ * it survives process restarts, and {@link #flush()} forces the log to storage.
+ */
+public final class CredentialRequestStatusStore implements AutoCloseable {
+
+    /**
+     * The maximum length of an {@code issuerPid} or {@code holderPid} in UTF-8 bytes.
+     */
+    public static final int MAX_PID_LENGTH = 124;
+
+    private static final int RECORD_SIZE = 256;
+    private static final int MAGIC = 0x44435253;
+    private static final int VERSION = 1;
+    private static final List<String> CONTEXT = List.of(DCP_CONTEXT);
+
+    private final Map<String, CredentialStatus> byIssuerPid = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byHolderPid = new ConcurrentHashMap<>();
+    private final TransitionLog log;
+
+    private CredentialRequestStatusStore(Builder builder) {
+        log = builder.file == null ? null : new TransitionLog(builder.file, builder.segmentRecords);
+        if (log != null) {
+            log.replay(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Registers a received request.
+     *
+     * @return true if the request was registered, false if a request with the {@code issuerPid} exists
+     * @throws IllegalArgumentException if a process id is longer than {@link #MAX_PID_LENGTH} bytes
+     */
+    public boolean register(String issuerPid, String holderPid) {
+        var status = new CredentialStatus(CONTEXT, checkPid(issuerPid), checkPid(holderPid), RECEIVED);
+        if (byIssuerPid.putIfAbsent(issuerPid, status) != null) {
+            return false;
+        }
+        index(status);
+        append(status);
+        return true;
+    }
+
+    /**
+     * Moves a request from the expected status to the next status.
+     *
+     * @return true if the request was in the expected status and has been moved, false otherwise
+     * @throws IllegalArgumentException if the transition is not valid
+     */
+    public boolean transition(String issuerPid, CredentialRequestStatus expected, CredentialRequestStatus next) {
+        if (expected != RECEIVED || next == RECEIVED) {
+            throw new IllegalArgumentException("Invalid transition: %s -> %s".formatted(expected, next));
+        }
+        var current = byIssuerPid.get(issuerPid);
+        if (current == null || current.status() != expected) {
+            return false;
+        }
+        var updated = new CredentialStatus(CONTEXT, current.issuerPid(), current.holderPid(), next);
+        if (!byIssuerPid.replace(issuerPid, current, updated)) {
+            return false;
+        }
+        append(updated);
+        return true;
+    }
+
+    /**
+     * Moves a received request to {@code ISSUED}.
+     */
+    public boolean issue(String issuerPid) {
+        return transition(issuerPid, RECEIVED, ISSUED);
+    }
+
+    /**
+     * Moves a received request to {@code REJECTED}.
+     */
+    public boolean reject(String issuerPid) {
+        return transition(issuerPid, RECEIVED, REJECTED);
+    }
+
+    /**
+     * Returns the status of a request, or null if the request is unknown.
+     */
+    public CredentialStatus status(String issuerPid) {
+        return byIssuerPid.get(issuerPid);
+    }
+
+    /**
+     * Returns the statuses of the requests with the {@code holderPid}; holders choose their process ids, so there may be more
+     * than one.
+     */
+    public List<CredentialStatus> statusByHolderPid(String holderPid) {
+        var issuerPids = byHolderPid.get(holderPid);
+        if (issuerPids == null) {
+            return List.of();
+        }
+        return issuerPids.stream().map(byIssuerPid::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Returns the number of known requests.
+     */
+    public int size() {
+        return byIssuerPid.size();
+    }
+
+    /**
+     * Forces the log to storage.
+     */
+    public void flush() {
+        if (log != null) {
+            log.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void index(CredentialStatus status) {
+        byHolderPid.computeIfAbsent(status.holderPid(), key -> ConcurrentHashMap.newKeySet()).add(status.issuerPid());
+    }
+
+    private void append(CredentialStatus status) {
+        if (log != null) {
+            log.append(status);
+        }
+    }
+
+    /**
+     * Applies a logged status unless a more advanced status of the request is known.
+     */
+    private void restore(CredentialStatus status) {
+        var current = byIssuerPid.get(status.issuerPid());
+        if (current == null) {
+            byIssuerPid.put(status.issuerPid(), status);
+            index(status);
+        } else if (current.status() == RECEIVED && status.status() != RECEIVED) {
+            byIssuerPid.put(status.issuerPid(), status);
+        }
+    }
+
+    private static String checkPid(String pid) {
+        if (pid.getBytes(StandardCharsets.UTF_8).length > MAX_PID_LENGTH) {
+            throw new IllegalArgumentException("Process id longer than %d bytes".formatted(MAX_PID_LENGTH));
+        }
+        return pid;
+    }
+
+    /**
+     * The log file: a header record followed by status records, mapped in segments of a fixed number of records. A record
+     * holds a CRC-32 of its remaining bytes, the status code, the lengths of the process ids and the process ids.
+     */
+    private static final class TransitionLog {
+        private final FileChannel channel;
+        private final Path file;
+        private final int segmentRecords;
+        private final AtomicLong next = new AtomicLong(1);
+        private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+        TransitionLog(Path file, int segmentRecords) {
+            this.file = file;
+            this.segmentRecords = segmentRecords;
+            try {
+                channel = FileChannel.open(file, CREATE, READ, WRITE);
+                if (channel.size() == 0) {
+                    segment(0).putInt(0, MAGIC).putInt(4, VERSION).putInt(8, segmentRecords);
+                } else {
+                    var header = ByteBuffer.allocate(12);
+                    channel.read(header, 0);
+                    if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != segmentRecords) {
+                        channel.close();
+                        throw new IllegalStateException("Not a status log with %d records per segment: %s".formatted(segmentRecords, file));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void replay(CredentialRequestStatusStore store) {
+            long size;
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            var records = size / RECORD_SIZE;
+            var highest = 0L;
+            var record = new byte[RECORD_SIZE];
+            for (var index = 1L; index < records; index++) {
+                var segment = segment((int) (index / segmentRecords));
+                var offset = (int) (index % segmentRecords) * RECORD_SIZE;
+                if (segment.getLong(offset) == 0) {
+                    // never reserved, or reserved but not written
+                    continue;
+                }
+                segment.get(offset, record);
+                var status = decode(record);
+                if (status != null) {
+                    store.restore(status);
+                    highest = index;
+                }
+            }
+            next.set(highest + 1);
+        }
+
+        void append(CredentialStatus status) {
+            var record = encode(status);
+            var index = next.getAndIncrement();
+            var segment = segment((int) (index / segmentRecords));
+            var offset = (int) (index % segmentRecords) * RECORD_SIZE;
+            segment.put(offset + 4, record, 4, RECORD_SIZE - 4);
+            // the checksum is written last and marks the record as complete
+            segment.put(offset, record, 0, 4);
+        }
+
+        void force() {
+            for (var segment : segments) {
+                segment.force();
+            }
+        }
+
+        void close() {
+            force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private MappedByteBuffer segment(int index) {
+            var current = segments;
+            if (index < current.length) {
+                return current[index];
+            }
+            synchronized (this) {
+                current = segments;
+                if (index >= current.length) {
+                    var grown = Arrays.copyOf(current, index + 1);
+                    try {
+                        for (var i = current.length; i <= index; i++) {
+                            var size = (long) segmentRecords * RECORD_SIZE;
+                            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * size, size);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot extend status log " + file, e);
+                    }
+                    segments = grown;
+                    current = grown;
+                }
+                return current[index];
+            }
+        }
+
+        private static byte[] encode(CredentialStatus status) {
+            var issuerPid = status.issuerPid().getBytes(StandardCharsets.UTF_8);
+            var holderPid = status.holderPid().getBytes(StandardCharsets.UTF_8);
+            var record = new byte[RECORD_SIZE];
+            ByteBuffer.wrap(record)
+                    .put(4, statusCode(status.status()))
+                    .put(5, (byte) issuerPid.length)
+                    .put(6, (byte) holderPid.length)
+                    .put(8, issuerPid)
+                    .put(8 + MAX_PID_LENGTH, holderPid)
+                    .putInt(0, checksum(record));
+            return record;
+        }
+
+        private static CredentialStatus decode(byte[] record) {
+            var buffer = ByteBuffer.wrap(record);
+            var status = status(buffer.get(4));
+            int issuerLength = buffer.get(5);
+            int holderLength = buffer.get(6);
+            if (buffer.getInt(0) != checksum(record) || status == null ||
+                    issuerLength < 0 || issuerLength > MAX_PID_LENGTH || holderLength < 0 || holderLength > MAX_PID_LENGTH) {
+                return null;
+            }
+            return new CredentialStatus(CONTEXT,
+                    new String(record, 8, issuerLength, StandardCharsets.UTF_8),
+                    new String(record, 8 + MAX_PID_LENGTH, holderLength, StandardCharsets.UTF_8),
+                    status);
+        }
+
+        /**
+         * Returns the code of a status in the log. Codes are part of the file format and must not change.
+         */
+        private static byte statusCode(CredentialRequestStatus status) {
+            return switch (status) {
+                case RECEIVED -> 1;
+                case REJECTED -> 2;
+                case ISSUED -> 3;
+            };
+        }
+
+        /**
+         * Returns the status with a code in the log, or null if the code is unknown.
+         */
+        private static CredentialRequestStatus status(byte code) {
+            return switch (code) {
+                case 1 -> RECEIVED;
+                case 2 -> REJECTED;
+                case 3 -> ISSUED;
+                default -> null;
+            };
+        }
+
+        private static int checksum(byte[] record) {
+            var crc = new CRC32();
+            crc.update(record, 4, RECORD_SIZE - 4);
+            return (int) crc.getValue();
+        }
+    }
+
+    /**
+     * Builds {@link CredentialRequestStatusStore} instances.
+     */
+    public static final class Builder {
+        private Path file;
+        private int segmentRecords = 65_536;
+
+        private Builder() {
+        }
+
+        /**
+         * Logs registrations and transitions to a file. An existing log is replayed; it must have been created with the same
+         * segment size.
+         */
+        public Builder persistTo(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Sets the number of records per mapped segment of the log. Defaults to 65,536, i.e. 16 MiB segments.
+         */
+        public Builder segmentRecords(int segmentRecords) {
+            this.segmentRecords = segmentRecords;
+            return this;
+        }
+
+        /**
+         * Builds the store, replaying the log if one is configured.
+         *
+         * @throws IllegalArgumentException if the segment size is out of range
+         */
+        public CredentialRequestStatusStore build() {
+            if (segmentRecords < 2 || (long) segmentRecords * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Segment size out of range: " + segmentRecords);
+            }
+            return new CredentialRequestStatusStore(this);
+        }
+    }
+}
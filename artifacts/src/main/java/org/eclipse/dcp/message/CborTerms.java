@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+
+/**
+ * The integer codes {@link DcpCborCodec} uses for the member names and string values of the DCP context.
+ * <p>
+ * Codes are positions in the lists below and are part of the stored format: entries may be appended, but never removed or
+ * reordered.
+ */
+final class CborTerms {
+
+    /**
+     * Member names: the JSON-LD keywords and property terms of {@code dcp.jsonld} and the {@code format} property of the
+     * message schemas.
+     */
+    static final List<String> KEYS = List.of(
+            "@context", "id", "type", "payload", "credentials", "issuerPid", "holderPid", "status", "rejectionReason",
+            "credentialType", "credentialSchema", "offerReason", "bindingMethods", "profile", "issuancePolicy", "issuer",
+            "credentialsSupported", "presentationDefinition", "scope", "presentation", "presentationSubmission", "format");
+
+    /**
+     * String values: the DCP context, the type terms of {@code dcp.jsonld} and the credential request status values. Encoded
+     * as single-byte CBOR simple values, hence limited to 20 entries.
+     */
+    static final List<String> VALUES = List.of(
+            DCP_CONTEXT, "CredentialContainer", "CredentialMessage", "CredentialObject", "CredentialOfferMessage",
+            "CredentialRequestMessage", "CredentialService", "CredentialStatus", "IssuerMetadata", "IssuerService",
+            "PresentationQueryMessage", "PresentationResponseMessage", "RECEIVED", "REJECTED", "ISSUED");
+
+    static final int MAX_VALUES = 20;
+
+    private static final Map<String, Integer> KEY_CODES = codes(KEYS);
+    private static final Map<String, Integer> VALUE_CODES = codes(VALUES);
+
+    static {
+        if (VALUES.size() > MAX_VALUES) {
+            throw new IllegalStateException("Too many CBOR value codes: " + VALUES.size());
+        }
+    }
+
+    private CborTerms() {
+    }
+
+    /**
+     * Returns the code of a member name, or -1.
+     */
+    static int keyCode(String key) {
+        return KEY_CODES.getOrDefault(key, -1);
+    }
+
+    /**
+     * Returns the code of a string value, or -1.
+     */
+    static int valueCode(String value) {
+        return VALUE_CODES.getOrDefault(value, -1);
+    }
+
+    private static Map<String, Integer> codes(List<String> terms) {
+        var codes = new HashMap<String, Integer>();
+        for (var i = 0; i < terms.size(); i++) {
+            codes.put(terms.get(i), i);
+        }
+        return Map.copyOf(codes);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+/**
+ * An issued credential of a {@link CredentialMessage}.
+ *
+ * @param payload the credential
+ * @param credentialType the credential type
+ * @param format the credential format
+ */
+public record CredentialContainer(String payload, String credentialType, String format) {
+}
@@ -0,0 +1,39 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code CredentialMessage}.
+ *
+ * @param context the JSON-LD context
+ * @param credentials the issued credentials, null if absent
+ * @param issuerPid the issuer-side process id
+ * @param holderPid the holder-side process id, null if absent
+ * @param format the credential format, null if absent
+ * @param status {@link CredentialRequestStatus#ISSUED} or {@link CredentialRequestStatus#REJECTED}
+ * @param rejectionReason the reason of a rejection, null if absent
+ */
+public record CredentialMessage(List<String> context, List<CredentialContainer> credentials, String issuerPid, String holderPid, String format,
+                                CredentialRequestStatus status, String rejectionReason) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.CREDENTIAL_MESSAGE;
+    }
+}
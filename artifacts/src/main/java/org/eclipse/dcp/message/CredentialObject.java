@@ -0,0 +1,41 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code CredentialObject}, either a message of its own or an element of an offer or of issuer metadata.
+ *
+ * @param context the JSON-LD context, null if absent or not an array of strings
+ * @param id the id
+ * @param credentialType the credential type, null if absent
+ * @param credentialSchema the credential schema, null if absent
+ * @param offerReason the offer reason, null if absent
+ * @param bindingMethods the binding methods, null if absent
+ * @param profile the profile, null if absent
+ * @param issuancePolicy the issuance policy as a Presentation Definition, null if absent
+ */
+public record CredentialObject(List<String> context, String id, String credentialType, String credentialSchema, String offerReason,
+                               List<String> bindingMethods, String profile, JsonNode issuancePolicy) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.CREDENTIAL_OBJECT;
+    }
+}
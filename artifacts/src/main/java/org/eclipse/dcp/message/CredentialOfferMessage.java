@@ -0,0 +1,34 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code CredentialOfferMessage}.
+ *
+ * @param context the JSON-LD context
+ * @param issuer the issuer
+ * @param credentials the offered credential objects
+ */
+public record CredentialOfferMessage(List<String> context, String issuer, List<CredentialObject> credentials) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code CredentialRequestMessage}.
+ *
+ * @param context the JSON-LD context
+ * @param holderPid the holder-side process id
+ * @param credentials the ids of the requested credential objects
+ */
+public record CredentialRequestMessage(List<String> context, String holderPid, List<String> credentials) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code CredentialStatus}.
+ *
+ * @param context the JSON-LD context
+ * @param issuerPid the issuer-side process id
+ * @param holderPid the holder-side process id
+ * @param status the status of the request
+ */
+public record CredentialStatus(List<String> context, String issuerPid, String holderPid, CredentialRequestStatus status) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.CREDENTIAL_STATUS;
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary form of DCP messages for storage, based on CBOR (RFC 8949).
+ * <p>
+ * The encoding is lossless with respect to the JSON data model. Member names that are terms of the DCP context are
+ * written as small unsigned integer keys, other names as text keys. String values naming the DCP context, a DCP type or a
+ * credential request status are written as one-byte simple values. Integers use the CBOR integer and bignum types, other
+ * numbers the decimal fraction type, so no precision is lost. Arrays and objects are written with indefinite length,
+ * which lets {@link #encode(InputStream, OutputStream)} transcode without buffering the message.
+ * <p>
+ * Each encoded message starts with the self-described CBOR tag. Decoding is streaming: it reads exactly one message from the
+ * input and writes JSON events as it goes, so messages may be concatenated, e.g. in a status history. The codec is
+ * thread-safe.
+ */
+public final class DcpCborCodec {
+
+    private static final int SELF_DESCRIBED_TAG = 55799;
+    private static final int POSITIVE_BIGNUM_TAG = 2;
+    private static final int NEGATIVE_BIGNUM_TAG = 3;
+    private static final int DECIMAL_FRACTION_TAG = 4;
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+    private static final int TAG = 6;
+    private static final int SIMPLE = 7;
+
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int NULL = 0xf6;
+    private static final int BREAK = 0xff;
+    private static final int INDEFINITE = 31;
+    private static final int MAX_DEPTH = 512;
+
+    private final JsonFactory factory;
+
+    /**
+     * Creates a codec with a default JSON factory.
+     */
+    public DcpCborCodec() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * Creates a codec that reads and writes JSON with the given factory.
+     */
+    public DcpCborCodec(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Encodes a JSON message.
+     *
+     * @throws IllegalArgumentException if the message is not well-formed JSON
+     */
+    public byte[] encode(String json) {
+        var out = new ByteArrayOutputStream(json.length() / 2);
+        try (var parser = factory.createParser(json)) {
+            encode(parser, out);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a JSON message read from a stream. Neither stream is closed.
+     *
+     * @throws IllegalArgumentException if the message is not well-formed JSON
+     * @throws IOException if a stream fails
+     */
+    public void encode(InputStream json, OutputStream cbor) throws IOException {
+        var out = new BufferedOutputStream(cbor);
+        try (var parser = factory.createParser(json)) {
+            encode(parser, out);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message: " + e.getOriginalMessage(), e);
+        }
+        out.flush();
+    }
+
+    /**
+     * Decodes a message to JSON.
+     *
+     * @throws IllegalArgumentException if the input is not a message in this encoding
+     */
+    public String decode(byte[] cbor) {
+        var out = new ByteArrayOutputStream(cbor.length * 2);
+        try {
+            decode(new ByteArrayInputStream(cbor), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the next message of a stream and writes it as JSON. Reads no further than the end of the message, so the stream
+     * should be buffered; neither stream is closed.
+     *
+     * @throws IllegalArgumentException if the input is not a message in this encoding
+     * @throws EOFException if the stream ends before the message
+     * @throws IOException if a stream fails
+     */
+    public void decode(InputStream cbor, OutputStream json) throws IOException {
+        try (var generator = factory.createGenerator(json)) {
+            decode(cbor, generator);
+        }
+    }
+
+    /**
+     * Decodes the next message of a stream to events of a JSON generator, which is neither flushed nor closed.
+     *
+     * @throws IllegalArgumentException if the input is not a message in this encoding
+     * @throws EOFException if the stream ends before the message
+     * @throws IOException if a stream fails
+     */
+    public void decode(InputStream cbor, JsonGenerator json) throws IOException {
+        var reader = new Reader(cbor);
+        var initial = reader.read();
+        if (initial >> 5 != TAG || reader.argument(initial) != SELF_DESCRIBED_TAG) {
+            throw new IllegalArgumentException("Not an encoded DCP message");
+        }
+        reader.item(reader.read(), json, 0);
+    }
+
+    private static void encode(JsonParser parser, OutputStream out) throws IOException {
+        if (parser.nextToken() == null) {
+            throw new IllegalArgumentException("Empty message");
+        }
+        writeHead(out, TAG, SELF_DESCRIBED_TAG);
+        for (var token = parser.currentToken(); token != null; token = parser.nextToken()) {
+            switch (token) {
+                case START_OBJECT -> out.write(MAP << 5 | INDEFINITE);
+                case START_ARRAY -> out.write(ARRAY << 5 | INDEFINITE);
+                case END_OBJECT, END_ARRAY -> out.write(BREAK);
+                case FIELD_NAME -> {
+                    var code = CborTerms.keyCode(parser.currentName());
+                    if (code >= 0) {
+                        writeHead(out, UNSIGNED, code);
+                    } else {
+                        writeText(out, parser.currentName());
+                    }
+                }
+                case VALUE_STRING -> {
+                    var code = CborTerms.valueCode(parser.getText());
+                    if (code >= 0) {
+                        out.write(SIMPLE << 5 | code);
+                    } else {
+                        writeText(out, parser.getText());
+                    }
+                }
+                case VALUE_NUMBER_INT -> {
+                    if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                        writeInteger(out, parser.getBigIntegerValue());
+                    } else {
+                        writeInteger(out, parser.getLongValue());
+                    }
+                }
+                case VALUE_NUMBER_FLOAT -> {
+                    var decimal = parser.getDecimalValue();
+                    writeHead(out, TAG, DECIMAL_FRACTION_TAG);
+                    writeHead(out, ARRAY, 2);
+                    writeInteger(out, -decimal.scale());
+                    writeInteger(out, decimal.unscaledValue());
+                }
+                case VALUE_TRUE -> out.write(TRUE);
+                case VALUE_FALSE -> out.write(FALSE);
+                case VALUE_NULL -> out.write(NULL);
+                default -> throw new IllegalArgumentException("Unsupported JSON token: " + token);
+            }
+            if (parser.getParsingContext().inRoot()) {
+                break;
+            }
+        }
+        if (parser.nextToken() != null) {
+            throw new IllegalArgumentException("Unexpected content after the message");
+        }
+    }
+
+    private static void writeText(OutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(out, TEXT, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        if (value >= 0) {
+            writeHead(out, UNSIGNED, value);
+        } else {
+            writeHead(out, NEGATIVE, -1 - value);
+        }
+    }
+
+    private static void writeInteger(OutputStream out, BigInteger value) throws IOException {
+        if (value.bitLength() < 64) {
+            writeInteger(out, value.longValue());
+            return;
+        }
+        var negative = value.signum() < 0;
+        var magnitude = negative ? value.negate().subtract(BigInteger.ONE) : value;
+        if (magnitude.bitLength() <= 64) {
+            // the argument is an unsigned 64-bit integer
+            writeHead(out, negative ? NEGATIVE : UNSIGNED, magnitude.longValue());
+            return;
+        }
+        var bytes = magnitude.toByteArray();
+        var offset = bytes[0] == 0 ? 1 : 0;
+        writeHead(out, TAG, negative ? NEGATIVE_BIGNUM_TAG : POSITIVE_BIGNUM_TAG);
+        writeHead(out, BYTES, bytes.length - offset);
+        out.write(bytes, offset, bytes.length - offset);
+    }
+
+    /**
+     * Writes the initial byte and argument of an item; the argument is treated as unsigned.
+     */
+    private static void writeHead(OutputStream out, int major, long argument) throws IOException {
+        var type = major << 5;
+        if (argument >= 0 && argument < 24) {
+            out.write(type | (int) argument);
+        } else if (argument >= 0 && argument < 0x100) {
+            out.write(type | 24);
+            out.write((int) argument);
+        } else if (argument >= 0 && argument < 0x10000) {
+            out.write(type | 25);
+            writeBytes(out, argument, 2);
+        } else if (argument >= 0 && argument < 0x100000000L) {
+            out.write(type | 26);
+            writeBytes(out, argument, 4);
+        } else {
+            out.write(type | 27);
+            writeBytes(out, argument, 8);
+        }
+    }
+
+    private static void writeBytes(OutputStream out, long value, int count) throws IOException {
+        for (var shift = (count - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xff);
+        }
+    }
+
+    /**
+     * Reads items from the stream without read-ahead, so that nothing past the end of the message is consumed. Callers reading
+     * from files or sockets should pass a buffered stream.
+     */
+    private static final class Reader {
+        private final InputStream in;
+
+        private Reader(InputStream in) {
+            this.in = in;
+        }
+
+        private int read() throws IOException {
+            var value = in.read();
+            if (value < 0) {
+                throw new EOFException("Truncated message");
+            }
+            return value;
+        }
+
+        /**
+         * Returns the argument of the initial byte, which is an unsigned 64-bit integer.
+         */
+        private long argument(int initial) throws IOException {
+            var info = initial & 0x1f;
+            if (info < 24) {
+                return info;
+            }
+            var count = switch (info) {
+                case 24 -> 1;
+                case 25 -> 2;
+                case 26 -> 4;
+                case 27 -> 8;
+                default -> throw new IllegalArgumentException("Unsupported additional information: " + info);
+            };
+            var value = 0L;
+            for (var i = 0; i < count; i++) {
+                value = value << 8 | read();
+            }
+            return value;
+        }
+
+        private int length(int initial) throws IOException {
+            var length = argument(initial);
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Length out of range: " + Long.toUnsignedString(length));
+            }
+            return (int) length;
+        }
+
+        private void item(int initial, JsonGenerator json, int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("Message nested deeper than " + MAX_DEPTH);
+            }
+            switch (initial >> 5) {
+                case UNSIGNED -> {
+                    var value = argument(initial);
+                    if (value >= 0) {
+                        json.writeNumber(value);
+                    } else {
+                        json.writeNumber(new BigInteger(Long.toUnsignedString(value)));
+                    }
+                }
+                case NEGATIVE -> {
+                    var value = argument(initial);
+                    if (value >= 0) {
+                        json.writeNumber(-1 - value);
+                    } else {
+                        json.writeNumber(new BigInteger(Long.toUnsignedString(value)).negate().subtract(BigInteger.ONE));
+                    }
+                }
+                case TEXT -> json.writeString(text(initial));
+                case ARRAY -> {
+                    json.writeStartArray();
+                    if ((initial & 0x1f) == INDEFINITE) {
+                        for (var next = read(); next != BREAK; next = read()) {
+                            item(next, json, depth + 1);
+                        }
+                    } else {
+                        for (var i = length(initial); i > 0; i--) {
+                            item(read(), json, depth + 1);
+                        }
+                    }
+                    json.writeEndArray();
+                }
+                case MAP -> {
+                    json.writeStartObject();
+                    if ((initial & 0x1f) == INDEFINITE) {
+                        for (var next = read(); next != BREAK; next = read()) {
+                            member(next, json, depth);
+                        }
+                    } else {
+                        for (var i = length(initial); i > 0; i--) {
+                            member(read(), json, depth);
+                        }
+                    }
+                    json.writeEndObject();
+                }
+                case TAG -> tagged(argument(initial), json);
+                case SIMPLE -> simple(initial, json);
+                default -> throw new IllegalArgumentException("Unsupported item: major type " + (initial >> 5));
+            }
+        }
+
+        private void member(int initial, JsonGenerator json, int depth) throws IOException {
+            if (initial >> 5 == UNSIGNED) {
+                var code = argument(initial);
+                if (code >= CborTerms.KEYS.size()) {
+                    throw new IllegalArgumentException("Unknown key code: " + code);
+                }
+                json.writeFieldName(CborTerms.KEYS.get((int) code));
+            } else if (initial >> 5 == TEXT) {
+                json.writeFieldName(text(initial));
+            } else {
+                throw new IllegalArgumentException("Unsupported key: major type " + (initial >> 5));
+            }
+            item(read(), json, depth + 1);
+        }
+
+        private void simple(int initial, JsonGenerator json) throws IOException {
+            switch (initial) {
+                case FALSE -> json.writeBoolean(false);
+                case TRUE -> json.writeBoolean(true);
+                case NULL -> json.writeNull();
+                default -> {
+                    var code = initial & 0x1f;
+                    if (code >= CborTerms.VALUES.size()) {
+                        throw new IllegalArgumentException("Unsupported simple value or float: 0x" + Integer.toHexString(initial));
+                    }
+                    json.writeString(CborTerms.VALUES.get(code));
+                }
+            }
+        }
+
+        private void tagged(long tag, JsonGenerator json) throws IOException {
+            if (tag == POSITIVE_BIGNUM_TAG || tag == NEGATIVE_BIGNUM_TAG) {
+                json.writeNumber(bignum(tag));
+            } else if (tag == DECIMAL_FRACTION_TAG) {
+                if (read() != (ARRAY << 5 | 2)) {
+                    throw new IllegalArgumentException("Malformed decimal fraction");
+                }
+                var exponent = integer(read());
+                if (exponent.bitLength() > 31) {
+                    throw new IllegalArgumentException("Decimal exponent out of range: " + exponent);
+                }
+                json.writeNumber(new BigDecimal(integer(read()), -exponent.intValue()));
+            } else {
+                throw new IllegalArgumentException("Unsupported tag: " + Long.toUnsignedString(tag));
+            }
+        }
+
+        private BigInteger integer(int initial) throws IOException {
+            return switch (initial >> 5) {
+                case UNSIGNED -> new BigInteger(Long.toUnsignedString(argument(initial)));
+                case NEGATIVE -> new BigInteger(Long.toUnsignedString(argument(initial))).negate().subtract(BigInteger.ONE);
+                case TAG -> {
+                    var tag = argument(initial);
+                    if (tag != POSITIVE_BIGNUM_TAG && tag != NEGATIVE_BIGNUM_TAG) {
+                        throw new IllegalArgumentException("Expected an integer, found tag " + Long.toUnsignedString(tag));
+                    }
+                    yield bignum(tag);
+                }
+                default -> throw new IllegalArgumentException("Expected an integer, found major type " + (initial >> 5));
+            };
+        }
+
+        private BigInteger bignum(long tag) throws IOException {
+            var initial = read();
+            if (initial >> 5 != BYTES || (initial & 0x1f) == INDEFINITE) {
+                throw new IllegalArgumentException("Malformed bignum");
+            }
+            var magnitude = new BigInteger(1, bytes(length(initial)));
+            return tag == POSITIVE_BIGNUM_TAG ? magnitude : magnitude.negate().subtract(BigInteger.ONE);
+        }
+
+        private String text(int initial) throws IOException {
+            if ((initial & 0x1f) == INDEFINITE) {
+                throw new IllegalArgumentException("Indefinite-length strings are not supported");
+            }
+            return new String(bytes(length(initial)), StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int length) throws IOException {
+            var bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException("Truncated message");
+            }
+            return bytes;
+        }
+    }
+}
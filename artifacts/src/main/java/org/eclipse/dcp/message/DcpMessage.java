@@ -0,0 +1,29 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+/**
+ * A typed DCP message.
+ */
+public sealed interface DcpMessage permits PresentationQueryMessage, PresentationResponseMessage, CredentialRequestMessage,
+        CredentialMessage, CredentialOfferMessage, CredentialObject, CredentialStatus, IssuerMetadata {
+
+    /**
+     * Returns the message type.
+     */
+    DcpMessageType messageType();
+}
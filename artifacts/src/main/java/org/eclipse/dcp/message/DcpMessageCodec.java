@@ -0,0 +1,656 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.dcp.message.MessageReader.require;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OBJECT;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+import static org.eclipse.dcp.schema.DcpMessageType.ISSUER_METADATA;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * Reads and writes the typed {@link DcpMessage DCP messages} with the Jackson streaming API.
+ * <p>
+ * Reading validates while parsing: every constraint of the message schemas (required properties, types, constants, enums
+ * and the {@code @context} requirement) is checked inline, so a message that reads successfully is valid against its schema
+ * without a separate validation pass. Embedded Presentation Exchange objects are validated against their vendored schemas.
+ * The rules mirror the schemas by hand; {@code DcpMessageCodecConformanceTest} keeps them in line. The codec is thread-safe.
+ */
+public final class DcpMessageCodec {
+
+    private static final String CONTEXT = "@context";
+    private static final String TYPE = "type";
+    private static final String PRESENTATION_DEFINITION_SCHEMA =
+            "https://identity.foundation/presentation-exchange/schemas/presentation-definition.json";
+    private static final String PRESENTATION_SUBMISSION_SCHEMA =
+            "https://identity.foundation/presentation-exchange/schemas/presentation-submission.json#/properties/presentation_submission";
+
+    private final ObjectMapper mapper;
+    private final JsonSchema presentationDefinitionSchema;
+    private final JsonSchema presentationSubmissionSchema;
+
+    /**
+     * Creates a codec that validates embedded Presentation Exchange objects with the process-wide registry.
+     */
+    public DcpMessageCodec() {
+        this(new ObjectMapper(), DcpSchemaRegistry.getInstance());
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param mapper the mapper supplying the parsers, generators and trees
+     * @param registry the registry providing the Presentation Exchange schemas
+     */
+    public DcpMessageCodec(ObjectMapper mapper, DcpSchemaRegistry registry) {
+        this.mapper = mapper;
+        this.presentationDefinitionSchema = registry.getSchema(PRESENTATION_DEFINITION_SCHEMA);
+        this.presentationSubmissionSchema = registry.getSchema(PRESENTATION_SUBMISSION_SCHEMA);
+    }
+
+    /**
+     * Reads a message of the type named by its {@code type} property.
+     *
+     * @throws IllegalArgumentException if the message is malformed, not a DCP message or not valid against its schema
+     */
+    public DcpMessage read(String message) {
+        return read(message, messageClass(peekType(message)));
+    }
+
+    /**
+     * Reads a message of the given type.
+     *
+     * @throws IllegalArgumentException if the message is malformed or not valid against the schema of the type
+     */
+    public <T extends DcpMessage> T read(String message, Class<T> type) {
+        try (var parser = mapper.createParser(message)) {
+            return type.cast(read(parser, type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a message of the given type from a stream, which is not closed.
+     *
+     * @throws IllegalArgumentException if the message is malformed or not valid against the schema of the type
+     * @throws IOException if the stream cannot be read
+     */
+    public <T extends DcpMessage> T read(InputStream message, Class<T> type) throws IOException {
+        try (var parser = mapper.createParser(message)) {
+            return type.cast(read(parser, type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a message as JSON.
+     */
+    public String write(DcpMessage message) {
+        var out = new ByteArrayOutputStream();
+        try {
+            write(message, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a message as JSON to a stream, which is not closed.
+     */
+    public void write(DcpMessage message, OutputStream out) throws IOException {
+        try (var generator = mapper.createGenerator(out)) {
+            if (message instanceof PresentationQueryMessage m) {
+                write(generator, m);
+            } else if (message instanceof PresentationResponseMessage m) {
+                write(generator, m);
+            } else if (message instanceof CredentialRequestMessage m) {
+                write(generator, m);
+            } else if (message instanceof CredentialMessage m) {
+                write(generator, m);
+            } else if (message instanceof CredentialOfferMessage m) {
+                write(generator, m);
+            } else if (message instanceof CredentialObject m) {
+                write(generator, m, true);
+            } else if (message instanceof CredentialStatus m) {
+                write(generator, m);
+            } else if (message instanceof IssuerMetadata m) {
+                write(generator, m);
+            }
+        }
+    }
+
+    private static Class<? extends DcpMessage> messageClass(DcpMessageType type) {
+        return switch (type) {
+            case PRESENTATION_QUERY_MESSAGE -> PresentationQueryMessage.class;
+            case PRESENTATION_RESPONSE_MESSAGE -> PresentationResponseMessage.class;
+            case CREDENTIAL_REQUEST_MESSAGE -> CredentialRequestMessage.class;
+            case CREDENTIAL_MESSAGE -> CredentialMessage.class;
+            case CREDENTIAL_OFFER_MESSAGE -> CredentialOfferMessage.class;
+            case CREDENTIAL_OBJECT -> CredentialObject.class;
+            case CREDENTIAL_STATUS -> CredentialStatus.class;
+            case ISSUER_METADATA -> IssuerMetadata.class;
+        };
+    }
+
+    private DcpMessageType peekType(String message) {
+        try (var parser = mapper.createParser(message)) {
+            var reader = new MessageReader(parser);
+            reader.startObject();
+            String field;
+            while ((field = reader.nextField()) != null) {
+                if (TYPE.equals(field)) {
+                    var type = DcpMessageType.fromTypeName(reader.string());
+                    if (type != null) {
+                        return type;
+                    }
+                    throw reader.error("not a DCP message type");
+                }
+                reader.skip();
+            }
+            throw new IllegalArgumentException("/: required property 'type' not found");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DcpMessage read(JsonParser parser, Class<? extends DcpMessage> type) throws IOException {
+        var reader = new MessageReader(parser);
+        reader.startObject();
+        DcpMessage message;
+        if (type == PresentationQueryMessage.class) {
+            message = readPresentationQuery(reader);
+        } else if (type == PresentationResponseMessage.class) {
+            message = readPresentationResponse(reader);
+        } else if (type == CredentialRequestMessage.class) {
+            message = readCredentialRequest(reader);
+        } else if (type == CredentialMessage.class) {
+            message = readCredentialMessage(reader);
+        } else if (type == CredentialOfferMessage.class) {
+            message = readCredentialOffer(reader);
+        } else if (type == CredentialObject.class) {
+            message = readCredentialObject(reader);
+        } else if (type == CredentialStatus.class) {
+            message = readCredentialStatus(reader);
+        } else if (type == IssuerMetadata.class) {
+            message = readIssuerMetadata(reader);
+        } else {
+            throw new IllegalArgumentException("Not a DCP message type: " + type.getName());
+        }
+        reader.end();
+        return message;
+    }
+
+    private PresentationQueryMessage readPresentationQuery(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        List<String> scope = null;
+        JsonNode presentationDefinition = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = typeConstant(reader, PRESENTATION_QUERY_MESSAGE);
+                case "scope" -> scope = reader.strings(1);
+                case "presentationDefinition" -> presentationDefinition = reader.validatedObject(presentationDefinitionSchema);
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        if (scope == null && presentationDefinition == null) {
+            throw new IllegalArgumentException("/: requires 'scope' or 'presentationDefinition'");
+        }
+        return new PresentationQueryMessage(context, scope, presentationDefinition);
+    }
+
+    private PresentationResponseMessage readPresentationResponse(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        List<JsonNode> presentation = null;
+        JsonNode presentationSubmission = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = typeConstant(reader, PRESENTATION_RESPONSE_MESSAGE);
+                case "presentation" -> presentation = readPresentations(reader);
+                case "presentationSubmission" -> presentationSubmission = reader.validatedObject(presentationSubmissionSchema);
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        return new PresentationResponseMessage(context, require(presentation, "presentation"), presentationSubmission);
+    }
+
+    private List<JsonNode> readPresentations(MessageReader reader) throws IOException {
+        reader.startArray();
+        var presentations = new ArrayList<JsonNode>();
+        while (reader.nextElement()) {
+            var presentation = reader.tree();
+            if (!presentation.isObject() && !presentation.isTextual()) {
+                throw reader.error("must be an object or a string");
+            }
+            presentations.add(presentation);
+        }
+        return List.copyOf(presentations);
+    }
+
+    private CredentialRequestMessage readCredentialRequest(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        String holderPid = null;
+        List<String> credentials = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = reader.string();
+                case "holderPid" -> holderPid = reader.string();
+                case "credentials" -> credentials = readCredentialIds(reader);
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        return new CredentialRequestMessage(context, require(holderPid, "holderPid"), require(credentials, "credentials"));
+    }
+
+    private List<String> readCredentialIds(MessageReader reader) throws IOException {
+        reader.startArray();
+        var ids = new ArrayList<String>();
+        while (reader.nextElement()) {
+            reader.expectObject();
+            String id = null;
+            String field;
+            while ((field = reader.nextField()) != null) {
+                if ("id".equals(field)) {
+                    id = reader.string();
+                } else {
+                    reader.skip();
+                }
+            }
+            if (id == null) {
+                throw reader.error("required property 'id' not found");
+            }
+            ids.add(id);
+        }
+        return List.copyOf(ids);
+    }
+
+    private CredentialMessage readCredentialMessage(MessageReader reader) throws IOException {
+        List<String> context = null;
+        boolean typed = false;
+        List<CredentialContainer> credentials = null;
+        String issuerPid = null;
+        String holderPid = null;
+        String format = null;
+        CredentialRequestStatus status = null;
+        String rejectionReason = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> {
+                    // the schema requires the property but does not constrain its value
+                    reader.skip();
+                    typed = true;
+                }
+                case "credentials" -> credentials = readCredentialContainers(reader);
+                case "issuerPid" -> issuerPid = reader.string();
+                case "holderPid" -> holderPid = reader.string();
+                case "credentialType" -> typeConstant(reader, CREDENTIAL_MESSAGE);
+                case "format" -> format = reader.string();
+                case "status" -> status = status(reader, CredentialRequestStatus.ISSUED, CredentialRequestStatus.REJECTED);
+                case "rejectionReason" -> rejectionReason = reader.string();
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        if (!typed) {
+            require(null, TYPE);
+        }
+        return new CredentialMessage(context, credentials, require(issuerPid, "issuerPid"), holderPid, format,
+                require(status, "status"), rejectionReason);
+    }
+
+    private List<CredentialContainer> readCredentialContainers(MessageReader reader) throws IOException {
+        reader.startArray();
+        var containers = new ArrayList<CredentialContainer>();
+        while (reader.nextElement()) {
+            reader.expectObject();
+            String payload = null;
+            String credentialType = null;
+            String format = null;
+            String field;
+            while ((field = reader.nextField()) != null) {
+                switch (field) {
+                    case "payload" -> payload = reader.string();
+                    case "credentialType" -> credentialType = reader.string();
+                    case "format" -> format = reader.string();
+                    default -> reader.skip();
+                }
+            }
+            if (payload == null || credentialType == null || format == null) {
+                throw reader.error("requires 'payload', 'credentialType' and 'format'");
+            }
+            containers.add(new CredentialContainer(payload, credentialType, format));
+        }
+        return List.copyOf(containers);
+    }
+
+    private CredentialOfferMessage readCredentialOffer(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        String issuer = null;
+        List<CredentialObject> credentials = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = typeConstant(reader, CREDENTIAL_OFFER_MESSAGE);
+                case "issuer" -> issuer = reader.string();
+                case "credentials" -> credentials = readCredentialObjects(reader, false);
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        return new CredentialOfferMessage(context, require(issuer, "issuer"), require(credentials, "credentials"));
+    }
+
+    private IssuerMetadata readIssuerMetadata(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        String issuer = null;
+        List<CredentialObject> credentialsSupported = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = typeConstant(reader, ISSUER_METADATA);
+                case "issuer" -> issuer = reader.string();
+                case "credentialsSupported" -> credentialsSupported = readCredentialObjects(reader, true);
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        return new IssuerMetadata(context, require(issuer, "issuer"), require(credentialsSupported, "credentialsSupported"));
+    }
+
+    private List<CredentialObject> readCredentialObjects(MessageReader reader, boolean supported) throws IOException {
+        reader.startArray();
+        var objects = new ArrayList<CredentialObject>();
+        while (reader.nextElement()) {
+            reader.expectObject();
+            var object = readCredentialObject(reader);
+            if (supported && (object.credentialType() == null || object.credentialSchema() == null ||
+                    object.offerReason() == null || object.bindingMethods() == null || object.profile() == null)) {
+                throw reader.error("requires 'credentialType', 'credentialSchema', 'offerReason', 'bindingMethods' and 'profile'");
+            }
+            objects.add(object);
+        }
+        return List.copyOf(objects);
+    }
+
+    private CredentialObject readCredentialObject(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        String id = null;
+        String credentialType = null;
+        String credentialSchema = null;
+        String offerReason = null;
+        List<String> bindingMethods = null;
+        String profile = null;
+        JsonNode issuancePolicy = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = optionalContext(reader);
+                case TYPE -> type = typeConstant(reader, CREDENTIAL_OBJECT);
+                case "id" -> id = reader.string();
+                case "credentialType" -> credentialType = reader.string();
+                case "credentialSchema" -> credentialSchema = reader.string();
+                case "offerReason" -> offerReason = reader.string();
+                case "bindingMethods" -> bindingMethods = reader.strings(0);
+                case "profile" -> profile = reader.string();
+                case "issuancePolicy" -> issuancePolicy = reader.validatedObject(presentationDefinitionSchema);
+                default -> reader.skip();
+            }
+        }
+        if (id == null || type == null) {
+            throw reader.error("requires 'id' and 'type'");
+        }
+        return new CredentialObject(context, id, credentialType, credentialSchema, offerReason, bindingMethods, profile, issuancePolicy);
+    }
+
+    /**
+     * The credential object schema does not constrain {@code @context}; it is kept if it is an array of strings.
+     */
+    private static List<String> optionalContext(MessageReader reader) throws IOException {
+        var node = reader.tree();
+        if (!node.isArray()) {
+            return null;
+        }
+        var context = new ArrayList<String>(node.size());
+        for (var element : node) {
+            if (!element.isTextual()) {
+                return null;
+            }
+            context.add(element.textValue());
+        }
+        return List.copyOf(context);
+    }
+
+    private CredentialStatus readCredentialStatus(MessageReader reader) throws IOException {
+        List<String> context = null;
+        String type = null;
+        String issuerPid = null;
+        String holderPid = null;
+        CredentialRequestStatus status = null;
+        String field;
+        while ((field = reader.nextField()) != null) {
+            switch (field) {
+                case CONTEXT -> context = reader.context();
+                case TYPE -> type = typeConstant(reader, CREDENTIAL_STATUS);
+                case "issuerPid" -> issuerPid = reader.string();
+                case "holderPid" -> holderPid = reader.string();
+                case "status" -> status = status(reader, CredentialRequestStatus.values());
+                default -> reader.skip();
+            }
+        }
+        require(context, CONTEXT);
+        require(type, TYPE);
+        return new CredentialStatus(context, require(issuerPid, "issuerPid"), require(holderPid, "holderPid"), require(status, "status"));
+    }
+
+    private static String typeConstant(MessageReader reader, DcpMessageType type) throws IOException {
+        reader.constant(type.typeName());
+        return type.typeName();
+    }
+
+    private static CredentialRequestStatus status(MessageReader reader, CredentialRequestStatus... allowed) throws IOException {
+        var value = reader.string();
+        for (var status : allowed) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        throw reader.error("must be one of " + List.of(allowed));
+    }
+
+    private void write(JsonGenerator generator, PresentationQueryMessage message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), PRESENTATION_QUERY_MESSAGE);
+        writeStrings(generator, "scope", message.scope());
+        writeTree(generator, "presentationDefinition", message.presentationDefinition());
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, PresentationResponseMessage message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), PRESENTATION_RESPONSE_MESSAGE);
+        generator.writeArrayFieldStart("presentation");
+        for (var presentation : message.presentation()) {
+            mapper.writeTree(generator, presentation);
+        }
+        generator.writeEndArray();
+        writeTree(generator, "presentationSubmission", message.presentationSubmission());
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, CredentialRequestMessage message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), CREDENTIAL_REQUEST_MESSAGE);
+        writeString(generator, "holderPid", message.holderPid());
+        generator.writeArrayFieldStart("credentials");
+        for (var id : message.credentials()) {
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, CredentialMessage message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), CREDENTIAL_MESSAGE);
+        if (message.credentials() != null) {
+            generator.writeArrayFieldStart("credentials");
+            for (var credential : message.credentials()) {
+                generator.writeStartObject();
+                writeString(generator, "credentialType", credential.credentialType());
+                writeString(generator, "payload", credential.payload());
+                writeString(generator, "format", credential.format());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        writeString(generator, "issuerPid", message.issuerPid());
+        writeString(generator, "holderPid", message.holderPid());
+        writeString(generator, "format", message.format());
+        writeString(generator, "status", message.status().name());
+        writeString(generator, "rejectionReason", message.rejectionReason());
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, CredentialOfferMessage message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), CREDENTIAL_OFFER_MESSAGE);
+        writeString(generator, "issuer", message.issuer());
+        writeCredentialObjects(generator, "credentials", message.credentials());
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, IssuerMetadata message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), ISSUER_METADATA);
+        writeString(generator, "issuer", message.issuer());
+        writeCredentialObjects(generator, "credentialsSupported", message.credentialsSupported());
+        generator.writeEndObject();
+    }
+
+    private void writeCredentialObjects(JsonGenerator generator, String name, List<CredentialObject> objects) throws IOException {
+        generator.writeArrayFieldStart(name);
+        for (var object : objects) {
+            write(generator, object, false);
+        }
+        generator.writeEndArray();
+    }
+
+    private void write(JsonGenerator generator, CredentialObject message, boolean topLevel) throws IOException {
+        generator.writeStartObject();
+        if (topLevel || message.context() != null) {
+            writeStrings(generator, CONTEXT, message.context());
+        }
+        writeString(generator, "id", message.id());
+        writeString(generator, TYPE, CREDENTIAL_OBJECT.typeName());
+        writeString(generator, "credentialType", message.credentialType());
+        writeString(generator, "credentialSchema", message.credentialSchema());
+        writeString(generator, "offerReason", message.offerReason());
+        writeStrings(generator, "bindingMethods", message.bindingMethods());
+        writeString(generator, "profile", message.profile());
+        writeTree(generator, "issuancePolicy", message.issuancePolicy());
+        generator.writeEndObject();
+    }
+
+    private void write(JsonGenerator generator, CredentialStatus message) throws IOException {
+        generator.writeStartObject();
+        writeHeader(generator, message.context(), CREDENTIAL_STATUS);
+        writeString(generator, "issuerPid", message.issuerPid());
+        writeString(generator, "holderPid", message.holderPid());
+        writeString(generator, "status", message.status().name());
+        generator.writeEndObject();
+    }
+
+    private static void writeHeader(JsonGenerator generator, List<String> context, DcpMessageType type) throws IOException {
+        writeStrings(generator, CONTEXT, context);
+        generator.writeStringField(TYPE, type.typeName());
+    }
+
+    private static void writeString(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static void writeStrings(JsonGenerator generator, String name, List<String> values) throws IOException {
+        if (values != null) {
+            generator.writeArrayFieldStart(name);
+            for (var value : values) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeTree(JsonGenerator generator, String name, JsonNode value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            mapper.writeTree(generator, value);
+        }
+    }
+}
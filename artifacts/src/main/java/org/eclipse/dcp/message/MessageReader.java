@@ -0,0 +1,163 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.OutputFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+
+/**
+ * Pull-style access to a message on a {@link JsonParser} that enforces the constraints of the DCP message schemas while
+ * reading. Violations are reported as {@link IllegalArgumentException} carrying the JSON pointer of the offending value.
+ */
+final class MessageReader {
+
+    private final JsonParser parser;
+
+    MessageReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Advances to the first token, which must start an object.
+     */
+    void startObject() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw error("must be an object");
+        }
+    }
+
+    /**
+     * Requires the current token to start an object.
+     */
+    void expectObject() {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw error("must be an object");
+        }
+    }
+
+    /**
+     * Advances to the value of the next member of the current object and returns its name, or null at the end of the object.
+     */
+    String nextField() throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            return null;
+        }
+        var name = parser.currentName();
+        parser.nextToken();
+        return name;
+    }
+
+    /**
+     * Returns true if the parser advanced to the next element of the current array, false at its end.
+     */
+    boolean nextElement() throws IOException {
+        return parser.nextToken() != JsonToken.END_ARRAY;
+    }
+
+    /**
+     * Requires the document to end after the current token.
+     */
+    void end() throws IOException {
+        if (parser.nextToken() != null) {
+            throw error("unexpected content after the message");
+        }
+    }
+
+    String string() throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw error("must be a string");
+        }
+        return parser.getText();
+    }
+
+    void constant(String expected) throws IOException {
+        if (!expected.equals(string())) {
+            throw error("must be '" + expected + "'");
+        }
+    }
+
+    List<String> strings(int minItems) throws IOException {
+        startArray();
+        var values = new ArrayList<String>();
+        while (nextElement()) {
+            values.add(string());
+        }
+        if (values.size() < minItems) {
+            throw error("must have at least " + minItems + " item(s)");
+        }
+        return List.copyOf(values);
+    }
+
+    /**
+     * Reads a JSON-LD context, which must be an array of strings containing the DCP context.
+     */
+    List<String> context() throws IOException {
+        var context = strings(0);
+        if (!context.contains(DCP_CONTEXT)) {
+            throw error("must contain " + DCP_CONTEXT);
+        }
+        return context;
+    }
+
+    /**
+     * Reads the current value as a tree, e.g. a presentation or an embedded Presentation Exchange object.
+     */
+    JsonNode tree() throws IOException {
+        return parser.readValueAsTree();
+    }
+
+    /**
+     * Reads the current value, which must be an object, as a tree and validates it against the schema.
+     */
+    JsonNode validatedObject(JsonSchema schema) throws IOException {
+        expectObject();
+        var node = tree();
+        if (!schema.validate(node, OutputFormat.BOOLEAN)) {
+            throw error("does not conform to " + schema.getSchemaLocation());
+        }
+        return node;
+    }
+
+    void startArray() {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw error("must be an array");
+        }
+    }
+
+    void skip() throws IOException {
+        parser.skipChildren();
+    }
+
+    static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("/: required property '" + name + "' not found");
+        }
+        return value;
+    }
+
+    IllegalArgumentException error(String message) {
+        var pointer = parser.getParsingContext().pathAsPointer().toString();
+        return new IllegalArgumentException((pointer.isEmpty() ? "/" : pointer) + ": " + message);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.List;
+
+/**
+ * A {@code PresentationResponseMessage}.
+ *
+ * @param context the JSON-LD context
+ * @param presentation the presentations, each a string or an object
+ * @param presentationSubmission the Presentation Submission, null if absent
+ */
+public record PresentationResponseMessage(List<String> context, List<JsonNode> presentation, JsonNode presentationSubmission) implements DcpMessage {
+
+    @Override
+    public DcpMessageType messageType() {
+        return DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.metrics;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+/**
+ * Receives measurements of schema validation, JSON-LD processing and context loading.
+ * <p>
+ * Implementations bridge the measurements to a metrics backend and must be safe for concurrent use; they are called on the
+ * validating thread and should not block. All methods default to doing nothing, so a bridge only implements what it records.
+ * Instrumented components check {@link #enabled()} once when they are created and skip taking timestamps entirely for
+ * {@link #NOOP}, the default.
+ */
+public interface DcpMetrics {
+
+    /**
+     * Records nothing.
+     */
+    DcpMetrics NOOP = new DcpMetrics() {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+    };
+
+    /**
+     * Returns false if measurements are discarded, in which case instrumented components do not measure.
+     */
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * Records the validation of a message.
+     *
+     * @param type the message type the message was dispatched to
+     * @param nanos the validation time
+     * @param valid whether the message is valid
+     */
+    default void validation(DcpMessageType type, long nanos, boolean valid) {
+    }
+
+    /**
+     * Records a validation error.
+     *
+     * @param type the message type the message was dispatched to
+     * @param keyword the schema keyword that failed, e.g. {@code required}, {@code oneOf} or {@code enum}
+     */
+    default void validationError(DcpMessageType type, String keyword) {
+    }
+
+    /**
+     * Records a JSON-LD expansion or compaction.
+     *
+     * @param stage the processing stage
+     * @param fastPath true if the document was processed by the precomputed DCP context, false for the generic processor
+     * @param nanos the processing time
+     */
+    default void jsonLd(JsonLdStage stage, boolean fastPath, long nanos) {
+    }
+
+    /**
+     * Records a lookup of a JSON-LD context by the document loader.
+     *
+     * @param url the context URL
+     * @param hit true if the context was served from memory
+     */
+    default void contextLookup(String url, boolean hit) {
+    }
+}
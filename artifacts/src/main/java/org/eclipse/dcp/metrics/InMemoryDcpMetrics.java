@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.metrics;
+
+import org.eclipse.dcp.schema.DcpMessageType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps measurements in memory, e.g. to expose them through an endpoint or to poll them into another metrics backend.
+ * <p>
+ * All counters and histograms are created up front or on first use of a key and never reset, so readers see monotonic
+ * values and can compute rates from consecutive reads.
+ */
+public final class InMemoryDcpMetrics implements DcpMetrics {
+
+    private final Map<DcpMessageType, LatencyHistogram> validations = new EnumMap<>(DcpMessageType.class);
+    private final Map<DcpMessageType, LongAdder> invalid = new EnumMap<>(DcpMessageType.class);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<JsonLdStage, LatencyHistogram> fastPath = new EnumMap<>(JsonLdStage.class);
+    private final Map<JsonLdStage, LatencyHistogram> fallback = new EnumMap<>(JsonLdStage.class);
+    private final LongAdder contextHits = new LongAdder();
+    private final LongAdder contextMisses = new LongAdder();
+
+    /**
+     * Creates empty metrics. The maps keyed by enum are filled completely here and only read afterwards.
+     */
+    public InMemoryDcpMetrics() {
+        for (var type : DcpMessageType.values()) {
+            validations.put(type, new LatencyHistogram());
+            invalid.put(type, new LongAdder());
+        }
+        for (var stage : JsonLdStage.values()) {
+            fastPath.put(stage, new LatencyHistogram());
+            fallback.put(stage, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void validation(DcpMessageType type, long nanos, boolean valid) {
+        validations.get(type).record(nanos);
+        if (!valid) {
+            invalid.get(type).increment();
+        }
+    }
+
+    @Override
+    public void validationError(DcpMessageType type, String keyword) {
+        errors.computeIfAbsent(keyword == null ? "unknown" : keyword, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void jsonLd(JsonLdStage stage, boolean fastPath, long nanos) {
+        (fastPath ? this.fastPath : fallback).get(stage).record(nanos);
+    }
+
+    @Override
+    public void contextLookup(String url, boolean hit) {
+        (hit ? contextHits : contextMisses).increment();
+    }
+
+    /**
+     * Returns the validation latencies of a message type.
+     */
+    public LatencyHistogram validationLatency(DcpMessageType type) {
+        return validations.get(type);
+    }
+
+    /**
+     * Returns the number of invalid messages of a message type.
+     */
+    public long invalidCount(DcpMessageType type) {
+        return invalid.get(type).sum();
+    }
+
+    /**
+     * Returns the number of validation errors of a schema keyword.
+     */
+    public long errorCount(String keyword) {
+        var counter = errors.get(keyword);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Returns the numbers of validation errors by schema keyword, sorted by keyword.
+     */
+    public Map<String, Long> errorCounts() {
+        var counts = new TreeMap<String, Long>();
+        errors.forEach((keyword, counter) -> counts.put(keyword, counter.sum()));
+        return counts;
+    }
+
+    /**
+     * Returns the timings of a JSON-LD stage, either on the precomputed DCP fast path or in the generic processor.
+     */
+    public LatencyHistogram jsonLdLatency(JsonLdStage stage, boolean fastPath) {
+        return (fastPath ? this.fastPath : fallback).get(stage);
+    }
+
+    public long contextHitCount() {
+        return contextHits.sum();
+    }
+
+    public long contextMissCount() {
+        return contextMisses.sum();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is split into eight sub-buckets, so a reported percentile is
+ * at most 12.5% above the recorded value, whatever the magnitude. Recording is a few atomic increments and allocates nothing.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration; negative durations are recorded as 0.
+     */
+    public void record(long nanos) {
+        var value = Math.max(0, nanos);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the percentile, e.g. {@code 0.99} for p99, or 0 if nothing was recorded.
+     */
+    public long percentile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + quantile);
+        }
+        var snapshot = new long[BUCKETS];
+        var recorded = 0L;
+        for (var i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            recorded += snapshot[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+        var seen = 0L;
+        for (var i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // the bit length selects the power of two, the bits below the leading one select the sub-bucket
+        var exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        var subBucket = (int) (value >>> exponent) - SUB_BUCKETS;
+        return (exponent + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var exponent = index / SUB_BUCKETS - 1;
+        var subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << exponent) - 1;
+    }
+}
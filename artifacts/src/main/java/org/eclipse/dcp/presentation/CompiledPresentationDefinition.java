@@ -0,0 +1,210 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.OutputFormat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A Presentation Definition compiled into JSONPath accessors and filter schemas.
+ * <p>
+ * Every input descriptor must be matched, {@code submission_requirements} are not supported. A field matches if the first of
+ * its paths that selects a value selects one that passes the filter. A filter also passes if the value is an array and one of
+ * its elements passes, so that filters written for a single credential type, such as
+ * {@code {"type": "string", "pattern": "OrganizationCredential"}} on {@code $.type}, work with the type arrays of credentials.
+ * <p>
+ * A required field on {@code $.type} or {@code $.vc.type} whose filter names a type through {@code const} or {@code pattern}
+ * restricts the candidates of its input descriptor to the credentials of matching types, which are looked up in the
+ * {@link CredentialSet} index instead of evaluating every credential.
+ */
+public final class CompiledPresentationDefinition {
+
+    private final String id;
+    private final List<Descriptor> descriptors;
+
+    private CompiledPresentationDefinition(String id, List<Descriptor> descriptors) {
+        this.id = id;
+        this.descriptors = List.copyOf(descriptors);
+    }
+
+    /**
+     * Compiles a definition.
+     *
+     * @param definition the Presentation Definition
+     * @param filterFactory the factory compiling the filter schemas
+     * @throws IllegalArgumentException if the definition is malformed or uses unsupported paths
+     */
+    static CompiledPresentationDefinition compile(JsonNode definition, JsonSchemaFactory filterFactory) {
+        var id = definition.path("id").asText(null);
+        var inputDescriptors = definition.path("input_descriptors");
+        if (id == null || !inputDescriptors.isArray() || inputDescriptors.isEmpty()) {
+            throw new IllegalArgumentException("Presentation Definition requires an id and input_descriptors");
+        }
+        var descriptors = new ArrayList<Descriptor>();
+        for (var inputDescriptor : inputDescriptors) {
+            var descriptorId = inputDescriptor.path("id").asText(null);
+            if (descriptorId == null) {
+                throw new IllegalArgumentException("Input descriptor requires an id");
+            }
+            var fields = new ArrayList<Field>();
+            Predicate<String> typeHint = null;
+            for (var field : inputDescriptor.path("constraints").path("fields")) {
+                var compiled = compileField(field, filterFactory);
+                if (!compiled.optional()) {
+                    fields.add(compiled);
+                    if (typeHint == null) {
+                        typeHint = typeHint(compiled, field.get("filter"));
+                    }
+                }
+            }
+            descriptors.add(new Descriptor(descriptorId, List.copyOf(fields), typeHint));
+        }
+        return new CompiledPresentationDefinition(id, descriptors);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Matches the input descriptors against the credentials.
+     */
+    public PresentationDefinitionMatch evaluate(CredentialSet credentials) {
+        var matches = new LinkedHashMap<String, List<Integer>>();
+        for (var descriptor : descriptors) {
+            var positions = new ArrayList<Integer>();
+            var candidates = candidates(descriptor, credentials);
+            for (var position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+                if (descriptor.matches(credentials.get(position))) {
+                    positions.add(position);
+                }
+            }
+            matches.put(descriptor.id(), List.copyOf(positions));
+        }
+        return new PresentationDefinitionMatch(id, matches, credentials);
+    }
+
+    private static BitSet candidates(Descriptor descriptor, CredentialSet credentials) {
+        var candidates = new BitSet(credentials.size());
+        if (descriptor.typeHint() == null) {
+            candidates.set(0, credentials.size());
+            return candidates;
+        }
+        for (var type : credentials.types()) {
+            if (descriptor.typeHint().test(type)) {
+                for (var position : credentials.positions(type)) {
+                    candidates.set(position);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static Field compileField(JsonNode field, JsonSchemaFactory filterFactory) {
+        var paths = new ArrayList<JsonPathAccessor>();
+        for (var path : field.path("path")) {
+            paths.add(JsonPathAccessor.compile(path.asText()));
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("Field requires at least one path");
+        }
+        var filter = field.get("filter");
+        var schema = filter == null ? null : filterFactory.getSchema(filter);
+        if (schema != null) {
+            schema.initializeValidators();
+        }
+        return new Field(List.copyOf(paths), schema, field.path("optional").asBoolean(false));
+    }
+
+    /**
+     * Returns a predicate on type names that every credential matching the field satisfies, or null if there is none.
+     */
+    private static Predicate<String> typeHint(Field field, JsonNode filter) {
+        if (filter == null || field.paths().stream().map(JsonPathAccessor::memberPath)
+                .anyMatch(path -> !"type".equals(path) && !"vc.type".equals(path))) {
+            return null;
+        }
+        var constraint = filter;
+        var schemaType = filter.path("type").asText();
+        if ("array".equals(schemaType)) {
+            constraint = filter.path("contains");
+        } else if (!"string".equals(schemaType) && !filter.has("const")) {
+            return null;
+        }
+        if (constraint.path("const").isTextual()) {
+            var type = constraint.get("const").asText();
+            return type::equals;
+        }
+        // a pattern does not constrain values that are not strings
+        if (constraint.path("pattern").isTextual() && "string".equals(constraint.path("type").asText())) {
+            try {
+                var pattern = Pattern.compile(constraint.get("pattern").asText());
+                return type -> pattern.matcher(type).find();
+            } catch (PatternSyntaxException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private record Descriptor(String id, List<Field> fields, Predicate<String> typeHint) {
+
+        boolean matches(JsonNode credential) {
+            for (var field : fields) {
+                if (!field.matches(credential)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Field(List<JsonPathAccessor> paths, JsonSchema filter, boolean optional) {
+
+        boolean matches(JsonNode credential) {
+            for (var path : paths) {
+                var value = path.first(credential);
+                if (value != null) {
+                    return filter == null || passes(value);
+                }
+            }
+            return false;
+        }
+
+        private boolean passes(JsonNode value) {
+            if (filter.validate(value, OutputFormat.BOOLEAN)) {
+                return true;
+            }
+            if (value.isArray()) {
+                for (var element : value) {
+                    if (filter.validate(element, OutputFormat.BOOLEAN)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable set of held credentials, indexed by credential type.
+ * <p>
+ * Types are read from the {@code type} property of the credential, or from {@code vc.type} for the claims of a JWT credential.
+ */
+public final class CredentialSet {
+
+    private final List<JsonNode> credentials;
+    private final Map<String, int[]> positionsByType;
+
+    private CredentialSet(List<JsonNode> credentials, Map<String, int[]> positionsByType) {
+        this.credentials = credentials;
+        this.positionsByType = positionsByType;
+    }
+
+    /**
+     * Indexes the credentials.
+     */
+    public static CredentialSet of(List<JsonNode> credentials) {
+        var positions = new HashMap<String, List<Integer>>();
+        for (var i = 0; i < credentials.size(); i++) {
+            var credential = credentials.get(i);
+            var types = credential.has("type") ? credential.get("type") : credential.path("vc").path("type");
+            if (types.isTextual()) {
+                positions.computeIfAbsent(types.asText(), key -> new ArrayList<>()).add(i);
+            } else {
+                for (var type : types) {
+                    var list = positions.computeIfAbsent(type.asText(), key -> new ArrayList<>());
+                    if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                        list.add(i);
+                    }
+                }
+            }
+        }
+        var index = new HashMap<String, int[]>();
+        positions.forEach((type, list) -> index.put(type, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new CredentialSet(List.copyOf(credentials), Map.copyOf(index));
+    }
+
+    public int size() {
+        return credentials.size();
+    }
+
+    public JsonNode get(int position) {
+        return credentials.get(position);
+    }
+
+    /**
+     * Returns the distinct types of all credentials.
+     */
+    public Set<String> types() {
+        return positionsByType.keySet();
+    }
+
+    /**
+     * Returns the positions of the credentials of a type in ascending order. The returned array must not be modified.
+     */
+    int[] positions(String type) {
+        return positionsByType.getOrDefault(type, new int[0]);
+    }
+}
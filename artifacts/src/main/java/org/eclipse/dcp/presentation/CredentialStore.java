@@ -0,0 +1,587 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import org.eclipse.dcp.message.CredentialContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Holds the credentials of a Credential Service and finds them by type, id, issuer and format.
+ * <p>
+ * Ids and payloads are stored off-heap, in direct buffers or, if a directory is configured, in memory-mapped segment files.
+ * The heap holds per credential only its payload position, the id hash and references to interned type, issuer and format
+ * terms, each of which keeps a posting list of credential ordinals. Lookups by type, issuer and format therefore read one
+ * posting list, and lookups by id probe an open-addressing table of ordinals whose candidates are compared against the
+ * stored id bytes; nothing scans the store.
+ * <p>
+ * Writes are serialized; reads take no locks. A credential becomes visible to readers once {@link #add} returns. Removal
+ * marks a credential as deleted; its storage is not reclaimed. With a directory, each credential is a self-describing
+ * record in a segment file, and the indexes are rebuilt from the segments when the store is opened.
+ * <p>
+ * A record consists of its length, a live or deleted marker, the encoded lengths of the id, type, issuer and format, the
+ * payload length, the four fields and the payload. A field length is stored plus one, so that an absent id or issuer, stored
+ * as zero, is distinguished from an empty one.
+ */
+public final class CredentialStore implements AutoCloseable {
+
+    private static final int HEADER_SIZE = 17;
+    private static final int CHUNK_SIZE = 4096;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final int MAX_FIELD_LENGTH = 0xfffe;
+
+    private final int segmentSize;
+    private final Path directory;
+    private final Map<String, Term> types = new ConcurrentHashMap<>();
+    private final Map<String, Term> issuers = new ConcurrentHashMap<>();
+    private final Map<String, Term> formats = new ConcurrentHashMap<>();
+    private final List<FileChannel> channels = new ArrayList<>();
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int[] idTable = new int[1024];
+    private volatile int count;
+    private volatile int live;
+    private int idTableEntries;
+    private int writePosition;
+
+    private CredentialStore(Builder builder) {
+        segmentSize = builder.segmentSize;
+        directory = builder.directory;
+        if (directory != null) {
+            restore();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Adds a credential.
+     *
+     * @param id the credential id, may be null
+     * @param issuer the issuer, may be null
+     * @param container the payload, type and format of the credential
+     * @return the stored credential
+     * @throws IllegalArgumentException if the type or format is missing, a credential with the id is held or the credential
+     *         does not fit into a segment
+     */
+    public synchronized StoredCredential add(String id, String issuer, CredentialContainer container) {
+        if (container.credentialType() == null || container.format() == null) {
+            throw new IllegalArgumentException("Credential type and format are required");
+        }
+        var idBytes = bytes(id);
+        if (idBytes != null && idBytes.length > 0 && findId(id, idBytes) >= 0) {
+            throw new IllegalArgumentException("Duplicate credential id: " + id);
+        }
+        var fields = new byte[][]{idBytes, bytes(container.credentialType()), bytes(issuer), bytes(container.format())};
+        var payload = container.payload().getBytes(StandardCharsets.UTF_8);
+        var position = write(fields, payload);
+        return index(position, id, container.credentialType(), issuer, container.format());
+    }
+
+    /**
+     * Removes the credential with the id.
+     *
+     * @return true if a credential was removed
+     */
+    public synchronized boolean remove(String id) {
+        var ordinal = findId(id, bytes(id));
+        if (ordinal < 0) {
+            return false;
+        }
+        var chunk = chunks[ordinal / CHUNK_SIZE];
+        var slot = ordinal % CHUNK_SIZE;
+        chunk.deleted.set(slot / 64, chunk.deleted.get(slot / 64) | 1L << (slot % 64));
+        var position = chunk.positions[slot];
+        segment(position).put(offset(position) + 4, DELETED);
+        live--;
+        return true;
+    }
+
+    /**
+     * Returns the credential with the id, or null.
+     */
+    public StoredCredential byId(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        var ordinal = findId(id, bytes(id));
+        return ordinal < 0 ? null : new StoredCredential(this, ordinal);
+    }
+
+    /**
+     * Returns the credentials of the type, in the order they were added.
+     */
+    public List<StoredCredential> byType(String type) {
+        return postings(types.get(type));
+    }
+
+    /**
+     * Returns the credentials of the issuer, in the order they were added.
+     */
+    public List<StoredCredential> byIssuer(String issuer) {
+        return postings(issuers.get(issuer));
+    }
+
+    /**
+     * Returns the credentials in the format, in the order they were added.
+     */
+    public List<StoredCredential> byFormat(String format) {
+        return postings(formats.get(format));
+    }
+
+    /**
+     * Returns the credentials the scope grants access to, with the semantics of {@link ScopeIndex#resolve(Scope)}.
+     */
+    public List<StoredCredential> resolve(Scope scope) {
+        if (scope.isTypeScope()) {
+            return byType(scope.discriminator());
+        }
+        if (scope.isIdScope()) {
+            var credential = byId(scope.discriminator());
+            return credential == null ? List.of() : List.of(credential);
+        }
+        return List.of();
+    }
+
+    /**
+     * Returns the credentials any of the scopes grants access to, without duplicates and in the order of the scopes, e.g. to
+     * build the {@link CredentialSet} a Presentation Definition is evaluated against.
+     */
+    public Set<StoredCredential> resolve(Collection<Scope> scopes) {
+        var credentials = new LinkedHashSet<StoredCredential>();
+        for (var scope : scopes) {
+            credentials.addAll(resolve(scope));
+        }
+        return credentials;
+    }
+
+    /**
+     * Returns the number of held credentials.
+     */
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Forces memory-mapped segments to storage.
+     */
+    public void flush() {
+        for (var segment : segments) {
+            if (segment instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            for (var channel : channels) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String id(int ordinal) {
+        var position = chunk(ordinal).positions[ordinal % CHUNK_SIZE];
+        var segment = segment(position);
+        var offset = offset(position);
+        var length = fieldLength(segment, offset, 0);
+        return length < 0 ? null : string(segment, offset + HEADER_SIZE, length);
+    }
+
+    String credentialType(int ordinal) {
+        return chunk(ordinal).types[ordinal % CHUNK_SIZE].value;
+    }
+
+    String issuer(int ordinal) {
+        var issuer = chunk(ordinal).issuers[ordinal % CHUNK_SIZE];
+        return issuer == null ? null : issuer.value;
+    }
+
+    String format(int ordinal) {
+        return chunk(ordinal).formats[ordinal % CHUNK_SIZE].value;
+    }
+
+    String payload(int ordinal) {
+        var position = chunk(ordinal).positions[ordinal % CHUNK_SIZE];
+        var segment = segment(position);
+        var offset = offset(position);
+        var fields = 0;
+        for (var field = 0; field < 4; field++) {
+            fields += Math.max(0, fieldLength(segment, offset, field));
+        }
+        return string(segment, offset + HEADER_SIZE + fields, segment.getInt(offset + 13));
+    }
+
+    private List<StoredCredential> postings(Term term) {
+        if (term == null) {
+            return List.of();
+        }
+        var size = term.size;
+        var ordinals = term.ordinals;
+        var published = count;
+        var credentials = new ArrayList<StoredCredential>(size);
+        for (var i = 0; i < size; i++) {
+            if (ordinals[i] < published && !isDeleted(ordinals[i])) {
+                credentials.add(new StoredCredential(this, ordinals[i]));
+            }
+        }
+        return credentials;
+    }
+
+    /**
+     * Returns the ordinal of the held credential with the id, or -1.
+     */
+    private int findId(String id, byte[] idBytes) {
+        var published = count;
+        var table = idTable;
+        var hash = id.hashCode();
+        var mask = table.length - 1;
+        for (var index = mix(hash) & mask; table[index] != 0; index = (index + 1) & mask) {
+            var ordinal = table[index] - 1;
+            if (ordinal < published && chunk(ordinal).idHashes[ordinal % CHUNK_SIZE] == hash && !isDeleted(ordinal) &&
+                    idEquals(ordinal, idBytes)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    private boolean idEquals(int ordinal, byte[] idBytes) {
+        var position = chunk(ordinal).positions[ordinal % CHUNK_SIZE];
+        var segment = segment(position);
+        var offset = offset(position);
+        if (fieldLength(segment, offset, 0) != idBytes.length) {
+            return false;
+        }
+        for (var i = 0; i < idBytes.length; i++) {
+            if (segment.get(offset + HEADER_SIZE + i) != idBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isDeleted(int ordinal) {
+        var slot = ordinal % CHUNK_SIZE;
+        return (chunk(ordinal).deleted.get(slot / 64) & 1L << (slot % 64)) != 0;
+    }
+
+    /**
+     * Writes a record and returns its position. The record length is written last and marks the record as complete.
+     */
+    private long write(byte[][] fields, byte[] payload) {
+        var length = HEADER_SIZE + payload.length;
+        for (var field : fields) {
+            if (field == null) {
+                continue;
+            }
+            if (field.length > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException("Credential field longer than %d bytes".formatted(MAX_FIELD_LENGTH));
+            }
+            length += field.length;
+        }
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Credential of %d bytes does not fit into a segment of %d bytes".formatted(length, segmentSize));
+        }
+        if (segments.length == 0 || writePosition + length > segmentSize) {
+            addSegment();
+        }
+        var segmentIndex = segments.length - 1;
+        var segment = segments[segmentIndex];
+        var offset = writePosition;
+        segment.put(offset + 4, LIVE);
+        var cursor = offset + HEADER_SIZE;
+        for (var field = 0; field < fields.length; field++) {
+            if (fields[field] == null) {
+                segment.putShort(offset + 5 + 2 * field, (short) 0);
+                continue;
+            }
+            segment.putShort(offset + 5 + 2 * field, (short) (fields[field].length + 1));
+            segment.put(cursor, fields[field]);
+            cursor += fields[field].length;
+        }
+        segment.putInt(offset + 13, payload.length);
+        segment.put(cursor, payload);
+        segment.putInt(offset, length);
+        writePosition += length;
+        return (long) segmentIndex * segmentSize + offset;
+    }
+
+    /**
+     * Indexes a record and publishes it to readers. The columns of the record are filled and the count is published before
+     * the ordinal is appended to any posting list, so a reader that finds the ordinal through a term sees a complete record.
+     */
+    private StoredCredential index(long position, String id, String type, String issuer, String format) {
+        var ordinal = count;
+        if (ordinal / CHUNK_SIZE == chunks.length) {
+            var grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Chunk();
+            chunks = grown;
+        }
+        var chunk = chunks[ordinal / CHUNK_SIZE];
+        var slot = ordinal % CHUNK_SIZE;
+        var typeTerm = types.computeIfAbsent(type, Term::new);
+        var issuerTerm = issuer == null ? null : issuers.computeIfAbsent(issuer, Term::new);
+        var formatTerm = formats.computeIfAbsent(format, Term::new);
+        chunk.positions[slot] = position;
+        chunk.types[slot] = typeTerm;
+        chunk.issuers[slot] = issuerTerm;
+        chunk.formats[slot] = formatTerm;
+        if (id != null && !id.isEmpty()) {
+            chunk.idHashes[slot] = id.hashCode();
+            insertId(ordinal);
+        }
+        count = ordinal + 1;
+        live++;
+        typeTerm.add(ordinal);
+        if (issuerTerm != null) {
+            issuerTerm.add(ordinal);
+        }
+        formatTerm.add(ordinal);
+        return new StoredCredential(this, ordinal);
+    }
+
+    private void insertId(int ordinal) {
+        if (2 * (idTableEntries + 1) > idTable.length) {
+            // rebuild with the held credentials only, which drops removed ones
+            var table = new int[idTable.length * 2];
+            var entries = 0;
+            for (var held : idTable) {
+                if (held != 0 && !isDeleted(held - 1)) {
+                    put(table, held - 1);
+                    entries++;
+                }
+            }
+            idTable = table;
+            idTableEntries = entries;
+        }
+        put(idTable, ordinal);
+        idTableEntries++;
+    }
+
+    private void put(int[] table, int ordinal) {
+        var mask = table.length - 1;
+        var index = mix(chunk(ordinal).idHashes[ordinal % CHUNK_SIZE]) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = ordinal + 1;
+    }
+
+    private void addSegment() {
+        var index = segments.length;
+        ByteBuffer segment;
+        if (directory == null) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+        } else {
+            segment = map(directory.resolve(segmentName(index)));
+        }
+        segments = append(segments, segment);
+        writePosition = 0;
+    }
+
+    private void restore() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (var index = 0; Files.exists(directory.resolve(segmentName(index))); index++) {
+            var segment = map(directory.resolve(segmentName(index)));
+            segments = append(segments, segment);
+            var offset = 0;
+            while (offset + HEADER_SIZE <= segmentSize && segment.getInt(offset) != 0) {
+                var length = segment.getInt(offset);
+                if (length < HEADER_SIZE || offset + length > segmentSize) {
+                    throw new IllegalStateException("Corrupt credential record at %d in %s".formatted(offset, segmentName(index)));
+                }
+                if (segment.get(offset + 4) == LIVE) {
+                    var fields = new String[4];
+                    var cursor = offset + HEADER_SIZE;
+                    for (var field = 0; field < 4; field++) {
+                        var fieldLength = fieldLength(segment, offset, field);
+                        if (fieldLength >= 0) {
+                            fields[field] = string(segment, cursor, fieldLength);
+                            cursor += fieldLength;
+                        }
+                    }
+                    index((long) index * segmentSize + offset, fields[0], fields[1], fields[2], fields[3]);
+                }
+                offset += length;
+            }
+            writePosition = offset;
+        }
+    }
+
+    private MappedByteBuffer map(Path file) {
+        try {
+            var channel = FileChannel.open(file, CREATE, READ, WRITE);
+            channels.add(channel);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Chunk chunk(int ordinal) {
+        return chunks[ordinal / CHUNK_SIZE];
+    }
+
+    private ByteBuffer segment(long position) {
+        return segments[(int) (position / segmentSize)];
+    }
+
+    private int offset(long position) {
+        return (int) (position % segmentSize);
+    }
+
+    private static String segmentName(int index) {
+        return "credentials-%05d.seg".formatted(index);
+    }
+
+    private static ByteBuffer[] append(ByteBuffer[] segments, ByteBuffer segment) {
+        var grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[segments.length] = segment;
+        return grown;
+    }
+
+    private static String string(ByteBuffer segment, int offset, int length) {
+        var bytes = new byte[length];
+        segment.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the length of a field of the record at the offset, or -1 if the field is absent.
+     */
+    private static int fieldLength(ByteBuffer segment, int offset, int field) {
+        return (segment.getShort(offset + 5 + 2 * field) & 0xffff) - 1;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The index columns of a fixed range of ordinals. Chunks are never reallocated, so readers holding an older chunk array
+     * see the same columns.
+     */
+    private static final class Chunk {
+        private final long[] positions = new long[CHUNK_SIZE];
+        private final int[] idHashes = new int[CHUNK_SIZE];
+        private final Term[] types = new Term[CHUNK_SIZE];
+        private final Term[] issuers = new Term[CHUNK_SIZE];
+        private final Term[] formats = new Term[CHUNK_SIZE];
+        private final AtomicLongArray deleted = new AtomicLongArray(CHUNK_SIZE / 64);
+    }
+
+    /**
+     * An interned type, issuer or format and the ordinals of its credentials. Only the writer appends; a reader reads the
+     * size before the array, which has been published before the size.
+     */
+    private static final class Term {
+        private final String value;
+        private volatile int[] ordinals = new int[4];
+        private volatile int size;
+
+        private Term(String value) {
+            this.value = value;
+        }
+
+        private void add(int ordinal) {
+            var current = ordinals;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                current[size] = ordinal;
+                ordinals = current;
+            } else {
+                current[size] = ordinal;
+            }
+            size++;
+        }
+    }
+
+    /**
+     * Builds {@link CredentialStore} instances.
+     */
+    public static final class Builder {
+        private int segmentSize = 64 * 1024 * 1024;
+        private Path directory;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the size of a payload segment in bytes, which bounds the size of a credential. Defaults to 64 MiB.
+         */
+        public Builder segmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Stores credentials in memory-mapped segment files in the directory. Existing segments are restored; they must have
+         * been written with the same segment size.
+         */
+        public Builder persistTo(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Builds the store, restoring the segment files if a directory is configured.
+         *
+         * @throws IllegalArgumentException if the segment size cannot hold a record header
+         */
+        public CredentialStore build() {
+            if (segmentSize < HEADER_SIZE) {
+                throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+            }
+            return new CredentialStore(this);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled JSONPath expression.
+ * <p>
+ * Supports the subset of JSONPath used by Presentation Exchange field paths: the root {@code $}, member access in dot and
+ * bracket notation, array indexes and the wildcard {@code *}. Expressions are parsed once into a list of steps, evaluation
+ * does not look at the expression string again.
+ */
+public final class JsonPathAccessor {
+    private static final int WILDCARD = -1;
+
+    private final String expression;
+    private final List<Step> steps;
+
+    private JsonPathAccessor(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = List.copyOf(steps);
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @throws IllegalArgumentException if the expression is malformed or uses unsupported syntax
+     */
+    public static JsonPathAccessor compile(String expression) {
+        if (expression == null || !expression.startsWith("$")) {
+            throw new IllegalArgumentException("JSONPath must start with $: " + expression);
+        }
+        var steps = new ArrayList<Step>();
+        var position = 1;
+        while (position < expression.length()) {
+            var c = expression.charAt(position);
+            if (c == '.') {
+                var end = position + 1;
+                while (end < expression.length() && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+                    end++;
+                }
+                var name = expression.substring(position + 1, end);
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Unsupported JSONPath: " + expression);
+                }
+                steps.add("*".equals(name) ? new Step(null, WILDCARD) : new Step(name, 0));
+                position = end;
+            } else if (c == '[') {
+                var end = expression.indexOf(']', position);
+                if (end == -1) {
+                    throw new IllegalArgumentException("Unterminated bracket in JSONPath: " + expression);
+                }
+                steps.add(bracketStep(expression, expression.substring(position + 1, end).strip()));
+                position = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unsupported JSONPath: " + expression);
+            }
+        }
+        return new JsonPathAccessor(expression, steps);
+    }
+
+    /**
+     * Returns all nodes selected by the expression, in document order.
+     */
+    public List<JsonNode> select(JsonNode root) {
+        List<JsonNode> current = List.of(root);
+        for (var step : steps) {
+            var next = new ArrayList<JsonNode>();
+            for (var node : current) {
+                step.apply(node, next);
+            }
+            if (next.isEmpty()) {
+                return List.of();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the first node selected by the expression, or null if there is none.
+     */
+    public JsonNode first(JsonNode root) {
+        var selected = select(root);
+        return selected.isEmpty() ? null : selected.get(0);
+    }
+
+    /**
+     * Returns the member names of an expression that consists of member accesses only, joined by dots, e.g. {@code vc.type}
+     * for {@code $.vc.type}, or null for other expressions.
+     */
+    public String memberPath() {
+        var names = new ArrayList<String>(steps.size());
+        for (var step : steps) {
+            if (step.name() == null) {
+                return null;
+            }
+            names.add(step.name());
+        }
+        return String.join(".", names);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static Step bracketStep(String expression, String content) {
+        if ("*".equals(content)) {
+            return new Step(null, WILDCARD);
+        }
+        if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"') &&
+                content.charAt(content.length() - 1) == content.charAt(0)) {
+            return new Step(content.substring(1, content.length() - 1), 0);
+        }
+        try {
+            var index = Integer.parseInt(content);
+            if (index >= 0) {
+                return new Step(null, index);
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Unsupported JSONPath: " + expression);
+    }
+
+    /**
+     * A member access if {@code name} is set, otherwise an array index or the wildcard.
+     */
+    private record Step(String name, int index) {
+
+        void apply(JsonNode node, List<JsonNode> result) {
+            if (name != null) {
+                var member = node.get(name);
+                if (member != null && node.isObject()) {
+                    result.add(member);
+                }
+            } else if (index == WILDCARD) {
+                node.elements().forEachRemaining(result::add);
+            } else if (node.isArray() && index < node.size()) {
+                result.add(node.get(index));
+            }
+        }
+    }
+}
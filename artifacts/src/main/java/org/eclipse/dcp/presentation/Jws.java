@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+
+/**
+ * A JWS in compact serialization, split into its parts.
+ *
+ * @param algorithm the {@code alg} header
+ * @param kid the {@code kid} header, null if absent
+ * @param claims the decoded payload
+ * @param signingInput the encoded header and payload the signature is computed over
+ * @param signature the decoded signature
+ */
+record Jws(String algorithm, String kid, JsonNode claims, String signingInput, byte[] signature) {
+
+    /**
+     * Splits and decodes a compact JWS.
+     *
+     * @throws IllegalArgumentException if the value is not a compact JWS with a JSON object payload
+     */
+    static Jws parse(String compact, ObjectMapper mapper) {
+        var first = compact.indexOf('.');
+        var last = compact.lastIndexOf('.');
+        if (first <= 0 || last == first || compact.indexOf('.', first + 1) != last) {
+            throw new IllegalArgumentException("Not a compact JWS");
+        }
+        try {
+            var decoder = Base64.getUrlDecoder();
+            var header = mapper.readTree(decoder.decode(compact.substring(0, first)));
+            var claims = mapper.readTree(decoder.decode(compact.substring(first + 1, last)));
+            if (!header.isObject() || !claims.isObject()) {
+                throw new IllegalArgumentException("JWS header and payload must be JSON objects");
+            }
+            return new Jws(header.path("alg").asText(null), header.path("kid").asText(null), claims, compact.substring(0, last),
+                    decoder.decode(compact.substring(last + 1)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JWS: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Verifies the signature with the key. The key must fit the algorithm, so that a token cannot select a weaker algorithm
+     * for a key than the one it was issued for.
+     *
+     * @throws IllegalArgumentException if the algorithm is not supported or does not fit the key
+     */
+    boolean verify(PublicKey key) {
+        var jcaAlgorithm = switch (algorithm == null ? "" : algorithm) {
+            case "ES256" -> ecAlgorithm(key, 256, "SHA256withECDSAinP1363Format");
+            case "ES384" -> ecAlgorithm(key, 384, "SHA384withECDSAinP1363Format");
+            case "ES512" -> ecAlgorithm(key, 521, "SHA512withECDSAinP1363Format");
+            case "EdDSA" -> keyAlgorithm(key instanceof EdECPublicKey, "Ed25519");
+            case "RS256" -> keyAlgorithm(key instanceof RSAPublicKey, "SHA256withRSA");
+            case "RS384" -> keyAlgorithm(key instanceof RSAPublicKey, "SHA384withRSA");
+            case "RS512" -> keyAlgorithm(key instanceof RSAPublicKey, "SHA512withRSA");
+            default -> throw new IllegalArgumentException("Unsupported JWS algorithm: " + algorithm);
+        };
+        try {
+            var verifier = Signature.getInstance(jcaAlgorithm);
+            verifier.initVerify(key);
+            verifier.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private String ecAlgorithm(PublicKey key, int fieldSize, String jcaAlgorithm) {
+        return keyAlgorithm(key instanceof ECPublicKey ecKey && ecKey.getParams().getCurve().getField().getFieldSize() == fieldSize, jcaAlgorithm);
+    }
+
+    private String keyAlgorithm(boolean fits, String jcaAlgorithm) {
+        if (!fits) {
+            throw new IllegalArgumentException("JWS algorithm %s does not fit the key of %s".formatted(algorithm, kid));
+        }
+        return jcaAlgorithm;
+    }
+}
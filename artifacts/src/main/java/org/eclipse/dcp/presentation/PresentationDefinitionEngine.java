@@ -0,0 +1,100 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchemaFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.networknt.schema.SpecVersion.VersionFlag.V7;
+
+/**
+ * Evaluates Presentation Definitions against held credentials.
+ * <p>
+ * Definitions are compiled once and cached by the SHA-256 hash of their serialized content, so a verifier sending the same
+ * definition with every query pays the compilation cost once. Filters are compiled as JSON Schema draft 7, the version used by
+ * Presentation Exchange.
+ */
+public final class PresentationDefinitionEngine {
+    private static final int DEFAULT_CACHE_LIMIT = 1_000;
+
+    private final JsonSchemaFactory filterFactory = JsonSchemaFactory.getInstance(V7);
+    private final ObjectMapper mapper;
+    private final int cacheLimit;
+    private final Map<String, CompiledPresentationDefinition> cache = new ConcurrentHashMap<>();
+
+    public PresentationDefinitionEngine() {
+        this(new ObjectMapper(), DEFAULT_CACHE_LIMIT);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param mapper the mapper serializing definitions for hashing
+     * @param cacheLimit the maximum number of cached definitions, further definitions are compiled on every use
+     */
+    public PresentationDefinitionEngine(ObjectMapper mapper, int cacheLimit) {
+        this.mapper = mapper;
+        this.cacheLimit = cacheLimit;
+    }
+
+    /**
+     * Returns the compiled definition, compiling it if it is not cached.
+     *
+     * @throws IllegalArgumentException if the definition is malformed or uses unsupported paths
+     */
+    public CompiledPresentationDefinition compile(JsonNode definition) {
+        var key = hash(definition);
+        var compiled = cache.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = CompiledPresentationDefinition.compile(definition, filterFactory);
+        // definitions come from verifiers, stop growing the cache rather than evicting
+        if (cache.size() < cacheLimit) {
+            cache.putIfAbsent(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Matches a definition against the credentials.
+     */
+    public PresentationDefinitionMatch evaluate(JsonNode definition, CredentialSet credentials) {
+        return compile(definition).evaluate(credentials);
+    }
+
+    public int cachedCount() {
+        return cache.size();
+    }
+
+    private String hash(JsonNode definition) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(mapper.writeValueAsBytes(definition)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
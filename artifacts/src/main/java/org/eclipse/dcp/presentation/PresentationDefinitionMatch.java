@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The credentials matching each input descriptor of a Presentation Definition.
+ */
+public final class PresentationDefinitionMatch {
+
+    private final String definitionId;
+    private final Map<String, List<Integer>> matches;
+    private final CredentialSet credentials;
+
+    PresentationDefinitionMatch(String definitionId, Map<String, List<Integer>> matches, CredentialSet credentials) {
+        this.definitionId = definitionId;
+        this.matches = matches;
+        this.credentials = credentials;
+    }
+
+    public String definitionId() {
+        return definitionId;
+    }
+
+    /**
+     * Returns true if every input descriptor is matched by at least one credential.
+     */
+    public boolean satisfied() {
+        return matches.values().stream().noneMatch(List::isEmpty);
+    }
+
+    /**
+     * Returns the credentials matching an input descriptor.
+     */
+    public List<JsonNode> matches(String descriptorId) {
+        return matches.getOrDefault(descriptorId, List.of()).stream().map(credentials::get).toList();
+    }
+
+    /**
+     * Returns the credentials to present: the first match of each input descriptor, without duplicates, in the order of the
+     * input descriptors.
+     */
+    public List<JsonNode> selectedCredentials() {
+        return selectedPositions().stream().map(credentials::get).toList();
+    }
+
+    /**
+     * Creates the {@code presentation_submission} for a presentation holding the {@link #selectedCredentials()} in its
+     * {@code verifiableCredential} array, in the same order. Unmatched input descriptors are omitted.
+     *
+     * @param submissionId the id of the submission
+     * @param format the claim format of the credentials, e.g. {@code jwt_vc} or {@code ldp_vc}
+     */
+    public ObjectNode presentationSubmission(String submissionId, String format) {
+        var selected = selectedPositions();
+        var submission = JsonNodeFactory.instance.objectNode()
+                .put("id", submissionId)
+                .put("definition_id", definitionId);
+        var descriptorMap = submission.putArray("descriptor_map");
+        matches.forEach((descriptorId, positions) -> {
+            if (!positions.isEmpty()) {
+                descriptorMap.addObject()
+                        .put("id", descriptorId)
+                        .put("format", format)
+                        .put("path", "$.verifiableCredential[" + selected.indexOf(positions.get(0)) + "]");
+            }
+        });
+        return submission;
+    }
+
+    private List<Integer> selectedPositions() {
+        var selected = new ArrayList<Integer>();
+        for (var positions : matches.values()) {
+            if (!positions.isEmpty() && !selected.contains(positions.get(0))) {
+                selected.add(positions.get(0));
+            }
+        }
+        return selected;
+    }
+}
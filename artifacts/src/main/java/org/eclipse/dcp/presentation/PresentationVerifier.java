@@ -0,0 +1,308 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.dcp.did.DidResolutionCache;
+import org.eclipse.dcp.did.VerificationMethod;
+import org.eclipse.dcp.message.PresentationResponseMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies JWT Verifiable Presentations and their embedded JWT Verifiable Credentials, following steps 2 to 5 of the
+ * Presentation Validation of the Verifiable Presentation Protocol:
+ * <ul>
+ *     <li>the presentation is signed with a key of its Holder that has the {@code authentication} relationship,</li>
+ *     <li>every credential is signed with a key of a verification method of its {@code issuer}, with the
+ *     {@code assertionMethod} relationship.</li>
+ * </ul>
+ * Expiry and not-before claims are checked on every token. With holder binding required, the subject of every credential
+ * must be the Holder. Revocation is not checked here, see {@link org.eclipse.dcp.status.StatusListEngine}.
+ * <p>
+ * The signatures of a presentation and all of its credentials are verified in parallel on the executor, and the result fails
+ * with the first failure; checks that have not started by then are skipped. Verified signatures are remembered, so that a
+ * credential presented again is not verified again, see {@link VerifiedSignatureCache} for how entries are keyed.
+ * <p>
+ * The returned futures fail with {@link IllegalArgumentException} if a token is malformed, expired, not signed by the
+ * expected party or its signature is invalid, and with {@link IllegalStateException} if a verification method cannot be
+ * used, as reported by {@link DidResolutionCache#verificationMethod(String, String)}.
+ */
+public final class PresentationVerifier {
+
+    private final DidResolutionCache didCache;
+    private final Executor executor;
+    private final VerifiedSignatureCache signatureCache;
+    private final Duration cacheTtl;
+    private final Duration leeway;
+    private final boolean holderBinding;
+    private final Clock clock;
+    private final ObjectMapper mapper;
+    private final LongAdder verifications = new LongAdder();
+
+    private PresentationVerifier(Builder builder) {
+        this.didCache = builder.didCache;
+        this.executor = builder.executor;
+        this.signatureCache = new VerifiedSignatureCache(builder.cacheSize);
+        this.cacheTtl = builder.cacheTtl;
+        this.leeway = builder.leeway;
+        this.holderBinding = builder.holderBinding;
+        this.clock = builder.clock;
+        this.mapper = builder.mapper;
+    }
+
+    public static Builder builder(DidResolutionCache didCache) {
+        return new Builder(didCache);
+    }
+
+    /**
+     * Verifies a presentation in compact JWS serialization.
+     */
+    public CompletableFuture<VerifiedPresentation> verify(String presentation) {
+        var result = new CompletableFuture<List<VerifiedPresentation>>();
+        verifyAll(List.of(presentation), result);
+        return result.thenApply(presentations -> presentations.get(0));
+    }
+
+    /**
+     * Verifies all presentations of a response. Presentations in another format than a JWT are rejected; a response without
+     * presentations verifies to an empty list.
+     */
+    public CompletableFuture<List<VerifiedPresentation>> verify(PresentationResponseMessage message) {
+        var presentations = new ArrayList<String>(message.presentation().size());
+        for (var presentation : message.presentation()) {
+            if (!presentation.isTextual()) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Only JWT presentations are supported"));
+            }
+            presentations.add(presentation.asText());
+        }
+        var result = new CompletableFuture<List<VerifiedPresentation>>();
+        verifyAll(presentations, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of signatures verified, not counting those answered from the cache.
+     */
+    public long verificationCount() {
+        return verifications.sum();
+    }
+
+    /**
+     * Returns the number of signatures answered from the cache.
+     */
+    public long cacheHitCount() {
+        return signatureCache.hitCount();
+    }
+
+    private void verifyAll(List<String> presentations, CompletableFuture<List<VerifiedPresentation>> result) {
+        var now = clock.instant();
+        var verified = new ArrayList<VerifiedPresentation>(presentations.size());
+        var signatures = new ArrayList<PendingSignature>();
+        try {
+            // all claims are checked before the first signature is, so that a malformed token costs no signature verification
+            for (var compact : presentations) {
+                var presentation = parse(compact, now);
+                var holder = presentation.claims().path("iss").asText(null);
+                if (holder == null) {
+                    throw new IllegalArgumentException("Presentation has no iss");
+                }
+                signatures.add(new PendingSignature(presentation, holder, VerificationMethod.AUTHENTICATION));
+                var credentials = new ArrayList<JsonNode>();
+                for (var embedded : presentation.claims().path("vp").path("verifiableCredential")) {
+                    if (!embedded.isTextual()) {
+                        throw new IllegalArgumentException("Only JWT credentials are supported");
+                    }
+                    var credential = parse(embedded.asText(), now);
+                    var issuer = issuer(credential.claims());
+                    if (holderBinding && !holder.equals(subject(credential.claims()))) {
+                        throw new IllegalArgumentException("Credential subject is not the Holder " + holder);
+                    }
+                    signatures.add(new PendingSignature(credential, issuer, VerificationMethod.ASSERTION_METHOD));
+                    credentials.add(credential.claims());
+                }
+                verified.add(new VerifiedPresentation(holder, presentation.claims(), List.copyOf(credentials)));
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (signatures.isEmpty()) {
+            result.complete(List.of());
+            return;
+        }
+        var remaining = new AtomicInteger(signatures.size());
+        for (var signature : signatures) {
+            verifySignature(signature.jws(), signature.signer(), signature.relationship(), now, result).whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                } else if (remaining.decrementAndGet() == 0) {
+                    result.complete(List.copyOf(verified));
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<Void> verifySignature(Jws jws, String signer, String relationship, Instant now, CompletableFuture<?> result) {
+        if (jws.kid() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Token of %s has no kid".formatted(signer)));
+        }
+        var kid = jws.kid().startsWith("#") ? signer + jws.kid() : jws.kid();
+        var fragment = kid.indexOf('#');
+        if (fragment <= 0 || !kid.substring(0, fragment).equals(signer)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Key %s is not a key of %s".formatted(kid, signer)));
+        }
+        return didCache.verificationMethod(kid, relationship).thenAcceptAsync(method -> {
+            if (result.isDone()) {
+                // another check failed already
+                throw new CancellationException();
+            }
+            var key = VerifiedSignatureCache.key(jws, method.publicKey());
+            if (signatureCache.contains(key, now)) {
+                return;
+            }
+            verifications.increment();
+            if (!jws.verify(method.publicKey())) {
+                throw new IllegalArgumentException("Invalid signature of " + kid);
+            }
+            var expiresAt = now.plus(cacheTtl);
+            if (jws.claims().has("exp")) {
+                var exp = Instant.ofEpochSecond(jws.claims().get("exp").asLong());
+                expiresAt = exp.isBefore(expiresAt) ? exp : expiresAt;
+            }
+            signatureCache.put(key, expiresAt, now);
+        }, executor);
+    }
+
+    private Jws parse(String compact, Instant now) {
+        var jws = Jws.parse(compact, mapper);
+        var claims = jws.claims();
+        if (claims.has("exp") && Instant.ofEpochSecond(claims.get("exp").asLong()).plus(leeway).isBefore(now)) {
+            throw new IllegalArgumentException("Token of %s has expired".formatted(claims.path("iss").asText()));
+        }
+        if (claims.has("nbf") && Instant.ofEpochSecond(claims.get("nbf").asLong()).minus(leeway).isAfter(now)) {
+            throw new IllegalArgumentException("Token of %s is not valid yet".formatted(claims.path("iss").asText()));
+        }
+        return jws;
+    }
+
+    private static String issuer(JsonNode claims) {
+        var issuer = claims.has("iss") ? claims.get("iss") : claims.path("vc").path("issuer");
+        var id = issuer.isObject() ? issuer.path("id").asText(null) : issuer.asText(null);
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Credential has no issuer");
+        }
+        return id;
+    }
+
+    private static String subject(JsonNode claims) {
+        return claims.has("sub") ? claims.get("sub").asText() : claims.path("vc").path("credentialSubject").path("id").asText(null);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private record PendingSignature(Jws jws, String signer, String relationship) {
+    }
+
+    /**
+     * Builds {@link PresentationVerifier} instances.
+     */
+    public static final class Builder {
+        private final DidResolutionCache didCache;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int cacheSize = 100_000;
+        private Duration cacheTtl = Duration.ofHours(1);
+        private Duration leeway = Duration.ofSeconds(30);
+        private boolean holderBinding;
+        private Clock clock = Clock.systemUTC();
+        private ObjectMapper mapper = new ObjectMapper();
+
+        private Builder(DidResolutionCache didCache) {
+            this.didCache = Objects.requireNonNull(didCache, "didCache");
+        }
+
+        /**
+         * Sets the executor signatures are verified on. Defaults to the common pool.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        /**
+         * Sets how many verified signatures are remembered at most; 0 disables the cache. Defaults to 100,000.
+         */
+        public Builder cacheSize(int cacheSize) {
+            if (cacheSize < 0) {
+                throw new IllegalArgumentException("Cache size must not be negative");
+            }
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a verified signature is remembered at most. Defaults to one hour.
+         */
+        public Builder cacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+            return this;
+        }
+
+        /**
+         * Sets the clock-skew leeway of expiry and not-before checks. Defaults to 30 seconds.
+         */
+        public Builder leeway(Duration leeway) {
+            this.leeway = leeway;
+            return this;
+        }
+
+        /**
+         * Requires the subject of every credential to be the Holder, for data spaces requiring cryptographic holder binding.
+         */
+        public Builder holderBinding(boolean holderBinding) {
+            this.holderBinding = holderBinding;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder mapper(ObjectMapper mapper) {
+            this.mapper = mapper;
+            return this;
+        }
+
+        public PresentationVerifier build() {
+            return new PresentationVerifier(this);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A scope of a {@code PresentationQueryMessage} in the form {@code [alias]:[discriminator]}.
+ * <p>
+ * Parsed scopes are cached, so that the scopes a client requests repeatedly are parsed once and share their instances. The
+ * aliases defined by the specification are always represented by the {@link #VC_TYPE_ALIAS} and {@link #VC_ID_ALIAS}
+ * constants.
+ *
+ * @param alias the alias, e.g. {@link #VC_TYPE_ALIAS}
+ * @param discriminator the discriminator, e.g. a credential type
+ */
+public record Scope(String alias, String discriminator) {
+
+    /**
+     * Grants access to verifiable credentials by type.
+     */
+    public static final String VC_TYPE_ALIAS = "org.eclipse.dspace.dcp.vc.type";
+
+    /**
+     * Grants access to verifiable credentials by id.
+     */
+    public static final String VC_ID_ALIAS = "org.eclipse.dspace.dcp.vc.id";
+
+    private static final int CACHE_LIMIT = 10_000;
+    private static final Map<String, Scope> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Parses a scope. The discriminator is everything after the first colon and may contain further colons.
+     *
+     * @throws IllegalArgumentException if the value is not of the form {@code [alias]:[discriminator]}
+     */
+    public static Scope parse(String value) {
+        var scope = CACHE.get(value);
+        if (scope != null) {
+            return scope;
+        }
+        scope = doParse(value);
+        // the cache holds client input, stop growing it rather than evicting
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.putIfAbsent(value, scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Parses the {@code scope} array of a {@code PresentationQueryMessage}.
+     *
+     * @throws IllegalArgumentException if the array is empty or contains a malformed scope
+     */
+    public static List<Scope> parseAll(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("Scope array must contain at least one value");
+        }
+        var scopes = new ArrayList<Scope>(values.size());
+        for (var value : values) {
+            scopes.add(parse(value));
+        }
+        return List.copyOf(scopes);
+    }
+
+    /**
+     * Returns true if the scope refers to credentials by type.
+     */
+    public boolean isTypeScope() {
+        return VC_TYPE_ALIAS.equals(alias);
+    }
+
+    /**
+     * Returns true if the scope refers to a credential by id.
+     */
+    public boolean isIdScope() {
+        return VC_ID_ALIAS.equals(alias);
+    }
+
+    @Override
+    public String toString() {
+        return alias + ':' + discriminator;
+    }
+
+    private static Scope doParse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Scope must not be null");
+        }
+        var separator = value.indexOf(':');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Scope is not of the form [alias]:[discriminator]: " + value);
+        }
+        var alias = value.substring(0, separator);
+        var discriminator = value.substring(separator + 1);
+        if (!alias.strip().equals(alias) || discriminator.isBlank()) {
+            throw new IllegalArgumentException("Scope is not of the form [alias]:[discriminator]: " + value);
+        }
+        if (VC_TYPE_ALIAS.equals(alias)) {
+            alias = VC_TYPE_ALIAS;
+        } else if (VC_ID_ALIAS.equals(alias)) {
+            alias = VC_ID_ALIAS;
+        }
+        return new Scope(alias, discriminator);
+    }
+}
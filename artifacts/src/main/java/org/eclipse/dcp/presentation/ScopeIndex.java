@@ -0,0 +1,119 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves scopes to the credentials they grant access to.
+ * <p>
+ * The index is built once from the held credentials and is immutable, so resolving a scope is a single hash lookup and the
+ * index may be shared by any number of threads. Scopes with an alias other than {@link Scope#VC_TYPE_ALIAS} or
+ * {@link Scope#VC_ID_ALIAS} resolve to no credentials.
+ *
+ * @param <T> the credential representation
+ */
+public final class ScopeIndex<T> {
+
+    private final Map<String, List<T>> byType;
+    private final Map<String, T> byId;
+
+    private ScopeIndex(Map<String, List<T>> byType, Map<String, T> byId) {
+        this.byType = byType;
+        this.byId = Map.copyOf(byId);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the credentials the scope grants access to.
+     */
+    public List<T> resolve(Scope scope) {
+        if (scope.isTypeScope()) {
+            return byType.getOrDefault(scope.discriminator(), List.of());
+        }
+        if (scope.isIdScope()) {
+            var credential = byId.get(scope.discriminator());
+            return credential == null ? List.of() : List.of(credential);
+        }
+        return List.of();
+    }
+
+    /**
+     * Returns the credentials any of the scopes grants access to, without duplicates and in the order of the scopes.
+     */
+    public Set<T> resolve(Collection<Scope> scopes) {
+        var credentials = new LinkedHashSet<T>();
+        for (var scope : scopes) {
+            credentials.addAll(resolve(scope));
+        }
+        return credentials;
+    }
+
+    /**
+     * Returns true if the scope grants access to at least one credential.
+     */
+    public boolean matches(Scope scope) {
+        return !resolve(scope).isEmpty();
+    }
+
+    /**
+     * Builds {@link ScopeIndex} instances.
+     *
+     * @param <T> the credential representation
+     */
+    public static final class Builder<T> {
+        private final Map<String, List<T>> byType = new HashMap<>();
+        private final Map<String, T> byId = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a credential.
+         *
+         * @param credential the credential
+         * @param id the credential id, may be null
+         * @param types the credential types
+         * @throws IllegalArgumentException if a credential with the same id was added before
+         */
+        public Builder<T> credential(T credential, String id, Collection<String> types) {
+            if (id != null && byId.putIfAbsent(id, credential) != null) {
+                throw new IllegalArgumentException("Duplicate credential id: " + id);
+            }
+            for (var type : types) {
+                byType.computeIfAbsent(type, key -> new ArrayList<>()).add(credential);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the index. Later additions to the builder do not change it.
+         */
+        public ScopeIndex<T> build() {
+            var types = new HashMap<String, List<T>>();
+            byType.forEach((type, credentials) -> types.put(type, List.copyOf(credentials)));
+            return new ScopeIndex<>(Map.copyOf(types), byId);
+        }
+    }
+}
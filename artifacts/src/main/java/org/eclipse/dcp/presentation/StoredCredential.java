@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import org.eclipse.dcp.message.CredentialContainer;
+
+/**
+ * A credential held in a {@link CredentialStore}. The tags are held on-heap; the id and payload are read from the store's
+ * off-heap storage on each access.
+ */
+public final class StoredCredential {
+
+    private final CredentialStore store;
+    private final int ordinal;
+
+    StoredCredential(CredentialStore store, int ordinal) {
+        this.store = store;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Returns the credential id, or null if the credential was stored without one.
+     */
+    public String id() {
+        return store.id(ordinal);
+    }
+
+    public String credentialType() {
+        return store.credentialType(ordinal);
+    }
+
+    /**
+     * Returns the issuer, or null if the credential was stored without one.
+     */
+    public String issuer() {
+        return store.issuer(ordinal);
+    }
+
+    public String format() {
+        return store.format(ordinal);
+    }
+
+    public String payload() {
+        return store.payload(ordinal);
+    }
+
+    /**
+     * Returns the credential as the container of a {@code CredentialMessage}.
+     */
+    public CredentialContainer container() {
+        return new CredentialContainer(payload(), credentialType(), format());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof StoredCredential credential && credential.store == store && credential.ordinal == ordinal;
+    }
+
+    @Override
+    public int hashCode() {
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredCredential[" + ordinal + ", " + credentialType() + "]";
+    }
+}
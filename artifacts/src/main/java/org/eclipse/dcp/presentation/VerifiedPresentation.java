@@ -0,0 +1,29 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * A Verifiable Presentation whose signature and credential signatures were verified.
+ *
+ * @param holder the DID of the Holder that signed the presentation
+ * @param presentation the claims of the presentation
+ * @param credentials the claims of the embedded credentials, in the order of the presentation
+ */
+public record VerifiedPresentation(String holder, JsonNode presentation, List<JsonNode> credentials) {
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers JWS signatures that verified.
+ * <p>
+ * An entry is keyed by a SHA-256 digest over the {@code kid}, the encoded public key the signature verified with, the signing
+ * input and the signature. Binding the resolved key means a rotated or replaced key under the same {@code kid} misses the
+ * cache; binding the signature means only the exact token that verified is answered from the cache, never the same payload
+ * with a different, unverified signature. Entries expire with their token or after the time to live, whichever comes first.
+ * The number of entries is capped: when full, expired entries are dropped and, if that does not free space, new
+ * verifications are not remembered.
+ */
+final class VerifiedSignatureCache {
+
+    private final int maxEntries;
+    private final Map<ByteBuffer, Instant> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+
+    VerifiedSignatureCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cache key of a signature verified with a key.
+     */
+    static ByteBuffer key(Jws jws, PublicKey publicKey) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(jws.kid()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(publicKey.getEncoded());
+            digest.update((byte) 0);
+            digest.update(jws.signingInput().getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) '.');
+            digest.update(jws.signature());
+            return ByteBuffer.wrap(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    boolean contains(ByteBuffer key, Instant now) {
+        if (maxEntries == 0) {
+            return false;
+        }
+        var expiresAt = entries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (!expiresAt.isAfter(now)) {
+            entries.remove(key, expiresAt);
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    void put(ByteBuffer key, Instant expiresAt, Instant now) {
+        if (maxEntries == 0 || !expiresAt.isAfter(now)) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> !entry.isAfter(now));
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, expiresAt);
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
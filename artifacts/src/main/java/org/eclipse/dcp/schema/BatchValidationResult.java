@@ -0,0 +1,28 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+/**
+ * The outcome of validating one message of a batch.
+ *
+ * @param result the validation result, null if the message could not be dispatched to a schema
+ * @param failure the reason the message could not be dispatched, e.g. a missing or unknown type, null otherwise
+ */
+public record BatchValidationResult(ValidationResult result, IllegalArgumentException failure) {
+
+    public boolean valid() {
+        return failure == null && result.valid();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Validates batches of DCP messages in parallel.
+ * <p>
+ * Messages are validated on a dedicated fork-join pool with the configured parallelism. Results are returned in input order.
+ * A message that cannot be dispatched to a schema does not fail the batch, its result carries the failure instead.
+ */
+public final class DcpBatchValidator implements AutoCloseable {
+
+    private final DcpMessageValidator validator;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a batch validator backed by the process-wide {@link DcpSchemaRegistry}, using all available processors.
+     */
+    public DcpBatchValidator() {
+        this(new DcpMessageValidator(DcpSchemaRegistry.getInstance().warmUp()), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch validator.
+     *
+     * @param validator the validator of single messages
+     * @param parallelism the number of threads validating messages
+     */
+    public DcpBatchValidator(DcpMessageValidator validator, int parallelism) {
+        this.validator = validator;
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Validates messages in their JSON text form.
+     */
+    public List<BatchValidationResult> validate(List<String> messages) {
+        return run(messages, validator::validate);
+    }
+
+    /**
+     * Validates messages that have already been parsed.
+     */
+    public List<BatchValidationResult> validateNodes(List<? extends JsonNode> messages) {
+        return run(messages, validator::validate);
+    }
+
+    /**
+     * Validates a stream of messages in their JSON text form. The stream is consumed completely.
+     */
+    public List<BatchValidationResult> validate(Stream<String> messages) {
+        return submit(() -> messages.parallel().map(message -> validateOne(message, validator::validate)).toList());
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private <T> List<BatchValidationResult> run(List<T> messages, Function<T, ValidationResult> validation) {
+        return submit(() -> IntStream.range(0, messages.size()).parallel()
+                .mapToObj(index -> validateOne(messages.get(index), validation))
+                .toList());
+    }
+
+    private <T> BatchValidationResult validateOne(T message, Function<T, ValidationResult> validation) {
+        try {
+            return new BatchValidationResult(validation.apply(message), null);
+        } catch (IllegalArgumentException e) {
+            return new BatchValidationResult(null, e);
+        }
+    }
+
+    private List<BatchValidationResult> submit(Callable<List<BatchValidationResult>> task) {
+        // parallel streams started from a task of the pool run on that pool instead of the common pool
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating a batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
+/**
+ * The DCP message types, identified by the value of their {@code type} property, and the schema each one is validated against.
+ */
+public enum DcpMessageType {
+
+    PRESENTATION_QUERY_MESSAGE("PresentationQueryMessage", "/presentation/presentation-query-message-schema.json"),
+    PRESENTATION_RESPONSE_MESSAGE("PresentationResponseMessage", "/presentation/presentation-response-message-schema.json"),
+    CREDENTIAL_REQUEST_MESSAGE("CredentialRequestMessage", "/issuance/credential-request-message-schema.json"),
+    CREDENTIAL_MESSAGE("CredentialMessage", "/issuance/credential-message-schema.json"),
+    CREDENTIAL_OFFER_MESSAGE("CredentialOfferMessage", "/issuance/credential-offer-message-schema.json"),
+    CREDENTIAL_OBJECT("CredentialObject", "/issuance/credential-object-schema.json"),
+    CREDENTIAL_STATUS("CredentialStatus", "/issuance/credential-status-schema.json"),
+    ISSUER_METADATA("IssuerMetadata", "/issuance/issuer-metadata-schema.json");
+
+    private static final Map<String, DcpMessageType> BY_TYPE = Arrays.stream(values())
+            .collect(toUnmodifiableMap(DcpMessageType::typeName, Function.identity()));
+
+    private final String typeName;
+    private final String schemaFile;
+
+    DcpMessageType(String typeName, String schemaFile) {
+        this.typeName = typeName;
+        this.schemaFile = schemaFile;
+    }
+
+    /**
+     * Returns the message type for the given {@code type} property value, or null if the value does not denote a DCP message.
+     */
+    public static DcpMessageType fromTypeName(String typeName) {
+        return typeName == null ? null : BY_TYPE.get(typeName);
+    }
+
+    /**
+     * The value of the {@code type} property of the message.
+     */
+    public String typeName() {
+        return typeName;
+    }
+
+    /**
+     * The schema file, relative to {@link SchemaConstants#DCP_PREFIX}.
+     */
+    public String schemaFile() {
+        return schemaFile;
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.networknt.schema.ExecutionContextCustomizer;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.OutputFormat;
+import org.eclipse.dcp.metrics.DcpMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.networknt.schema.InputFormat.JSON;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_PREFIX;
+
+/**
+ * Validates any DCP message against the schema of its type.
+ * <p>
+ * The message type is determined from the top-level {@code type} property with a streaming parser that stops as soon as the
+ * property has been read, so the message is parsed into a tree only once, by the selected schema.
+ * <p>
+ * {@link #isValid(String)} and {@link #validateFailFast(String)} stop at the first error, including inside {@code allOf} and
+ * {@code anyOf} branches, and collect no error details for valid messages. Use {@link #validate(String)} to collect all errors,
+ * e.g. to report why a message was rejected.
+ * <p>
+ * Messages received as bytes are best passed as {@code byte[]} or {@link ByteBuffer}: the UTF-8 content is parsed in place,
+ * without decoding it into a {@code String} first, and the type is determined before the tree is built. Direct buffers and
+ * {@link InputStream}s are parsed into a tree before the type is determined.
+ * <p>
+ * A validator created with {@link DcpSchemaVersions} validates every message against the schemas of the protocol version
+ * of the DCP context in its {@code @context}, or of v1.0 if it has none, and looks the version up per message, so
+ * versions reloaded in the meantime are picked up. Messages of a version that is not loaded are rejected.
+ * <p>
+ * With {@link DcpMetrics} other than {@link DcpMetrics#NOOP}, the time to dispatch and validate every message is recorded
+ * per message type, together with the keyword of every error.
+ */
+public class DcpMessageValidator {
+    private static final String TYPE = "type";
+    private static final String CONTEXT = "@context";
+    private static final ExecutionContextCustomizer FAIL_FAST = (executionContext, validationContext) ->
+            executionContext.getExecutionConfig().setFailFast(true);
+
+    private final DcpSchemaRegistry registry;
+    private final DcpSchemaVersions versions;
+    private final DcpMetrics metrics;
+    private final boolean measured;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = mapper.getFactory();
+
+    /**
+     * Creates a validator backed by the process-wide {@link DcpSchemaRegistry}.
+     */
+    public DcpMessageValidator() {
+        this(DcpSchemaRegistry.getInstance());
+    }
+
+    public DcpMessageValidator(DcpSchemaRegistry registry) {
+        this(registry, DcpMetrics.NOOP);
+    }
+
+    /**
+     * Creates a validator recording the validation time and errors of every message.
+     */
+    public DcpMessageValidator(DcpSchemaRegistry registry, DcpMetrics metrics) {
+        this(registry, null, metrics);
+    }
+
+    /**
+     * Creates a validator dispatching every message to the schemas of its protocol version.
+     */
+    public DcpMessageValidator(DcpSchemaVersions versions, DcpMetrics metrics) {
+        this(null, versions, metrics);
+    }
+
+    private DcpMessageValidator(DcpSchemaRegistry registry, DcpSchemaVersions versions, DcpMetrics metrics) {
+        this.registry = registry;
+        this.versions = versions;
+        this.metrics = metrics;
+        this.measured = metrics.enabled();
+    }
+
+    /**
+     * Validates a message in its JSON text form.
+     *
+     * @throws IllegalArgumentException if the text is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validate(String message) {
+        var start = measured ? System.nanoTime() : 0;
+        var dispatch = peek(message);
+        return record(start, new ValidationResult(dispatch.type(), dispatch.schema().validate(message, JSON)));
+    }
+
+    /**
+     * Validates a message that has already been parsed.
+     *
+     * @throws IllegalArgumentException if the node does not carry the type of a DCP message
+     */
+    public ValidationResult validate(JsonNode message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validate(start, new Parsed(dispatch(message), message));
+    }
+
+    /**
+     * Validates a message in its UTF-8 encoded JSON form.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validate(byte[] message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validate(start, parse(message, 0, message.length));
+    }
+
+    /**
+     * Validates a message in its UTF-8 encoded JSON form, between the position and the limit of the buffer. The position of
+     * the buffer is not changed.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validate(ByteBuffer message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validate(start, parse(message));
+    }
+
+    /**
+     * Reads and validates a message in its JSON form. The stream is closed once the message has been read.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     * @throws java.io.UncheckedIOException if the stream cannot be read
+     */
+    public ValidationResult validate(InputStream message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validate(start, parse(message));
+    }
+
+    /**
+     * Returns true if a message in its JSON text form is valid.
+     *
+     * @throws IllegalArgumentException if the text is not a JSON object or does not carry the type of a DCP message
+     */
+    public boolean isValid(String message) {
+        var start = measured ? System.nanoTime() : 0;
+        var dispatch = peek(message);
+        return record(dispatch.type(), start, dispatch.schema().validate(message, JSON, OutputFormat.BOOLEAN, FAIL_FAST));
+    }
+
+    /**
+     * Returns true if a message that has already been parsed is valid.
+     *
+     * @throws IllegalArgumentException if the node does not carry the type of a DCP message
+     */
+    public boolean isValid(JsonNode message) {
+        var start = measured ? System.nanoTime() : 0;
+        return isValid(start, new Parsed(dispatch(message), message));
+    }
+
+    /**
+     * Returns true if a message in its UTF-8 encoded JSON form is valid.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public boolean isValid(byte[] message) {
+        var start = measured ? System.nanoTime() : 0;
+        return isValid(start, parse(message, 0, message.length));
+    }
+
+    /**
+     * Returns true if a message in its UTF-8 encoded JSON form, between the position and the limit of the buffer, is valid.
+     * The position of the buffer is not changed.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public boolean isValid(ByteBuffer message) {
+        var start = measured ? System.nanoTime() : 0;
+        return isValid(start, parse(message));
+    }
+
+    /**
+     * Reads a message in its JSON form and returns true if it is valid. The stream is closed once the message has been read.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     * @throws java.io.UncheckedIOException if the stream cannot be read
+     */
+    public boolean isValid(InputStream message) {
+        var start = measured ? System.nanoTime() : 0;
+        return isValid(start, parse(message));
+    }
+
+    /**
+     * Validates a message in its JSON text form, stopping at the first error. The result holds at most one error.
+     *
+     * @throws IllegalArgumentException if the text is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validateFailFast(String message) {
+        var start = measured ? System.nanoTime() : 0;
+        var dispatch = peek(message);
+        return record(start, new ValidationResult(dispatch.type(), dispatch.schema().validate(message, JSON, OutputFormat.DEFAULT, FAIL_FAST)));
+    }
+
+    /**
+     * Validates a message that has already been parsed, stopping at the first error. The result holds at most one error.
+     *
+     * @throws IllegalArgumentException if the node does not carry the type of a DCP message
+     */
+    public ValidationResult validateFailFast(JsonNode message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validateFailFast(start, new Parsed(dispatch(message), message));
+    }
+
+    /**
+     * Validates a message in its UTF-8 encoded JSON form, stopping at the first error. The result holds at most one error.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validateFailFast(byte[] message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validateFailFast(start, parse(message, 0, message.length));
+    }
+
+    /**
+     * Validates a message in its UTF-8 encoded JSON form, between the position and the limit of the buffer, stopping at the
+     * first error. The result holds at most one error. The position of the buffer is not changed.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     */
+    public ValidationResult validateFailFast(ByteBuffer message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validateFailFast(start, parse(message));
+    }
+
+    /**
+     * Reads and validates a message in its JSON form, stopping at the first error. The result holds at most one error. The
+     * stream is closed once the message has been read.
+     *
+     * @throws IllegalArgumentException if the content is not a JSON object or does not carry the type of a DCP message
+     * @throws java.io.UncheckedIOException if the stream cannot be read
+     */
+    public ValidationResult validateFailFast(InputStream message) {
+        var start = measured ? System.nanoTime() : 0;
+        return validateFailFast(start, parse(message));
+    }
+
+    /**
+     * Determines the message type from the top-level {@code type} property without building a tree.
+     *
+     * @throws IllegalArgumentException if the text is not a JSON object or does not carry the type of a DCP message
+     */
+    public DcpMessageType peekType(String message) {
+        return peek(message).type();
+    }
+
+    private ValidationResult validate(long start, Parsed message) {
+        var dispatch = message.dispatch();
+        return record(start, new ValidationResult(dispatch.type(), dispatch.schema().validate(message.node())));
+    }
+
+    private boolean isValid(long start, Parsed message) {
+        var dispatch = message.dispatch();
+        return record(dispatch.type(), start, dispatch.schema().validate(message.node(), OutputFormat.BOOLEAN, FAIL_FAST));
+    }
+
+    private ValidationResult validateFailFast(long start, Parsed message) {
+        var dispatch = message.dispatch();
+        return record(start, new ValidationResult(dispatch.type(), dispatch.schema().validate(message.node(), OutputFormat.DEFAULT, FAIL_FAST)));
+    }
+
+    private ValidationResult record(long start, ValidationResult result) {
+        if (measured) {
+            metrics.validation(result.type(), System.nanoTime() - start, result.valid());
+            for (var error : result.errors()) {
+                metrics.validationError(result.type(), error.getType());
+            }
+        }
+        return result;
+    }
+
+    private boolean record(DcpMessageType type, long start, boolean valid) {
+        if (measured) {
+            metrics.validation(type, System.nanoTime() - start, valid);
+        }
+        return valid;
+    }
+
+    private Dispatch peek(String message) {
+        try (var parser = jsonFactory.createParser(message)) {
+            return peek(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Message is not valid JSON", e);
+        }
+    }
+
+    private Parsed parse(byte[] message, int offset, int length) {
+        Dispatch dispatch;
+        try (var parser = jsonFactory.createParser(message, offset, length)) {
+            dispatch = peek(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Message is not valid JSON", e);
+        }
+        try {
+            return new Parsed(dispatch, mapper.readTree(message, offset, length));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Message is not valid JSON", e);
+        }
+    }
+
+    private Parsed parse(ByteBuffer message) {
+        if (message.hasArray()) {
+            return parse(message.array(), message.arrayOffset() + message.position(), message.remaining());
+        }
+        return parse(new ByteBufferBackedInputStream(message.duplicate()));
+    }
+
+    private Parsed parse(InputStream message) {
+        JsonNode node;
+        try (message) {
+            node = mapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Message is not valid JSON", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Parsed(dispatch(node), node);
+    }
+
+    private Dispatch peek(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Message is not a JSON object");
+        }
+        DcpMessageType type = null;
+        String prefix = null;
+        var contextRead = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var name = parser.currentName();
+            var token = parser.nextToken();
+            if (TYPE.equals(name)) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new IllegalArgumentException("Message has no string 'type' property");
+                }
+                type = resolve(parser.getText());
+                if (versions == null || contextRead) {
+                    return dispatch(type, prefix);
+                }
+            } else if (versions != null && CONTEXT.equals(name)) {
+                prefix = contextPrefix(parser, token);
+                contextRead = true;
+                if (type != null) {
+                    return dispatch(type, prefix);
+                }
+            } else {
+                // nested structures may contain 'type' properties of their own, e.g. presentation definition filters
+                parser.skipChildren();
+            }
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Message has no string 'type' property");
+        }
+        return dispatch(type, prefix);
+    }
+
+    private static String contextPrefix(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return DcpSchemaVersions.prefixOf(parser.getText());
+        }
+        String prefix = null;
+        if (token == JsonToken.START_ARRAY) {
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token == JsonToken.VALUE_STRING && prefix == null) {
+                    prefix = DcpSchemaVersions.prefixOf(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return prefix;
+    }
+
+    private Dispatch dispatch(JsonNode message) {
+        var typeNode = message.get(TYPE);
+        if (typeNode == null || !typeNode.isTextual()) {
+            throw new IllegalArgumentException("Message has no string 'type' property");
+        }
+        var type = resolve(typeNode.textValue());
+        String prefix = null;
+        if (versions != null) {
+            var context = message.path(CONTEXT);
+            for (var entry : context.isArray() ? context : List.of(context)) {
+                prefix = DcpSchemaVersions.prefixOf(entry.textValue());
+                if (prefix != null) {
+                    break;
+                }
+            }
+        }
+        return dispatch(type, prefix);
+    }
+
+    private Dispatch dispatch(DcpMessageType type, String prefix) {
+        if (versions == null) {
+            return new Dispatch(type, registry.getSchema(type));
+        }
+        var versionRegistry = versions.registry(prefix == null ? DCP_PREFIX : prefix);
+        if (versionRegistry == null) {
+            throw new IllegalArgumentException("Unsupported DCP version: " + prefix);
+        }
+        return new Dispatch(type, versionRegistry.getSchema(type));
+    }
+
+    private DcpMessageType resolve(String typeName) {
+        var type = DcpMessageType.fromTypeName(typeName);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown DCP message type: " + typeName);
+        }
+        return type;
+    }
+
+    private record Dispatch(DcpMessageType type, JsonSchema schema) {
+    }
+
+    private record Parsed(Dispatch dispatch, JsonNode node) {
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaLocation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static com.networknt.schema.SpecVersion.VersionFlag.V202012;
+import static org.eclipse.dcp.schema.SchemaConstants.CLASSPATH_SCHEMA;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_PREFIX;
+import static org.eclipse.dcp.schema.SchemaConstants.PRESENTATION_EXCHANGE_PREFIX;
+
+/**
+ * Holds the compiled DCP schemas.
+ * <p>
+ * Each schema is loaded from the classpath and compiled, including its {@code $ref} chain, at most once. Compiled schemas are
+ * immutable and may be shared by any number of threads. Use {@link #warmUp()} at startup to move the compilation cost off the
+ * request path.
+ * <p>
+ * A registry holds the schemas of one protocol version, identified by the prefix their ids are published under. The default
+ * registry holds the bundled v1.0 schemas; see {@link DcpSchemaVersions} for registries of further versions.
+ */
+public final class DcpSchemaRegistry {
+
+    /**
+     * Schema files that are not bound to a message type but are referenced by the message schemas.
+     */
+    static final List<String> COMMON_SCHEMA_FILES = List.of("/common/context-schema.json");
+
+    private final String prefix;
+    private final JsonSchemaFactory schemaFactory;
+    private final Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry that resolves the DCP and Presentation Exchange schemas from the classpath.
+     */
+    public DcpSchemaRegistry() {
+        this(DCP_PREFIX, CLASSPATH_SCHEMA);
+    }
+
+    /**
+     * Creates a registry for the protocol version published under the prefix, e.g. {@code https://w3id.org/dspace-dcp/v1.1/},
+     * resolving its schemas from the location, e.g. the file URI of a bundle directory. The Presentation Exchange schemas, and
+     * the v1.0 schemas if the prefix is another one, are resolved from the classpath.
+     */
+    public DcpSchemaRegistry(String prefix, String location) {
+        this.prefix = prefix;
+        schemaFactory = JsonSchemaFactory.getInstance(V202012, builder ->
+                builder.schemaMappers(schemaMappers -> {
+                    schemaMappers.mapPrefix(prefix, location).mapPrefix(PRESENTATION_EXCHANGE_PREFIX, CLASSPATH_SCHEMA);
+                    if (!DCP_PREFIX.equals(prefix)) {
+                        schemaMappers.mapPrefix(DCP_PREFIX, CLASSPATH_SCHEMA);
+                    }
+                })
+        );
+    }
+
+    /**
+     * Returns the process-wide registry.
+     */
+    public static DcpSchemaRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the prefix of the protocol version, e.g. {@code https://w3id.org/dspace-dcp/v1.0/}.
+     */
+    public String prefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns the compiled schema for the message type.
+     */
+    public JsonSchema getSchema(DcpMessageType type) {
+        return getSchema(type.schemaFile());
+    }
+
+    /**
+     * Returns the compiled schema for a file relative to the {@link #prefix()}, e.g.
+     * {@code /issuance/credential-status-schema.json}, or for the absolute URI of a {@link VendoredSchemas vendored} schema.
+     */
+    public JsonSchema getSchema(String schemaFile) {
+        return schemas.computeIfAbsent(schemaFile, this::compile);
+    }
+
+    /**
+     * Verifies the vendored schemas against their manifest and compiles all DCP and vendored schemas eagerly.
+     *
+     * @return this registry
+     * @throws IllegalStateException if a vendored schema does not match the manifest
+     */
+    public DcpSchemaRegistry warmUp() {
+        var vendored = VendoredSchemas.load().verify().entries().stream().map(VendoredSchemas.Entry::uri);
+        Stream.concat(COMMON_SCHEMA_FILES.stream(), Arrays.stream(DcpMessageType.values()).map(DcpMessageType::schemaFile))
+                .forEach(this::getSchema);
+        vendored.forEach(this::getSchema);
+        return this;
+    }
+
+    private JsonSchema compile(String schemaFile) {
+        var location = schemaFile.startsWith(PRESENTATION_EXCHANGE_PREFIX) ? schemaFile : prefix + schemaFile;
+        var schema = schemaFactory.getSchema(SchemaLocation.of(location));
+        // resolve the complete $ref chain now, so that validation never loads or compiles lazily
+        schema.initializeValidators();
+        return schema;
+    }
+
+    private static final class Holder {
+        private static final DcpSchemaRegistry INSTANCE = new DcpSchemaRegistry();
+    }
+}
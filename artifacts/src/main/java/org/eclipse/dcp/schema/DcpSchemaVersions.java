@@ -0,0 +1,358 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import jakarta.json.Json;
+import jakarta.json.JsonStructure;
+import org.eclipse.dcp.context.DcpDocumentLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_PREFIX;
+
+/**
+ * Holds the schemas and contexts of several DCP protocol versions side by side, keyed by the prefix each version is
+ * published under, such as {@code https://w3id.org/dspace-dcp/v1.0/}.
+ * <p>
+ * The bundled v1.0 schemas are always available. Further versions are loaded from a bundle directory: every subdirectory
+ * is the bundle of the version it is named after, e.g. {@code v1.1} for {@code https://w3id.org/dspace-dcp/v1.1/}, with
+ * the schema files at the same relative paths as the bundled ones and an optional {@code context/dcp.jsonld}. A
+ * {@code v1.0} bundle replaces the bundled v1.0 schemas, e.g. to roll out a patched schema.
+ * <p>
+ * The bundles and their compiled schemas form an immutable snapshot that is replaced atomically. A reload reads and
+ * compiles every new or changed bundle completely before it publishes the new snapshot, and keeps the current snapshot
+ * if any bundle fails to load, so readers never wait for a reload and never see a partially loaded set. Unchanged bundles,
+ * detected by a digest of their files, keep their compiled schemas. If watching is enabled, the directory is reloaded on a
+ * background thread after file changes have settled for a quiet period.
+ */
+public final class DcpSchemaVersions implements AutoCloseable {
+
+    private static final String DCP_BASE = "https://w3id.org/dspace-dcp/";
+    private static final String CONTEXT_FILE = "dcp.jsonld";
+    private static final String CONTEXT_RESOURCE = "context/" + CONTEXT_FILE;
+
+    private final Path directory;
+    private final Duration quietPeriod;
+    private final Bundle builtIn;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<RuntimeException> lastFailure = new AtomicReference<>();
+    private final LongAdder reloads = new LongAdder();
+    private final WatchService watchService;
+
+    private DcpSchemaVersions(Builder builder) {
+        directory = builder.directory;
+        quietPeriod = builder.quietPeriod;
+        builtIn = new Bundle(DCP_PREFIX, builder.registry, null, null);
+        snapshot.set(new Snapshot(Map.of(DCP_PREFIX, builtIn)));
+        if (directory != null) {
+            reload();
+        }
+        if (directory != null && builder.watch) {
+            try {
+                watchService = directory.getFileSystem().newWatchService();
+                register();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            var watcher = new Thread(this::watch, "dcp-schema-versions-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } else {
+            watchService = null;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the prefix of the version a context URL belongs to, e.g. {@code https://w3id.org/dspace-dcp/v1.0/} for
+     * {@code https://w3id.org/dspace-dcp/v1.0/dcp.jsonld}, or null if the URL is not a DCP context.
+     */
+    public static String prefixOf(String contextUrl) {
+        if (contextUrl == null || !contextUrl.startsWith(DCP_BASE) || !contextUrl.endsWith("/" + CONTEXT_FILE)) {
+            return null;
+        }
+        return contextUrl.substring(0, contextUrl.length() - CONTEXT_FILE.length());
+    }
+
+    /**
+     * Returns the registry of a version, or null if the version is not loaded.
+     */
+    public DcpSchemaRegistry registry(String prefix) {
+        var bundle = snapshot.get().bundles().get(prefix);
+        return bundle == null ? null : bundle.registry();
+    }
+
+    /**
+     * Returns the prefixes of the loaded versions.
+     */
+    public Set<String> prefixes() {
+        return snapshot.get().bundles().keySet();
+    }
+
+    /**
+     * Returns a document loader serving the contexts of the loaded bundles, and all other documents from the shared
+     * {@link DcpDocumentLoader}.
+     */
+    public DocumentLoader documentLoader() {
+        var fallback = DcpDocumentLoader.getInstance();
+        return (url, options) -> {
+            var prefix = prefixOf(url.toString());
+            var bundle = prefix == null ? null : snapshot.get().bundles().get(prefix);
+            if (bundle == null || bundle.context() == null) {
+                return fallback.loadDocument(url, options);
+            }
+            var document = JsonDocument.of(bundle.context());
+            document.setDocumentUrl(url);
+            return document;
+        };
+    }
+
+    /**
+     * Loads the bundle directory now and publishes the result.
+     *
+     * @return this registry
+     * @throws IllegalStateException if a bundle is incomplete, its schemas cannot be compiled or its context cannot be
+     *                               parsed; the current versions are kept
+     * @throws UncheckedIOException if the directory cannot be read; the current versions are kept
+     */
+    public synchronized DcpSchemaVersions reload() {
+        if (directory == null) {
+            return this;
+        }
+        try {
+            var current = snapshot.get().bundles();
+            var bundles = new HashMap<String, Bundle>();
+            // a v1.0 bundle replaces the bundled schemas, which are back once the bundle is removed
+            bundles.put(DCP_PREFIX, builtIn);
+            try (var entries = Files.list(directory)) {
+                for (var bundleDirectory : entries.filter(Files::isDirectory).sorted().toList()) {
+                    var prefix = DCP_BASE + bundleDirectory.getFileName() + "/";
+                    var digest = digest(bundleDirectory);
+                    var existing = current.get(prefix);
+                    bundles.put(prefix, existing != null && digest.equals(existing.digest()) ? existing : load(prefix, bundleDirectory, digest));
+                }
+            }
+            snapshot.set(new Snapshot(Map.copyOf(bundles)));
+            reloads.increment();
+            lastFailure.set(null);
+            return this;
+        } catch (IOException e) {
+            var failure = new UncheckedIOException("Cannot read schema bundles in " + directory, e);
+            lastFailure.set(failure);
+            throw failure;
+        } catch (RuntimeException e) {
+            lastFailure.set(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of reloads that published a snapshot.
+     */
+    public long reloadCount() {
+        return reloads.sum();
+    }
+
+    /**
+     * Returns the failure of the last reload, empty if it succeeded.
+     */
+    public Optional<RuntimeException> lastFailure() {
+        return Optional.ofNullable(lastFailure.get());
+    }
+
+    @Override
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Bundle load(String prefix, Path bundleDirectory, String digest) {
+        var files = Stream.concat(DcpSchemaRegistry.COMMON_SCHEMA_FILES.stream(), Stream.of(DcpMessageType.values()).map(DcpMessageType::schemaFile));
+        for (var file : files.toList()) {
+            if (!Files.isRegularFile(bundleDirectory.resolve(file.substring(1)))) {
+                throw new IllegalStateException("Schema bundle %s has no %s".formatted(bundleDirectory, file));
+            }
+        }
+        JsonStructure context = null;
+        var contextFile = bundleDirectory.resolve(CONTEXT_RESOURCE);
+        if (Files.isRegularFile(contextFile)) {
+            try (var reader = Json.createReader(Files.newBufferedReader(contextFile, StandardCharsets.UTF_8))) {
+                context = reader.read();
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Invalid context in schema bundle " + bundleDirectory, e);
+            }
+        } else if (DCP_PREFIX.equals(prefix)) {
+            context = bundledContext();
+        }
+        try {
+            var location = bundleDirectory.toUri().toString();
+            var registry = new DcpSchemaRegistry(prefix, location.endsWith("/") ? location : location + "/").warmUp();
+            return new Bundle(prefix, registry, context, digest);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Cannot compile schema bundle " + bundleDirectory, e);
+        }
+    }
+
+    private static JsonStructure bundledContext() {
+        try {
+            return DcpDocumentLoader.getInstance().loadDocument(URI.create(DCP_CONTEXT), new DocumentLoaderOptions()).getJsonContent().orElseThrow();
+        } catch (JsonLdError e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String digest(Path bundleDirectory) throws IOException {
+        try (var files = Files.walk(bundleDirectory)) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var file : files.filter(Files::isRegularFile).sorted().toList()) {
+                digest.update(bundleDirectory.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(file));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void register() throws IOException {
+        try (var directories = Files.walk(directory)) {
+            for (var path : directories.filter(Files::isDirectory).toList()) {
+                path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                var key = watchService.take();
+                key.pollEvents();
+                key.reset();
+                // wait until the changes settle, so that a bundle being copied is loaded once and complete
+                while ((key = watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                try {
+                    register();
+                    reload();
+                } catch (RuntimeException | IOException e) {
+                    // the failure is kept in lastFailure, the current snapshot stays published until the next change
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Bundle(String prefix, DcpSchemaRegistry registry, JsonStructure context, String digest) {
+    }
+
+    private record Snapshot(Map<String, Bundle> bundles) {
+    }
+
+    /**
+     * Builds {@link DcpSchemaVersions} instances.
+     */
+    public static final class Builder {
+        private DcpSchemaRegistry registry = DcpSchemaRegistry.getInstance();
+        private Path directory;
+        private boolean watch = true;
+        private Duration quietPeriod = Duration.ofMillis(500);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the registry of the bundled v1.0 schemas. Defaults to the process-wide registry.
+         */
+        public Builder registry(DcpSchemaRegistry registry) {
+            this.registry = Objects.requireNonNull(registry);
+            return this;
+        }
+
+        /**
+         * Loads further versions from the bundle directory.
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets whether the bundle directory is reloaded when its files change. Defaults to true.
+         */
+        public Builder watch(boolean watch) {
+            this.watch = watch;
+            return this;
+        }
+
+        /**
+         * Sets how long file changes must have settled before a reload. Defaults to 500 milliseconds.
+         */
+        public Builder quietPeriod(Duration quietPeriod) {
+            this.quietPeriod = quietPeriod;
+            return this;
+        }
+
+        /**
+         * Builds the registry, loading the bundle directory if one is set.
+         *
+         * @throws IllegalStateException if a bundle cannot be loaded
+         */
+        public DcpSchemaVersions build() {
+            return new DcpSchemaVersions(this);
+        }
+    }
+}
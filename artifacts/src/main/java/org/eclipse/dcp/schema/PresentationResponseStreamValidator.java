@@ -0,0 +1,230 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * Validates a {@code PresentationResponseMessage} while it is being read.
+ * <p>
+ * Only one element of the {@code presentation} array is held in memory at a time. Each element is validated on its own and
+ * handed to a {@link PresentationListener} once the envelope members {@code @context} and {@code type} have been validated.
+ * If the envelope members follow the {@code presentation} array in the document, valid elements are held back until the end
+ * of the document; the held back elements are bounded by a maximum encoded size, {@value #DEFAULT_MAX_PENDING_BYTES} bytes
+ * unless configured otherwise, and a message exceeding it is rejected. Senders that put the envelope first are therefore not
+ * limited in the size of the message. The {@code presentationSubmission} is validated with the rest of the envelope when the
+ * document has been read, so its errors are only reported in the {@link Result}.
+ */
+public class PresentationResponseStreamValidator {
+
+    /**
+     * The default maximum number of bytes of presentations held back until the envelope has been validated.
+     */
+    public static final int DEFAULT_MAX_PENDING_BYTES = 1024 * 1024;
+
+    private static final String PRESENTATION = "presentation";
+    private static final String CONTEXT = "@context";
+    private static final String TYPE = "type";
+    private static final String ITEMS_FRAGMENT = "#/definitions/PresentationResponseMessage/properties/presentation/items";
+
+    private final ObjectMapper mapper;
+    private final JsonSchema schema;
+    private final JsonSchema itemSchema;
+    private final long maxPendingBytes;
+
+    /**
+     * Creates a validator backed by the process-wide {@link DcpSchemaRegistry}.
+     */
+    public PresentationResponseStreamValidator() {
+        this(DcpSchemaRegistry.getInstance(), new ObjectMapper());
+    }
+
+    /**
+     * Creates a validator.
+     *
+     * @param registry the registry providing the compiled schemas
+     * @param mapper the mapper used to parse the message
+     */
+    public PresentationResponseStreamValidator(DcpSchemaRegistry registry, ObjectMapper mapper) {
+        this(registry, mapper, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Creates a validator.
+     *
+     * @param registry the registry providing the compiled schemas
+     * @param mapper the mapper used to parse the message
+     * @param maxPendingBytes the maximum number of bytes of valid presentations held back while the envelope follows them
+     * @throws IllegalArgumentException if the maximum is negative
+     */
+    public PresentationResponseStreamValidator(DcpSchemaRegistry registry, ObjectMapper mapper, long maxPendingBytes) {
+        if (maxPendingBytes < 0) {
+            throw new IllegalArgumentException("Negative maximum: " + maxPendingBytes);
+        }
+        this.maxPendingBytes = maxPendingBytes;
+        this.mapper = mapper;
+        schema = registry.getSchema(PRESENTATION_RESPONSE_MESSAGE);
+        itemSchema = registry.getSchema(PRESENTATION_RESPONSE_MESSAGE.schemaFile() + ITEMS_FRAGMENT);
+    }
+
+    /**
+     * Reads and validates a message, handing each valid presentation to the listener.
+     *
+     * @param stream the message
+     * @param listener receives the valid presentations in document order
+     * @return the validation result
+     * @throws IOException if the message cannot be read or is not well-formed JSON
+     * @throws IllegalArgumentException if the message is not a JSON object, or if its envelope follows more than the maximum
+     *         number of bytes of valid presentations
+     */
+    public Result validate(InputStream stream, PresentationListener listener) throws IOException {
+        try (var parser = mapper.createParser(stream)) {
+            return new Validation(parser, listener).run();
+        }
+    }
+
+    /**
+     * Receives the presentations of a message.
+     */
+    @FunctionalInterface
+    public interface PresentationListener {
+
+        /**
+         * Called for each valid presentation.
+         *
+         * @param index the index of the presentation in the {@code presentation} array
+         * @param presentation the presentation, either a string or an object
+         */
+        void onPresentation(int index, JsonNode presentation);
+    }
+
+    /**
+     * The outcome of validating a message.
+     *
+     * @param delivered the number of presentations handed to the listener
+     * @param errors the errors of the envelope, i.e. all members except the individual presentations
+     * @param presentationErrors the errors of invalid presentations by index, these are not handed to the listener
+     */
+    public record Result(int delivered, Set<ValidationMessage> errors, Map<Integer, Set<ValidationMessage>> presentationErrors) {
+
+        public boolean valid() {
+            return errors.isEmpty() && presentationErrors.isEmpty();
+        }
+    }
+
+    private final class Validation {
+        private final JsonParser parser;
+        private final PresentationListener listener;
+        private final ObjectNode envelope = mapper.createObjectNode();
+        private final Map<Integer, Set<ValidationMessage>> presentationErrors = new HashMap<>();
+        private final List<JsonNode> pending = new ArrayList<>();
+        private int pendingStart = -1;
+        private long pendingBytes;
+        private int delivered;
+        private boolean envelopeValid;
+
+        Validation(JsonParser parser, PresentationListener listener) {
+            this.parser = parser;
+            this.listener = listener;
+        }
+
+        Result run() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Message is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.currentName();
+                var token = parser.nextToken();
+                if (PRESENTATION.equals(name) && token == JsonToken.START_ARRAY) {
+                    envelope.putArray(PRESENTATION);
+                    var errors = readPresentations();
+                    if (!errors.isEmpty()) {
+                        // the envelope is invalid, the remaining document is not read
+                        return new Result(delivered, errors, Map.copyOf(presentationErrors));
+                    }
+                } else {
+                    envelope.set(name, mapper.readTree(parser));
+                }
+            }
+            var errors = schema.validate(envelope);
+            if (errors.isEmpty() && !envelopeValid) {
+                flush();
+            }
+            return new Result(delivered, errors, Map.copyOf(presentationErrors));
+        }
+
+        private Set<ValidationMessage> readPresentations() throws IOException {
+            if (envelope.has(CONTEXT) && envelope.has(TYPE)) {
+                var errors = schema.validate(envelope);
+                if (!errors.isEmpty()) {
+                    return errors;
+                }
+                envelopeValid = true;
+            }
+            var index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                var start = parser.currentTokenLocation().getByteOffset();
+                JsonNode presentation = mapper.readTree(parser);
+                var errors = itemSchema.validate(presentation);
+                if (!errors.isEmpty()) {
+                    presentationErrors.put(index, errors);
+                } else if (envelopeValid) {
+                    listener.onPresentation(index, presentation);
+                    delivered++;
+                } else {
+                    pendingBytes += parser.currentLocation().getByteOffset() - start;
+                    if (pendingBytes > maxPendingBytes) {
+                        throw new IllegalArgumentException("More than %d bytes of presentations precede the message type and context"
+                                .formatted(maxPendingBytes));
+                    }
+                    if (pending.isEmpty()) {
+                        pendingStart = index;
+                    }
+                    pending.add(presentation);
+                }
+                index++;
+            }
+            return Set.of();
+        }
+
+        private void flush() {
+            var index = pendingStart;
+            for (var presentation : pending) {
+                while (presentationErrors.containsKey(index)) {
+                    index++;
+                }
+                listener.onPresentation(index++, presentation);
+                delivered++;
+            }
+            pending.clear();
+        }
+    }
+}
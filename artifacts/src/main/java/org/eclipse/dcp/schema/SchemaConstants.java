@@ -21,5 +21,8 @@ public interface SchemaConstants {
 
     String DCP_CONTEXT = "https://w3id.org/dspace-dcp/v1.0/dcp.jsonld";
     String DCP_PREFIX = "https://w3id.org/dspace-dcp/v1.0/";
+    String ODRL_CONTEXT = "https://www.w3.org/ns/odrl.jsonld";
+    String PRESENTATION_EXCHANGE_PREFIX = "https://identity.foundation/";
+    String CLASSPATH_SCHEMA = "classpath:/";
 
 }
@@ -0,0 +1,32 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Set;
+
+/**
+ * The outcome of validating a DCP message.
+ *
+ * @param type the message type the message was dispatched to
+ * @param errors the validation errors, empty if the message is valid
+ */
+public record ValidationResult(DcpMessageType type, Set<ValidationMessage> errors) {
+
+    public boolean valid() {
+        return errors.isEmpty();
+    }
+}
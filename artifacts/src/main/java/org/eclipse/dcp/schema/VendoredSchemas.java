@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * The third-party schemas shipped with this artifact so that {@code $ref}s to them resolve without network access.
+ * <p>
+ * The schemas are listed in {@value #MANIFEST} together with the SHA-256 hash of their content. {@link #verify()} detects
+ * schemas that were modified or dropped when the artifact was repackaged.
+ */
+public final class VendoredSchemas {
+
+    /**
+     * The classpath location of the manifest.
+     */
+    public static final String MANIFEST = "/vendored-schemas.json";
+
+    private final List<Entry> entries;
+
+    private VendoredSchemas(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    /**
+     * Reads the manifest from the classpath.
+     *
+     * @throws IllegalStateException if the manifest is missing
+     */
+    public static VendoredSchemas load() {
+        try (var stream = VendoredSchemas.class.getResourceAsStream(MANIFEST)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing schema manifest " + MANIFEST);
+            }
+            var entries = new ArrayList<Entry>();
+            for (var schema : new ObjectMapper().readTree(stream).path("schemas")) {
+                entries.add(new Entry(schema.path("uri").asText(), schema.path("resource").asText(), schema.path("sha256").asText()));
+            }
+            return new VendoredSchemas(entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the manifest entries.
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Checks that every listed schema is on the classpath and matches its hash.
+     *
+     * @return this manifest
+     * @throws IllegalStateException if a schema is missing or its content differs from the manifest
+     */
+    public VendoredSchemas verify() {
+        for (var entry : entries) {
+            var actual = hash(entry.resource());
+            if (!actual.equals(entry.sha256())) {
+                throw new IllegalStateException("Content hash mismatch for vendored schema %s: expected %s but was %s"
+                        .formatted(entry.resource(), entry.sha256(), actual));
+            }
+        }
+        return this;
+    }
+
+    private static String hash(String resource) {
+        try (InputStream stream = VendoredSchemas.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing vendored schema " + resource);
+            }
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(stream.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A vendored schema.
+     *
+     * @param uri the URI the schema is referenced by
+     * @param resource the classpath location of the schema
+     * @param sha256 the hex encoded SHA-256 hash of the schema content
+     */
+    public record Entry(String uri, String resource, String sha256) {
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A decoded, immutable status list bitstring.
+ * <p>
+ * Bits are numbered from the most significant bit of the first byte, as defined by the Bitstring Status List and StatusList2021
+ * specifications. The bitstring is held in a {@link ByteBuffer} that is either on the heap or direct, so that large lists can be
+ * kept outside the garbage-collected heap.
+ */
+public final class StatusList {
+
+    /**
+     * The default maximum size of a decoded bitstring in bytes, i.e. 32 Mi statuses of one bit.
+     */
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The largest maximum size of a decoded bitstring in bytes, for which the number of bits fits into an {@code int}.
+     */
+    public static final int MAX_BYTES_LIMIT = Integer.MAX_VALUE / Byte.SIZE;
+
+    private static final char MULTIBASE_BASE64URL = 'u';
+    private static final int READ_SIZE = 8192;
+
+    private final ByteBuffer bits;
+    private final int size;
+
+    private StatusList(ByteBuffer bits) {
+        this.bits = bits.asReadOnlyBuffer();
+        size = bits.capacity() * Byte.SIZE;
+    }
+
+    /**
+     * Decodes an {@code encodedList} of at most {@link #DEFAULT_MAX_BYTES} decoded bytes.
+     *
+     * @see #decode(String, boolean, int)
+     */
+    public static StatusList decode(String encodedList, boolean direct) {
+        return decode(encodedList, direct, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Decodes an {@code encodedList}.
+     * <p>
+     * Accepts the multibase base64url encoding of the Bitstring Status List specification as well as the unprefixed base64 and
+     * base64url encodings used by StatusList2021, with or without padding. Lists are fetched from issuers, so the decompressed
+     * size is limited: decompression stops as soon as the bitstring exceeds {@code maxBytes}.
+     *
+     * @param encodedList the GZIP-compressed, base64 encoded bitstring
+     * @param direct whether to hold the bitstring in a direct buffer
+     * @param maxBytes the maximum size of the decoded bitstring, at most {@link #MAX_BYTES_LIMIT}
+     * @throws IllegalArgumentException if the value is not valid base64 or GZIP data, if the bitstring is larger than
+     *         {@code maxBytes} or if {@code maxBytes} is out of range
+     */
+    public static StatusList decode(String encodedList, boolean direct, int maxBytes) {
+        if (maxBytes < 0 || maxBytes > MAX_BYTES_LIMIT) {
+            throw new IllegalArgumentException("Maximum list size out of range: " + maxBytes);
+        }
+        var encoded = !encodedList.isEmpty() && encodedList.charAt(0) == MULTIBASE_BASE64URL ? encodedList.substring(1) : encodedList;
+        var compressed = Base64.getDecoder().decode(encoded.replace('-', '+').replace('_', '/'));
+        try (var stream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            var bytes = readBounded(stream, maxBytes);
+            var buffer = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+            buffer.put(bytes).flip();
+            return new StatusList(buffer);
+        } catch (ZipException e) {
+            throw new IllegalArgumentException("Encoded list is not GZIP-compressed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of bits in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the bit at the index is set.
+     *
+     * @throws IndexOutOfBoundsException if the index is outside the list
+     */
+    public boolean get(int index) {
+        return value(index, 1) != 0;
+    }
+
+    /**
+     * Returns the status value of {@code statusSize} bits starting at {@code index * statusSize}.
+     *
+     * @param index the status list index
+     * @param statusSize the number of bits per status, between 1 and 8
+     * @throws IndexOutOfBoundsException if the status is outside the list
+     */
+    public int value(int index, int statusSize) {
+        if (statusSize < 1 || statusSize > Byte.SIZE) {
+            throw new IllegalArgumentException("Unsupported status size: " + statusSize);
+        }
+        var first = (long) index * statusSize;
+        if (index < 0 || first + statusSize > size) {
+            throw new IndexOutOfBoundsException("Status list index %d is outside a list of %d bits".formatted(index, size));
+        }
+        var value = 0;
+        for (var bit = first; bit < first + statusSize; bit++) {
+            var octet = bits.get((int) (bit >>> 3));
+            value = (value << 1) | ((octet >>> (7 - (int) (bit & 7))) & 1);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if the bitstring is held outside the heap.
+     */
+    public boolean isDirect() {
+        return bits.isDirect();
+    }
+
+    private static byte[] readBounded(InputStream stream, int maxBytes) throws IOException {
+        var bytes = new byte[Math.min(READ_SIZE, maxBytes + 1)];
+        var length = 0;
+        while (true) {
+            if (length == bytes.length) {
+                if (length > maxBytes) {
+                    throw new IllegalArgumentException("Decoded list is larger than %d bytes".formatted(maxBytes));
+                }
+                bytes = Arrays.copyOf(bytes, (int) Math.min((long) length * 2, maxBytes + 1L));
+            }
+            var read = stream.read(bytes, length, bytes.length - length);
+            if (read < 0) {
+                return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+            }
+            length += read;
+        }
+    }
+}
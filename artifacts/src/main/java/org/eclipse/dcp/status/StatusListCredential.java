@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The parts of a {@code BitstringStatusListCredential} or {@code StatusList2021Credential} needed for status checks.
+ * <p>
+ * The credential is expected to be verified by the {@link StatusListResolver} before it is handed to the engine.
+ *
+ * @param statusPurpose the purpose of the list
+ * @param encodedList the GZIP-compressed, base64 encoded bitstring
+ * @param validUntil the end of the validity period, or null if the credential does not expire
+ */
+public record StatusListCredential(String statusPurpose, String encodedList, Instant validUntil) {
+
+    /**
+     * Reads the status list from a credential in the VC Data Model 2.0 or 1.1.
+     * <p>
+     * {@code validUntil} is taken from the {@code validUntil} property, or from {@code expirationDate} for 1.1 credentials.
+     *
+     * @throws IllegalArgumentException if the credential has no encoded list or a malformed validity date
+     */
+    public static StatusListCredential of(JsonNode credential) {
+        var subject = credential.path("credentialSubject");
+        var encodedList = subject.path("encodedList").asText(null);
+        if (encodedList == null) {
+            throw new IllegalArgumentException("Status list credential has no encodedList");
+        }
+        var validUntil = credential.has("validUntil") ? credential.get("validUntil") : credential.get("expirationDate");
+        try {
+            return new StatusListCredential(subject.path("statusPurpose").asText(null), encodedList,
+                    validUntil == null ? null : Instant.parse(validUntil.asText()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid validity date: " + validUntil, e);
+        }
+    }
+}
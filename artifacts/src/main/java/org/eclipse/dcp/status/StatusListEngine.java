@@ -0,0 +1,211 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks credential status against Bitstring Status List and StatusList2021 credentials.
+ * <p>
+ * Each status list credential is resolved and decoded once and then served from memory, keyed by its URL, until it expires.
+ * A list expires at its {@code validUntil} date or after the configured maximum age, whichever comes first. Concurrent checks
+ * against a list that is not cached share a single resolution, so verifying many credentials of the same list decodes it once.
+ * The resolution is started outside the lock of the cache entry. Failed resolutions are not cached. Decoded lists are limited
+ * in size, see {@link Builder#maxListBytes(int)}.
+ */
+public final class StatusListEngine {
+
+    private final StatusListResolver resolver;
+    private final Duration maxAge;
+    private final boolean direct;
+    private final int maxListBytes;
+    private final Clock clock;
+    private final Map<String, CompletableFuture<CachedList>> lists = new ConcurrentHashMap<>();
+    private final LongAdder decodes = new LongAdder();
+
+    private StatusListEngine(StatusListResolver resolver, Duration maxAge, boolean direct, int maxListBytes, Clock clock) {
+        this.resolver = resolver;
+        this.maxAge = maxAge;
+        this.direct = direct;
+        this.maxListBytes = maxListBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a builder for an engine resolving lists with the resolver.
+     */
+    public static Builder builder(StatusListResolver resolver) {
+        return new Builder(resolver);
+    }
+
+    /**
+     * Returns the status value of the entry, 0 if no status is set.
+     * <p>
+     * The future fails with {@link IllegalStateException} if the list cannot be used for the entry, e.g. because its purpose
+     * differs, and with {@link IndexOutOfBoundsException} if the index is outside the list.
+     */
+    public CompletableFuture<Integer> status(StatusListEntry entry) {
+        return list(entry.statusListCredential()).thenApply(cached -> {
+            if (cached.statusPurpose() != null && !cached.statusPurpose().equals(entry.statusPurpose())) {
+                throw new IllegalStateException("Status purpose %s does not match the purpose %s of list %s"
+                        .formatted(entry.statusPurpose(), cached.statusPurpose(), entry.statusListCredential()));
+            }
+            return cached.list().value(entry.statusListIndex(), entry.statusSize());
+        });
+    }
+
+    /**
+     * Returns true if a status is set for the entry, e.g. the credential is revoked for the purpose {@code revocation}.
+     */
+    public CompletableFuture<Boolean> isSet(StatusListEntry entry) {
+        return status(entry).thenApply(status -> status != 0);
+    }
+
+    /**
+     * Drops a cached list so that the next check resolves it again.
+     */
+    public void invalidate(String url) {
+        lists.remove(url);
+    }
+
+    /**
+     * Drops all expired lists.
+     */
+    public void evictExpired() {
+        var now = clock.instant();
+        lists.values().removeIf(future -> !isFresh(future, now));
+    }
+
+    /**
+     * Returns the number of lists decoded since the engine was created.
+     */
+    public long decodeCount() {
+        return decodes.sum();
+    }
+
+    private CompletableFuture<CachedList> list(String url) {
+        var now = clock.instant();
+        var current = lists.get(url);
+        if (current != null && isFresh(current, now)) {
+            return current;
+        }
+        // replaces a missing, expired or failed list atomically, so that concurrent callers share one resolution; the resolver
+        // is called after compute returns, so that it does not run under the lock of the map bin
+        var placeholder = new CompletableFuture<CachedList>();
+        var future = lists.compute(url, (key, existing) -> existing != null && isFresh(existing, now) ? existing : placeholder);
+        if (future == placeholder) {
+            load(url, now).whenComplete((list, failure) -> {
+                if (failure != null) {
+                    placeholder.completeExceptionally(failure);
+                } else {
+                    placeholder.complete(list);
+                }
+            });
+        }
+        return future;
+    }
+
+    private CompletableFuture<CachedList> load(String url, Instant now) {
+        CompletableFuture<StatusListCredential> resolved;
+        try {
+            resolved = resolver.resolve(url);
+        } catch (RuntimeException e) {
+            resolved = CompletableFuture.failedFuture(e);
+        }
+        return resolved.thenApply(credential -> {
+            var validUntil = credential.validUntil();
+            if (validUntil != null && !validUntil.isAfter(now)) {
+                throw new IllegalStateException("Status list credential expired: " + url);
+            }
+            var expiresAt = now.plus(maxAge);
+            if (validUntil != null && validUntil.isBefore(expiresAt)) {
+                expiresAt = validUntil;
+            }
+            decodes.increment();
+            return new CachedList(StatusList.decode(credential.encodedList(), direct, maxListBytes), credential.statusPurpose(), expiresAt);
+        });
+    }
+
+    private boolean isFresh(CompletableFuture<CachedList> future, Instant now) {
+        if (!future.isDone()) {
+            return true;
+        }
+        return !future.isCompletedExceptionally() && future.join().expiresAt().isAfter(now);
+    }
+
+    private record CachedList(StatusList list, String statusPurpose, Instant expiresAt) {
+    }
+
+    /**
+     * Builds {@link StatusListEngine} instances.
+     */
+    public static final class Builder {
+        private final StatusListResolver resolver;
+        private Duration maxAge = Duration.ofMinutes(5);
+        private boolean direct;
+        private int maxListBytes = StatusList.DEFAULT_MAX_BYTES;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(StatusListResolver resolver) {
+            this.resolver = Objects.requireNonNull(resolver, "resolver");
+        }
+
+        /**
+         * Sets the maximum time a list is cached, regardless of its {@code validUntil} date. Defaults to five minutes.
+         */
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        /**
+         * Sets whether decoded lists are held in direct buffers outside the heap. Defaults to false.
+         */
+        public Builder direct(boolean direct) {
+            this.direct = direct;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of a decoded list in bytes; checks against larger lists fail with
+         * {@link IllegalArgumentException}. Defaults to {@link StatusList#DEFAULT_MAX_BYTES}.
+         *
+         * @throws IllegalArgumentException if the size is negative or larger than {@link StatusList#MAX_BYTES_LIMIT}
+         */
+        public Builder maxListBytes(int maxListBytes) {
+            if (maxListBytes < 0 || maxListBytes > StatusList.MAX_BYTES_LIMIT) {
+                throw new IllegalArgumentException("Maximum list size out of range: " + maxListBytes);
+            }
+            this.maxListBytes = maxListBytes;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public StatusListEngine build() {
+            return new StatusListEngine(resolver, maxAge, direct, maxListBytes, clock);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A {@code credentialStatus} entry referring to a position in a status list.
+ *
+ * @param statusListCredential the URL of the status list credential
+ * @param statusListIndex the position of the status in the list
+ * @param statusPurpose the purpose of the status, e.g. {@code revocation} or {@code suspension}
+ * @param statusSize the number of bits per status
+ */
+public record StatusListEntry(String statusListCredential, int statusListIndex, String statusPurpose, int statusSize) {
+    public static final String BITSTRING_STATUS_LIST_ENTRY = "BitstringStatusListEntry";
+    public static final String STATUS_LIST_2021_ENTRY = "StatusList2021Entry";
+
+    /**
+     * Reads a {@code BitstringStatusListEntry} or {@code StatusList2021Entry}.
+     *
+     * @throws IllegalArgumentException if the entry is of another type or is malformed
+     */
+    public static StatusListEntry of(JsonNode credentialStatus) {
+        var type = credentialStatus.path("type").asText();
+        if (!BITSTRING_STATUS_LIST_ENTRY.equals(type) && !STATUS_LIST_2021_ENTRY.equals(type)) {
+            throw new IllegalArgumentException("Unsupported credential status type: " + type);
+        }
+        var url = credentialStatus.path("statusListCredential").asText(null);
+        var purpose = credentialStatus.path("statusPurpose").asText(null);
+        if (url == null || purpose == null) {
+            throw new IllegalArgumentException("Credential status requires statusListCredential and statusPurpose");
+        }
+        int index;
+        try {
+            index = Integer.parseInt(credentialStatus.path("statusListIndex").asText());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid statusListIndex: " + credentialStatus.path("statusListIndex"), e);
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid statusListIndex: " + index);
+        }
+        return new StatusListEntry(url, index, purpose, credentialStatus.path("statusSize").asInt(1));
+    }
+}
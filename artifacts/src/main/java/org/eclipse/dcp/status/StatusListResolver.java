@@ -0,0 +1,30 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches and verifies status list credentials.
+ */
+@FunctionalInterface
+public interface StatusListResolver {
+
+    /**
+     * Resolves the status list credential published at the URL. The proof of the credential must have been verified when the
+     * returned future completes.
+     */
+    CompletableFuture<StatusListCredential> resolve(String url);
+}
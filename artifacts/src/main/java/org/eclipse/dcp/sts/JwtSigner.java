@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Signs compact JWS with one key. The encoded header is computed once, and every thread keeps its own initialized
+ * {@link Signature}, so signing allocates no provider state.
+ */
+final class JwtSigner {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SigningKey key;
+    private final String encodedHeader;
+    private final ThreadLocal<Signature> signatures;
+
+    JwtSigner(SigningKey key) {
+        this.key = key;
+        var header = "{\"alg\":\"%s\",\"typ\":\"JWT\",\"kid\":\"%s\"}".formatted(key.algorithm(), new String(JsonStringEncoder.getInstance().quoteAsString(key.keyId())));
+        this.encodedHeader = ENCODER.encodeToString(header.getBytes(StandardCharsets.UTF_8));
+        this.signatures = ThreadLocal.withInitial(this::newSignature);
+        // fail on an unusable key now rather than on the first request
+        newSignature();
+    }
+
+    SigningKey key() {
+        return key;
+    }
+
+    /**
+     * Returns the compact serialization of a JWS with the claims.
+     */
+    String sign(byte[] claims) {
+        var signingInput = encodedHeader + "." + ENCODER.encodeToString(claims);
+        try {
+            var signature = signatures.get();
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + ENCODER.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign with " + key.keyId(), e);
+        }
+    }
+
+    private Signature newSignature() {
+        try {
+            // the P1363 format is the JWS encoding of ECDSA signatures, the concatenation of R and S
+            var signature = Signature.getInstance(SigningKey.ES256.equals(key.algorithm()) ? "SHA256withECDSAinP1363Format" : "Ed25519");
+            signature.initSign(key.privateKey());
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Unusable signing key " + key.keyId(), e);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Mints Self-Issued ID Tokens for registered clients, as the {@code /token} endpoint of a Secure Token Service.
+ * <p>
+ * Tokens are issued for the client's DID, which is both {@code iss} and {@code sub}, to the requested audience, with a
+ * random {@code jti}. A {@code bearer_access_scope} is granted with an access token in the {@code token} claim, itself a
+ * JWT for the client's DID carrying the space-delimited scopes in its {@code scope} claim; a {@code token} parameter is
+ * included in the claim as is.
+ * <p>
+ * Signing keys are loaded when the service is built, and {@link #warmUp()} initializes a signature for every key on every
+ * signing thread ahead of the first request. Signing runs on a dedicated executor, so request threads never hold up on
+ * key operations, and concurrent requests are signed in parallel by the pool.
+ * <p>
+ * Token reuse is optional: with a reuse fraction, a token for the same client, audience and scopes is returned again
+ * until that fraction of its lifetime has passed, and concurrent requests for it share a single signature. A reused token
+ * repeats its {@code jti}, which Verifiers that enforce single use will reject, so reuse is off by default and only fits
+ * audiences that accept repeated presentation of a token within its lifetime.
+ */
+public final class SecureTokenService implements AutoCloseable {
+
+    private static final String CLIENT_CREDENTIALS = "client_credentials";
+    private static final String BEARER = "Bearer";
+
+    private final Map<String, StsClient> clients;
+    private final Map<String, JwtSigner> signers;
+    private final ExecutorService signingExecutor;
+    private final int signingThreads;
+    private final Duration lifetime;
+    private final double reuseFraction;
+    private final int reuseLimit;
+    private final Clock clock;
+    private final ObjectMapper mapper;
+
+    private final Map<ReuseKey, CompletableFuture<IssuedToken>> issued = new ConcurrentHashMap<>();
+    private final LongAdder signatures = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    private SecureTokenService(Builder builder) {
+        this.clients = Map.copyOf(builder.clients);
+        this.signers = Map.copyOf(builder.signers);
+        this.signingThreads = builder.signingThreads;
+        this.lifetime = builder.lifetime;
+        this.reuseFraction = builder.reuseFraction;
+        this.reuseLimit = builder.reuseLimit;
+        this.clock = builder.clock;
+        this.mapper = builder.mapper;
+        var counter = new AtomicInteger();
+        this.signingExecutor = Executors.newFixedThreadPool(signingThreads, runnable -> {
+            var thread = new Thread(runnable, "dcp-sts-signer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Initializes a signature for every signing key on every signing thread and waits until all are ready.
+     */
+    public SecureTokenService warmUp() {
+        var ready = new CountDownLatch(signingThreads);
+        var tasks = new CompletableFuture<?>[signingThreads];
+        for (var i = 0; i < signingThreads; i++) {
+            // every task holds its thread until all have started, so each thread of the pool runs one
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                ready.countDown();
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                signers.values().forEach(signer -> signer.sign(new byte[]{'{', '}'}));
+            }, signingExecutor);
+        }
+        CompletableFuture.allOf(tasks).join();
+        return this;
+    }
+
+    /**
+     * Mints a token for the request.
+     *
+     * @return the token, or a future failed with a {@link TokenRequestException} if the request is refused
+     */
+    public CompletableFuture<TokenResponse> token(TokenRequest request) {
+        StsClient client;
+        try {
+            client = authenticate(request);
+        } catch (TokenRequestException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var signer = signers.get(client.keyId());
+        var scopes = scopes(request.bearerAccessScope());
+        if (reuseFraction == 0 || request.token() != null) {
+            return mint(client, signer, request.audience(), scopes, request.token()).thenApply(this::response);
+        }
+
+        var key = new ReuseKey(client.clientId(), request.audience(), scopes);
+        var now = clock.instant();
+        var existing = issued.get(key);
+        if (existing != null && reusable(existing, now)) {
+            reused.increment();
+            return existing.thenApply(this::response);
+        }
+        if (existing == null && issued.size() >= reuseLimit) {
+            issued.values().removeIf(token -> !reusable(token, now));
+            if (issued.size() >= reuseLimit) {
+                return mint(client, signer, request.audience(), scopes, null).thenApply(this::response);
+            }
+        }
+        var candidate = new CompletableFuture<IssuedToken>();
+        var token = issued.compute(key, (k, current) -> current != null && reusable(current, now) ? current : candidate);
+        if (token != candidate) {
+            reused.increment();
+        } else {
+            mint(client, signer, request.audience(), scopes, null).whenComplete((result, failure) -> {
+                if (failure != null) {
+                    issued.remove(key, candidate);
+                    candidate.completeExceptionally(failure);
+                } else {
+                    candidate.complete(result);
+                }
+            });
+        }
+        return token.thenApply(this::response);
+    }
+
+    /**
+     * Returns the number of tokens signed, access tokens included.
+     */
+    public long signatureCount() {
+        return signatures.sum();
+    }
+
+    /**
+     * Returns the number of requests answered with a previously minted token.
+     */
+    public long reuseCount() {
+        return reused.sum();
+    }
+
+    @Override
+    public void close() {
+        signingExecutor.shutdown();
+    }
+
+    private StsClient authenticate(TokenRequest request) {
+        if (!CLIENT_CREDENTIALS.equals(request.grantType())) {
+            throw new TokenRequestException("unsupported_grant_type", "grant_type must be " + CLIENT_CREDENTIALS);
+        }
+        if (request.clientId() == null || request.clientSecret() == null) {
+            throw new TokenRequestException("invalid_request", "client_id and client_secret are required");
+        }
+        var client = clients.get(request.clientId());
+        if (client == null || !client.authenticates(request.clientSecret())) {
+            throw new TokenRequestException("invalid_client", "Client authentication failed");
+        }
+        if (request.audience() == null || request.audience().isBlank()) {
+            throw new TokenRequestException("invalid_request", "audience is required");
+        }
+        return client;
+    }
+
+    private CompletableFuture<IssuedToken> mint(StsClient client, JwtSigner signer, String audience, Set<String> scopes, String token) {
+        var issuedAt = clock.instant();
+        var expiresAt = issuedAt.plus(lifetime);
+        return CompletableFuture.supplyAsync(() -> {
+            var accessToken = token;
+            if (accessToken == null && !scopes.isEmpty()) {
+                var claims = claims(client.did(), client.did(), issuedAt, expiresAt);
+                claims.put("scope", String.join(" ", scopes));
+                accessToken = sign(signer, claims);
+            }
+            var claims = claims(client.did(), audience, issuedAt, expiresAt);
+            if (accessToken != null) {
+                claims.put("token", accessToken);
+            }
+            return new IssuedToken(sign(signer, claims), issuedAt, expiresAt);
+        }, signingExecutor);
+    }
+
+    private Map<String, Object> claims(String did, String audience, Instant issuedAt, Instant expiresAt) {
+        var claims = new LinkedHashMap<String, Object>();
+        claims.put("iss", did);
+        claims.put("sub", did);
+        claims.put("aud", audience);
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("iat", issuedAt.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        return claims;
+    }
+
+    private String sign(JwtSigner signer, Map<String, Object> claims) {
+        try {
+            var jwt = signer.sign(mapper.writeValueAsBytes(claims));
+            signatures.increment();
+            return jwt;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean reusable(CompletableFuture<IssuedToken> token, Instant now) {
+        if (!token.isDone()) {
+            return true;
+        }
+        if (token.isCompletedExceptionally()) {
+            return false;
+        }
+        var result = token.join();
+        var reuseUntil = result.issuedAt().plusMillis((long) (lifetime.toMillis() * reuseFraction));
+        return now.isBefore(reuseUntil);
+    }
+
+    private TokenResponse response(IssuedToken token) {
+        var expiresIn = Math.max(0, Duration.between(clock.instant(), token.expiresAt()).toSeconds());
+        return new TokenResponse(token.jwt(), expiresIn, BEARER);
+    }
+
+    private static Set<String> scopes(String bearerAccessScope) {
+        if (bearerAccessScope == null || bearerAccessScope.isBlank()) {
+            return Set.of();
+        }
+        // sorted, so the same scopes in another order reuse the same token
+        return new TreeSet<>(Arrays.asList(bearerAccessScope.trim().split("\\s+")));
+    }
+
+    private record IssuedToken(String jwt, Instant issuedAt, Instant expiresAt) {
+    }
+
+    private record ReuseKey(String clientId, String audience, Set<String> scopes) {
+    }
+
+    /**
+     * Builds a {@link SecureTokenService}.
+     */
+    public static final class Builder {
+        private final Map<String, StsClient> clients = new HashMap<>();
+        private final Map<String, JwtSigner> signers = new HashMap<>();
+        private int signingThreads = Runtime.getRuntime().availableProcessors();
+        private Duration lifetime = Duration.ofMinutes(5);
+        private double reuseFraction;
+        private int reuseLimit = 100_000;
+        private Clock clock = Clock.systemUTC();
+        private ObjectMapper mapper = new ObjectMapper();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a signing key, which is checked and loaded into a signer right away.
+         */
+        public Builder signingKey(SigningKey key) {
+            signers.put(key.keyId(), new JwtSigner(key));
+            return this;
+        }
+
+        public Builder client(StsClient client) {
+            clients.put(client.clientId(), client);
+            return this;
+        }
+
+        /**
+         * Sets the lifetime of minted tokens. Defaults to five minutes.
+         */
+        public Builder tokenLifetime(Duration lifetime) {
+            if (lifetime.isNegative() || lifetime.isZero()) {
+                throw new IllegalArgumentException("Token lifetime must be positive");
+            }
+            this.lifetime = lifetime;
+            return this;
+        }
+
+        /**
+         * Reuses a token for the same client, audience and scopes until the fraction of its lifetime has passed; 0, the
+         * default, mints a token for every request.
+         */
+        public Builder reuseTokens(double fraction) {
+            if (!(fraction >= 0 && fraction < 1)) {
+                throw new IllegalArgumentException("Reuse fraction must be in [0, 1): " + fraction);
+            }
+            this.reuseFraction = fraction;
+            return this;
+        }
+
+        /**
+         * Sets how many tokens are kept for reuse at most; beyond that, requests for further keys are minted without reuse.
+         */
+        public Builder reuseLimit(int limit) {
+            if (limit < 1) {
+                throw new IllegalArgumentException("Reuse limit must be positive");
+            }
+            this.reuseLimit = limit;
+            return this;
+        }
+
+        /**
+         * Sets the number of signing threads. Defaults to the number of available processors.
+         */
+        public Builder signingThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Signing threads must be positive");
+            }
+            this.signingThreads = threads;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = requireNonNull(clock);
+            return this;
+        }
+
+        public Builder mapper(ObjectMapper mapper) {
+            this.mapper = requireNonNull(mapper);
+            return this;
+        }
+
+        /**
+         * Builds the service.
+         *
+         * @throws IllegalStateException if a client refers to a signing key that was not added
+         */
+        public SecureTokenService build() {
+            for (var client : clients.values()) {
+                if (!signers.containsKey(client.keyId())) {
+                    throw new IllegalStateException("No signing key " + client.keyId() + " for client " + client.clientId());
+                }
+            }
+            return new SecureTokenService(this);
+        }
+    }
+}
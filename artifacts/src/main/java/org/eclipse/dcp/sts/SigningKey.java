@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import java.security.PrivateKey;
+import java.security.interfaces.ECPrivateKey;
+
+/**
+ * A key the Secure Token Service signs tokens with.
+ *
+ * @param keyId the {@code kid} header, i.e. the DID URL of the verification method of the key
+ * @param privateKey the private key
+ * @param algorithm the JWS algorithm, {@code ES256} or {@code EdDSA}
+ */
+public record SigningKey(String keyId, PrivateKey privateKey, String algorithm) {
+
+    static final String ES256 = "ES256";
+    static final String EDDSA = "EdDSA";
+
+    /**
+     * Creates a signing key, choosing the algorithm from the key: {@code ES256} for P-256 keys and {@code EdDSA} for Ed25519
+     * keys.
+     *
+     * @throws IllegalArgumentException if the key is of another type
+     */
+    public static SigningKey of(String keyId, PrivateKey privateKey) {
+        if (privateKey instanceof ECPrivateKey ecKey && ecKey.getParams().getCurve().getField().getFieldSize() == 256) {
+            return new SigningKey(keyId, privateKey, ES256);
+        }
+        if ("Ed25519".equals(privateKey.getAlgorithm()) || "EdDSA".equals(privateKey.getAlgorithm())) {
+            return new SigningKey(keyId, privateKey, EDDSA);
+        }
+        throw new IllegalArgumentException("Unsupported signing key: " + privateKey.getAlgorithm());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A client of the Secure Token Service, i.e. a participant agent, and the identity its tokens are issued for.
+ *
+ * @param clientId the {@code client_id}
+ * @param did the participant DID, used as {@code iss} and {@code sub}
+ * @param keyId the id of the {@link SigningKey} for the client's tokens
+ * @param secretHash the SHA-256 hash of the {@code client_secret}
+ */
+public record StsClient(String clientId, String did, String keyId, byte[] secretHash) {
+
+    /**
+     * Creates a client, hashing its secret.
+     */
+    public static StsClient of(String clientId, String did, String keyId, String secret) {
+        return new StsClient(clientId, did, keyId, hash(secret));
+    }
+
+    /**
+     * Returns true if the secret is the client's secret, in time independent of where the secrets differ.
+     */
+    public boolean authenticates(String secret) {
+        return secret != null && MessageDigest.isEqual(secretHash, hash(secret));
+    }
+
+    private static byte[] hash(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Serves a {@link SecureTokenService} as the {@code POST /token} endpoint of the Identity Trust STS API on the JDK HTTP
+ * server. The response is written from the signing thread once the token is minted, so server threads do not wait on
+ * signing.
+ */
+public final class TokenEndpoint implements HttpHandler {
+
+    private final SecureTokenService service;
+    private final ObjectMapper mapper;
+
+    public TokenEndpoint(SecureTokenService service) {
+        this(service, new ObjectMapper());
+    }
+
+    public TokenEndpoint(SecureTokenService service, ObjectMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getRequestBody().close();
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        TokenRequest request;
+        try (var body = exchange.getRequestBody()) {
+            request = TokenRequest.parse(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (TokenRequestException refused) {
+            refuse(exchange, refused);
+            return;
+        }
+        service.token(request).whenComplete((response, failure) -> {
+            try {
+                if (failure == null) {
+                    respond(exchange, 200, Map.of("access_token", response.accessToken(), "expires_in", response.expiresIn(), "token_type", response.tokenType()));
+                } else {
+                    var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof TokenRequestException refused) {
+                        refuse(exchange, refused);
+                    } else {
+                        respond(exchange, 500, List.of(Map.of("error", "server_error", "error_description", "Token could not be minted")));
+                    }
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        });
+    }
+
+    private void refuse(HttpExchange exchange, TokenRequestException refused) throws IOException {
+        respond(exchange, 400, List.of(Map.of("error", refused.error(), "error_description", refused.getMessage())));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        var bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var stream = exchange.getResponseBody()) {
+            stream.write(bytes);
+        }
+    }
+}
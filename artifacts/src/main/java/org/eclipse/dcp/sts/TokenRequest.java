@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * A request to the {@code /token} endpoint of the Secure Token Service.
+ *
+ * @param grantType the {@code grant_type}, which must be {@code client_credentials}
+ * @param clientId the {@code client_id}
+ * @param clientSecret the {@code client_secret}
+ * @param audience the {@code audience}, i.e. the DID of the Verifier
+ * @param bearerAccessScope the space-delimited {@code bearer_access_scope}, may be null
+ * @param token the {@code token} to include in the Self-Issued ID Token, may be null
+ */
+public record TokenRequest(String grantType, String clientId, String clientSecret, String audience, String bearerAccessScope,
+                           String token) {
+
+    /**
+     * Parses an {@code application/x-www-form-urlencoded} request body.
+     *
+     * @throws TokenRequestException with the error {@code invalid_request} if the body contains a malformed escape
+     */
+    public static TokenRequest parse(String form) {
+        var parameters = new HashMap<String, String>();
+        for (var pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            var separator = pair.indexOf('=');
+            var name = separator < 0 ? pair : pair.substring(0, separator);
+            var value = separator < 0 ? "" : pair.substring(separator + 1);
+            try {
+                parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new TokenRequestException("invalid_request", "Malformed form encoding");
+            }
+        }
+        return new TokenRequest(parameters.get("grant_type"), parameters.get("client_id"), parameters.get("client_secret"),
+                parameters.get("audience"), parameters.get("bearer_access_scope"), parameters.get("token"));
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+/**
+ * A token request the Secure Token Service refuses, carrying the OAuth 2 error code of the refusal.
+ */
+public final class TokenRequestException extends IllegalArgumentException {
+
+    private final String error;
+
+    public TokenRequestException(String error, String description) {
+        super(description);
+        this.error = error;
+    }
+
+    /**
+     * Returns the OAuth 2 error code, e.g. {@code invalid_client}.
+     */
+    public String error() {
+        return error;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+/**
+ * A Self-Issued ID Token minted by the Secure Token Service, in the shape of the {@code StsTokenResponse}.
+ *
+ * @param accessToken the Self-Issued ID Token
+ * @param expiresIn the seconds until the token expires
+ * @param tokenType the token type, {@code Bearer}
+ */
+public record TokenResponse(String accessToken, long expiresIn, String tokenType) {
+}
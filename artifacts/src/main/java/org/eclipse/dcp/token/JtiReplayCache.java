@@ -0,0 +1,430 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.token;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Detects reused {@code jti} values of Self-Issued ID Tokens.
+ * <p>
+ * A {@code jti} is retained until the {@code exp} of its token plus the clock-skew leeway has passed, since the token is
+ * rejected as expired after that. Retained values are partitioned into buckets by expiry; once the end of a bucket has passed,
+ * the whole bucket is dropped. The number of retained values is capped: when the cap is reached, further tokens are rejected
+ * rather than accepted without replay protection. Tokens expiring later than the configured maximum token lifetime from now
+ * are rejected for the same reason.
+ * <p>
+ * The cache is safe for concurrent use without locks. If a persistence file is configured, every retained value is also
+ * written to a memory-mapped slot of that file and restored when the cache is rebuilt, so that a restart does not open a
+ * replay window. Persistence survives process restarts; use {@link #flush()} to force the file to storage.
+ */
+public final class JtiReplayCache implements AutoCloseable {
+
+    /**
+     * The maximum length of a {@code jti} in UTF-8 bytes.
+     */
+    public static final int MAX_JTI_LENGTH = 119;
+
+    private static final int SLOT_SIZE = 128;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x4a544931;
+
+    private final Duration leeway;
+    private final Duration maxTokenLifetime;
+    private final long bucketMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final SlotFile slots;
+
+    private JtiReplayCache(Builder builder) {
+        leeway = builder.leeway;
+        maxTokenLifetime = builder.maxTokenLifetime;
+        bucketMillis = builder.bucketWidth.toMillis();
+        maxEntries = builder.maxEntries;
+        clock = builder.clock;
+        var horizon = maxTokenLifetime.plus(leeway).toMillis();
+        buckets = new AtomicReferenceArray<>((int) ((horizon + bucketMillis - 1) / bucketMillis) + 2);
+        slots = builder.file == null ? null : new SlotFile(builder.file, maxEntries);
+        if (slots != null) {
+            slots.restore(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Records the {@code jti} of a token that has passed all other checks.
+     *
+     * @param jti the {@code jti} claim
+     * @param expiresAt the {@code exp} claim
+     * @return {@link Result#ACCEPTED} if the value was not seen before and is now retained
+     */
+    public Result record(String jti, Instant expiresAt) {
+        var now = clock.millis();
+        var retainUntil = expiresAt.plus(leeway).toEpochMilli();
+        if (retainUntil <= now) {
+            return Result.EXPIRED;
+        }
+        sweep(now);
+        if (expiresAt.isAfter(Instant.ofEpochMilli(now).plus(maxTokenLifetime)) ||
+                jti.getBytes(StandardCharsets.UTF_8).length > MAX_JTI_LENGTH) {
+            rejections.increment();
+            return Result.REJECTED;
+        }
+        var entry = new Entry(retainUntil, -1);
+        var existing = entries.putIfAbsent(jti, entry);
+        while (existing != null) {
+            if (existing.retainUntil() > now) {
+                replays.increment();
+                return Result.REPLAYED;
+            }
+            // expired, but its bucket has not been dropped yet
+            if (entries.replace(jti, existing, entry)) {
+                if (slots != null && existing.slot() >= 0) {
+                    slots.free(existing.slot());
+                }
+                break;
+            }
+            existing = entries.putIfAbsent(jti, entry);
+        }
+        if (entries.size() > maxEntries) {
+            entries.remove(jti, entry);
+            rejections.increment();
+            return Result.REJECTED;
+        }
+        if (slots != null) {
+            var slot = slots.allocate();
+            if (slot < 0) {
+                entries.remove(jti, entry);
+                rejections.increment();
+                return Result.REJECTED;
+            }
+            var persisted = new Entry(retainUntil, slot);
+            slots.write(slot, jti, retainUntil);
+            entries.replace(jti, entry, persisted);
+            entry = persisted;
+        }
+        add(jti, entry);
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * Returns the number of retained values.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the number of replayed values detected since the cache was created.
+     */
+    public long replayCount() {
+        return replays.sum();
+    }
+
+    /**
+     * Returns the number of tokens rejected because they could not be retained.
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Forces the persistence file to storage. Does nothing without persistence.
+     */
+    public void flush() {
+        if (slots != null) {
+            slots.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void add(String jti, Entry entry) {
+        var epoch = Math.floorDiv(entry.retainUntil(), bucketMillis);
+        var index = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            var bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch() >= epoch) {
+                // a later bucket retains the value at least as long
+                bucket.jtis().add(jti);
+                if (buckets.get(index) != bucket) {
+                    // the bucket was dropped concurrently
+                    remove(jti, entry);
+                }
+                return;
+            }
+            var created = new Bucket(epoch, new ConcurrentLinkedQueue<>());
+            if (buckets.compareAndSet(index, bucket, created)) {
+                if (bucket != null) {
+                    drop(bucket);
+                }
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        var scheduled = nextSweep.get();
+        if (now < scheduled || !nextSweep.compareAndSet(scheduled, now + bucketMillis)) {
+            return;
+        }
+        var current = Math.floorDiv(now, bucketMillis);
+        for (var i = 0; i < buckets.length(); i++) {
+            var bucket = buckets.get(i);
+            // values are retained until before the end of their bucket
+            if (bucket != null && bucket.epoch() < current && buckets.compareAndSet(i, bucket, null)) {
+                drop(bucket);
+            }
+        }
+    }
+
+    private void drop(Bucket bucket) {
+        for (var jti : bucket.jtis()) {
+            var entry = entries.get(jti);
+            if (entry != null && Math.floorDiv(entry.retainUntil(), bucketMillis) <= bucket.epoch()) {
+                remove(jti, entry);
+            }
+        }
+    }
+
+    private void remove(String jti, Entry entry) {
+        if (entries.remove(jti, entry) && slots != null && entry.slot() >= 0) {
+            slots.free(entry.slot());
+        }
+    }
+
+    /**
+     * The outcome of recording a {@code jti}.
+     */
+    public enum Result {
+        /**
+         * The value was not seen before and is retained.
+         */
+        ACCEPTED,
+        /**
+         * The value was seen before, the token must be rejected.
+         */
+        REPLAYED,
+        /**
+         * The token has expired, including the leeway.
+         */
+        EXPIRED,
+        /**
+         * The value cannot be retained, because the cache is full, the token lives longer than the maximum token lifetime or
+         * the value is too long. The token must be rejected.
+         */
+        REJECTED
+    }
+
+    private record Entry(long retainUntil, int slot) {
+    }
+
+    private record Bucket(long epoch, Queue<String> jtis) {
+    }
+
+    /**
+     * Fixed-size slots in a memory-mapped file, each holding the expiry, the length and the UTF-8 bytes of a value. A length
+     * of 0 marks a free slot.
+     */
+    private static final class SlotFile {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicInteger next = new AtomicInteger();
+        private final Queue<Integer> free = new ConcurrentLinkedQueue<>();
+
+        SlotFile(Path file, int capacity) {
+            this.capacity = capacity;
+            try (var channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+                var existing = channel.size();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+                if (existing == 0) {
+                    buffer.putInt(0, MAGIC).putInt(4, capacity);
+                } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != capacity) {
+                    throw new IllegalStateException("Not a replay cache file with %d slots: %s".formatted(capacity, file));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void restore(JtiReplayCache cache) {
+            var now = cache.clock.millis();
+            var highest = -1;
+            for (var slot = 0; slot < capacity; slot++) {
+                var offset = HEADER_SIZE + slot * SLOT_SIZE;
+                int length = buffer.get(offset + 8);
+                if (length == 0) {
+                    continue;
+                }
+                var retainUntil = buffer.getLong(offset);
+                if (retainUntil <= now) {
+                    buffer.put(offset + 8, (byte) 0);
+                    continue;
+                }
+                var bytes = new byte[length];
+                buffer.get(offset + 9, bytes);
+                var jti = new String(bytes, StandardCharsets.UTF_8);
+                var entry = new Entry(retainUntil, slot);
+                cache.entries.put(jti, entry);
+                cache.add(jti, entry);
+                highest = slot;
+            }
+            for (var slot = 0; slot < highest; slot++) {
+                if (buffer.get(HEADER_SIZE + slot * SLOT_SIZE + 8) == 0) {
+                    free.add(slot);
+                }
+            }
+            next.set(highest + 1);
+        }
+
+        int allocate() {
+            var slot = free.poll();
+            if (slot != null) {
+                return slot;
+            }
+            var allocated = next.getAndIncrement();
+            if (allocated >= capacity) {
+                next.set(capacity);
+                return -1;
+            }
+            return allocated;
+        }
+
+        void write(int slot, String jti, long retainUntil) {
+            var offset = HEADER_SIZE + slot * SLOT_SIZE;
+            var bytes = jti.getBytes(StandardCharsets.UTF_8);
+            buffer.put(offset + 9, bytes);
+            buffer.putLong(offset, retainUntil);
+            // the length is written last and marks the slot as used
+            buffer.put(offset + 8, (byte) bytes.length);
+        }
+
+        void free(int slot) {
+            buffer.put(HEADER_SIZE + slot * SLOT_SIZE + 8, (byte) 0);
+            free.add(slot);
+        }
+
+        void force() {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Builds {@link JtiReplayCache} instances.
+     */
+    public static final class Builder {
+        private Duration leeway = Duration.ofSeconds(30);
+        private Duration maxTokenLifetime = Duration.ofMinutes(10);
+        private Duration bucketWidth = Duration.ofSeconds(10);
+        private int maxEntries = 1_000_000;
+        private Clock clock = Clock.systemUTC();
+        private Path file;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the clock-skew leeway applied to {@code exp}. Defaults to 30 seconds.
+         */
+        public Builder leeway(Duration leeway) {
+            this.leeway = leeway;
+            return this;
+        }
+
+        /**
+         * Sets the longest accepted time between now and {@code exp}. Defaults to 10 minutes.
+         */
+        public Builder maxTokenLifetime(Duration maxTokenLifetime) {
+            this.maxTokenLifetime = maxTokenLifetime;
+            return this;
+        }
+
+        /**
+         * Sets the expiry range of a bucket. Values are retained for at most this long after their expiry. Defaults to 10
+         * seconds.
+         */
+        public Builder bucketWidth(Duration bucketWidth) {
+            this.bucketWidth = bucketWidth;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of retained values. Defaults to 1,000,000.
+         */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Persists retained values to a memory-mapped file. An existing file is restored; it must have been created with the
+         * same maximum number of entries.
+         */
+        public Builder persistTo(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Builds the cache, restoring the persistence file if one is configured.
+         *
+         * @throws IllegalArgumentException if the bucket width is not positive
+         */
+        public JtiReplayCache build() {
+            if (bucketWidth.toMillis() <= 0) {
+                throw new IllegalArgumentException("Bucket width must be positive");
+            }
+            return new JtiReplayCache(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import jakarta.json.Json;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+import static org.eclipse.dcp.schema.SchemaConstants.ODRL_CONTEXT;
+
+public class DcpDocumentLoaderTest {
+    private static final String CUSTOM_CONTEXT = "https://example.com/custom.jsonld";
+
+    @Test
+    void verifyBundledContexts() throws JsonLdError {
+        var loader = DcpDocumentLoader.builder().build();
+
+        var dcp = loader.loadDocument(URI.create(DCP_CONTEXT), new DocumentLoaderOptions());
+        var odrl = loader.loadDocument(URI.create(ODRL_CONTEXT), new DocumentLoaderOptions());
+
+        assertThat(dcp.getJsonContent()).hasValueSatisfying(json -> assertThat(json.asJsonObject()).containsKey("@context"));
+        assertThat(odrl.getJsonContent()).hasValueSatisfying(json -> assertThat(json.asJsonObject()).containsKey("@context"));
+        assertThat(dcp.getDocumentUrl()).isEqualTo(URI.create(DCP_CONTEXT));
+        assertThat(loader.hitCount()).isEqualTo(2);
+        assertThat(loader.missCount()).isZero();
+    }
+
+    @Test
+    void verifyContentParsedOnce() throws JsonLdError {
+        var loader = DcpDocumentLoader.builder().build();
+
+        var first = loader.loadDocument(URI.create(DCP_CONTEXT), new DocumentLoaderOptions());
+        var second = loader.loadDocument(URI.create(DCP_CONTEXT), new DocumentLoaderOptions());
+
+        assertThat(first.getJsonContent().orElseThrow()).isSameAs(second.getJsonContent().orElseThrow());
+    }
+
+    @Test
+    void verifyUnpinnedDocument() {
+        var loader = DcpDocumentLoader.builder().build();
+
+        assertThatExceptionOfType(JsonLdError.class)
+                .isThrownBy(() -> loader.loadDocument(URI.create(CUSTOM_CONTEXT), new DocumentLoaderOptions()));
+        assertThat(loader.missCount()).isEqualTo(1);
+        assertThat(loader.isPinned(CUSTOM_CONTEXT)).isFalse();
+    }
+
+    @Test
+    void verifyCustomContextAndFallback() throws JsonLdError {
+        var custom = Json.createObjectBuilder().add("@context", Json.createObjectBuilder().add("foo", "https://example.com/foo")).build();
+        var fallbackDocument = JsonDocument.of(Json.createObjectBuilder().build());
+        var loader = DcpDocumentLoader.builder()
+                .context(CUSTOM_CONTEXT, custom)
+                .fallback((url, options) -> fallbackDocument)
+                .build();
+
+        assertThat(loader.loadDocument(URI.create(CUSTOM_CONTEXT), new DocumentLoaderOptions()).getJsonContent()).hasValue(custom);
+        assertThat(loader.loadDocument(URI.create("https://example.com/other.jsonld"), new DocumentLoaderOptions())).isSameAs(fallbackDocument);
+        assertThat(loader.hitCount()).isEqualTo(1);
+        assertThat(loader.missCount()).isEqualTo(1);
+    }
+}
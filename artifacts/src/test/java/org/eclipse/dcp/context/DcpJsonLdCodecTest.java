@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.JsonDocument;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static com.apicatalog.jsonld.JsonLd.compact;
+import static com.apicatalog.jsonld.JsonLd.expand;
+import static com.apicatalog.jsonld.lang.Keywords.CONTEXT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the fast path produces the same results as the generic JSON-LD processor.
+ */
+public class DcpJsonLdCodecTest {
+
+    private DcpJsonLdCodec codec;
+    private JsonLdOptions options;
+
+    @BeforeEach
+    void setUp() {
+        codec = new DcpJsonLdCodec();
+        options = new JsonLdOptions();
+        options.setDocumentLoader(DcpDocumentLoader.getInstance());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/issuance/example/credential-message.json",
+            "/issuance/example/credential-message-rejected.json",
+            "/issuance/example/credential-object.json",
+            "/issuance/example/credential-offer-message.json",
+            "/issuance/example/credential-request-message.json",
+            "/issuance/example/credential-status.json",
+            "/issuance/example/issuer-metadata.json",
+            "/presentation/example/presentation-query-message.json",
+            "/presentation/example/presentation-query-message-w-presentation-definition.json",
+            "/presentation/example/presentation-response-message.json",
+            "/presentation/example/presentation-response-message-w-presentation-submission.json"
+    })
+    void verifyBundledExamples(String exampleFile) throws IOException, JsonLdError {
+        try (var stream = getClass().getResourceAsStream(exampleFile); var reader = Json.createReader(stream)) {
+            verifySameAsGenericProcessor(reader.readObject());
+        }
+        assertThat(codec.fastPathCount()).isEqualTo(2);
+        assertThat(codec.fallbackCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "RECEIVED", "REJECTED", "ISSUED" })
+    void verifyVocabularyValues(String status) throws JsonLdError {
+        verifySameAsGenericProcessor(parse("""
+                {
+                  "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+                  "type": "CredentialStatus",
+                  "issuerPid": "issuerPid",
+                  "holderPid": "did:web:holder",
+                  "status": "%s"
+                }""".formatted(status)));
+        assertThat(codec.fallbackCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // additional context
+            """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld", {"ex": "https://example.com/"}],
+              "type": "CredentialStatus",
+              "issuerPid": "issuerPid",
+              "holderPid": "holderPid",
+              "status": "RECEIVED"
+            }""",
+            // term outside the DCP context
+            """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialStatus",
+              "issuerPid": "issuerPid",
+              "holderPid": "holderPid",
+              "status": "RECEIVED",
+              "unknown": "value"
+            }""",
+            // value that is not a vocabulary term
+            """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialStatus",
+              "issuerPid": "issuerPid",
+              "holderPid": "holderPid",
+              "status": "dcp:UNKNOWN"
+            }""",
+            // compact IRI as identifier
+            """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialMessage",
+              "issuerPid": "dcp:issuerPid",
+              "status": "ISSUED"
+            }"""
+    })
+    void verifyFallback(String message) throws JsonLdError {
+        verifySameAsGenericProcessor(parse(message));
+
+        assertThat(codec.fallbackCount()).isPositive();
+    }
+
+    private void verifySameAsGenericProcessor(JsonObject message) throws JsonLdError {
+        var expected = expand(JsonDocument.of(message)).options(options).get();
+        var expanded = codec.expand(message);
+        assertThat(expanded).isEqualTo(expected);
+
+        var contextDocument = Json.createObjectBuilder().add(CONTEXT, message.get(CONTEXT)).build();
+        var expectedCompacted = compact(JsonDocument.of(expected), JsonDocument.of(contextDocument)).options(options).get();
+        assertThat(codec.compact(expected, message.get(CONTEXT))).isEqualTo(expectedCompacted);
+    }
+
+    private JsonObject parse(String json) {
+        try (var reader = Json.createReader(new StringReader(json))) {
+            return reader.readObject();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.http.HttpClient;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.dcp.did.VerificationMethod.AUTHENTICATION;
+import static org.eclipse.dcp.did.VerificationMethod.CAPABILITY_INVOCATION;
+
+public class DidResolutionCacheTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private final DidWebServer server = new DidWebServer();
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private final DidResolutionCache cache = DidResolutionCache.builder(new DidWebResolver(HttpClient.newHttpClient(), new ObjectMapper(), "http"))
+            .ttl(Duration.ofMinutes(5))
+            .negativeTtl(Duration.ofSeconds(30))
+            .clock(clock)
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void verifyVerificationMethodIndex() throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        var ecKey = (ECPublicKey) generator.generateKeyPair().getPublic();
+        var edKey = (EdECPublicKey) KeyPairGenerator.getInstance("Ed25519").generateKeyPair().getPublic();
+        var did = server.did("holder");
+        server.publish("holder", """
+                {
+                  "id": "%1$s",
+                  "verificationMethod": [
+                    {
+                      "id": "#key-1",
+                      "type": "JsonWebKey2020",
+                      "controller": "%1$s",
+                      "publicKeyJwk": {"kty": "EC", "crv": "P-256", "x": "%2$s", "y": "%3$s"}
+                    }
+                  ],
+                  "authentication": ["%1$s#key-1"],
+                  "capabilityInvocation": [
+                    "#key-1",
+                    {
+                      "id": "%1$s#key-2",
+                      "type": "JsonWebKey2020",
+                      "controller": "%1$s",
+                      "publicKeyJwk": {"kty": "OKP", "crv": "Ed25519", "x": "%4$s"}
+                    }
+                  ],
+                  "service": [{"id": "#cs", "type": "CredentialService", "serviceEndpoint": "https://cs.example.com"}]
+                }""".formatted(did, coordinate(ecKey.getW().getAffineX()), coordinate(ecKey.getW().getAffineY()), encode(edKey)));
+
+        var ecMethod = cache.verificationMethod(did + "#key-1", AUTHENTICATION).join();
+        assertThat(ecMethod.publicKey().getEncoded()).isEqualTo(ecKey.getEncoded());
+        assertThat(ecMethod.relationships()).containsExactlyInAnyOrder(AUTHENTICATION, CAPABILITY_INVOCATION);
+
+        var edMethod = cache.verificationMethod(did + "#key-2", CAPABILITY_INVOCATION).join();
+        assertThat(edMethod.publicKey().getEncoded()).isEqualTo(edKey.getEncoded());
+
+        assertThatThrownBy(() -> cache.verificationMethod(did + "#key-2", AUTHENTICATION).join()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> cache.verificationMethod(did + "#key-3", AUTHENTICATION).join()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.resolve(did).join().serviceEndpoint("CredentialService")).isEqualTo("https://cs.example.com");
+        assertThat(server.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyConcurrentResolutionsAreCoalesced() {
+        server.publish("", "{\"id\": \"%s\"}".formatted(server.did("")));
+        server.delay(200);
+
+        var futures = new ArrayList<CompletableFuture<DidDocument>>();
+        for (var i = 0; i < 20; i++) {
+            futures.add(cache.resolve(server.did("")));
+        }
+
+        assertThat(futures).extracting(CompletableFuture::join).extracting(DidDocument::id).containsOnly(server.did(""));
+        assertThat(server.requestCount()).isEqualTo(1);
+        assertThat(cache.resolutionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyTtl() {
+        var did = server.did("issuer");
+        server.publish("issuer", "{\"id\": \"%s\"}".formatted(did));
+
+        cache.resolve(did).join();
+        now.set(NOW.plus(Duration.ofMinutes(4)));
+        cache.resolve(did).join();
+        assertThat(server.requestCount()).isEqualTo(1);
+
+        now.set(NOW.plus(Duration.ofMinutes(6)));
+        cache.resolve(did).join();
+        assertThat(server.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyNegativeCaching() {
+        var did = server.did("unknown");
+
+        assertThatThrownBy(() -> cache.resolve(did).join()).hasCauseInstanceOf(IOException.class);
+        assertThatThrownBy(() -> cache.resolve(did).join()).hasCauseInstanceOf(IOException.class);
+        assertThat(server.requestCount()).isEqualTo(1);
+
+        server.publish("unknown", "{\"id\": \"%s\"}".formatted(did));
+        now.set(NOW.plusSeconds(31));
+        assertThat(cache.resolve(did).join().id()).isEqualTo(did);
+        assertThat(server.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyDocumentIdMismatch() {
+        var did = server.did("victim");
+        server.publish("victim", "{\"id\": \"%s\"}".formatted(server.did("attacker")));
+
+        assertThatThrownBy(() -> cache.resolve(did).join()).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.verificationMethod(did + "#key-1", AUTHENTICATION).join()).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(server.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyResolverRunsOutsideCacheEntryLock() {
+        var did = "did:web:example.com";
+        var reentrant = new AtomicReference<DidResolutionCache>();
+        var nested = new AtomicReference<CompletableFuture<DidDocument>>();
+        reentrant.set(DidResolutionCache.builder(requested -> {
+            // a resolver calling back into the cache would fail with a recursive update if it ran inside compute
+            nested.set(reentrant.get().resolve(requested));
+            return CompletableFuture.completedFuture(new ObjectMapper().createObjectNode().put("id", requested));
+        }).clock(clock).build());
+
+        assertThat(reentrant.get().resolve(did).join().id()).isEqualTo(did);
+        assertThat(nested.get().join().id()).isEqualTo(did);
+        assertThat(reentrant.get().resolutionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyMultibaseKey() {
+        var document = new ObjectMapper().createObjectNode().put("id", "did:key:z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK");
+        document.putArray("verificationMethod").addObject()
+                .put("id", "#z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK")
+                .put("type", "Multikey")
+                .put("publicKeyMultibase", "z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK");
+
+        var method = DidDocument.parse(document).verificationMethod("#z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK");
+
+        assertThat(method.publicKey()).isInstanceOf(EdECPublicKey.class);
+        assertThat(method.controller()).isEqualTo("did:key:z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK");
+        assertThat(method.relationships()).isEmpty();
+    }
+
+    @Test
+    void verifyDidWebUrls() {
+        var resolver = new DidWebResolver(HttpClient.newHttpClient(), new ObjectMapper());
+
+        assertThat(resolver.documentUrl("did:web:w3c-ccg.github.io").toString()).isEqualTo("https://w3c-ccg.github.io/.well-known/did.json");
+        assertThat(resolver.documentUrl("did:web:w3c-ccg.github.io:user:alice").toString()).isEqualTo("https://w3c-ccg.github.io/user/alice/did.json");
+        assertThat(resolver.documentUrl("did:web:example.com%3A3000").toString()).isEqualTo("https://example.com:3000/.well-known/did.json");
+        assertThat(resolver.documentUrl("did:web:example.com%3a3000:user").toString()).isEqualTo("https://example.com:3000/user/did.json");
+
+        // only the port separator is decoded, so that a DID cannot redirect the request to another host, path or query
+        for (var did : List.of("did:web:victim.com%40evil.com", "did:web:victim.com@evil.com", "did:web:evil.com%2Fvictim.com",
+                "did:web:evil.com%3Fvictim.com", "did:web:evil.com?victim.com", "did:web:evil.com#victim.com", "did:web:%65vil.com",
+                "did:web::user")) {
+            assertThatIllegalArgumentException().describedAs(did).isThrownBy(() -> resolver.documentUrl(did));
+        }
+    }
+
+    private static String coordinate(BigInteger value) {
+        var bytes = value.toByteArray();
+        var unsigned = new byte[32];
+        var length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, unsigned, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private static String encode(EdECPublicKey key) {
+        var y = key.getPoint().getY().toByteArray();
+        var encoded = new byte[32];
+        for (var i = 0; i < Math.min(y.length, 32); i++) {
+            encoded[i] = y[y.length - 1 - i];
+        }
+        if (key.getPoint().isXOdd()) {
+            encoded[31] |= (byte) 0x80;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(encoded, 32));
+    }
+}
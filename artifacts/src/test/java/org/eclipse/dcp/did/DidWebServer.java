@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.did;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for a {@code did:web} host, serving DID documents over HTTP.
+ */
+public class DidWebServer implements AutoCloseable {
+    private final HttpServer server;
+    private final Map<String, byte[]> documents = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long delayMillis;
+
+    public DidWebServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var document = documents.get(exchange.getRequestURI().getPath());
+            if (document == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.getResponseHeaders().add("Content-Type", "application/did+json");
+                exchange.sendResponseHeaders(200, document.length);
+                exchange.getResponseBody().write(document);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Returns the {@code did:web} DID of a path on this server, e.g. {@code did:web:127.0.0.1%3A8080:user:alice} for
+     * {@code user:alice}, or the DID of the host for an empty path.
+     */
+    public String did(String path) {
+        var host = "did:web:127.0.0.1%3A" + server.getAddress().getPort();
+        return path.isEmpty() ? host : host + ":" + path;
+    }
+
+    /**
+     * Serves a DID document for the DID of a path.
+     */
+    public void publish(String path, String document) {
+        var urlPath = path.isEmpty() ? "/.well-known/did.json" : "/" + path.replace(':', '/') + "/did.json";
+        documents.put(urlPath, document.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Delays every response, so that concurrent requests overlap.
+     */
+    public void delay(long millis) {
+        delayMillis = millis;
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.issuance;
+
+import org.eclipse.dcp.message.CredentialStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.eclipse.dcp.message.CredentialRequestStatus.ISSUED;
+import static org.eclipse.dcp.message.CredentialRequestStatus.RECEIVED;
+import static org.eclipse.dcp.message.CredentialRequestStatus.REJECTED;
+
+public class CredentialRequestStatusStoreTest {
+
+    @Test
+    void verifyTransitions() {
+        var store = CredentialRequestStatusStore.builder().build();
+
+        assertThat(store.register("issuer-1", "holder-1")).isTrue();
+        assertThat(store.register("issuer-1", "holder-2")).isFalse();
+        assertThat(store.status("issuer-1").status()).isEqualTo(RECEIVED);
+
+        assertThat(store.issue("issuer-1")).isTrue();
+        assertThat(store.reject("issuer-1")).isFalse();
+        assertThat(store.issue("issuer-1")).isFalse();
+        assertThat(store.issue("unknown")).isFalse();
+
+        var status = store.status("issuer-1");
+        assertThat(status.status()).isEqualTo(ISSUED);
+        assertThat(status.holderPid()).isEqualTo("holder-1");
+        assertThat(status.context()).containsExactly("https://w3id.org/dspace-dcp/v1.0/dcp.jsonld");
+        assertThat(store.status("unknown")).isNull();
+    }
+
+    @Test
+    void verifyInvalidTransitions() {
+        var store = CredentialRequestStatusStore.builder().build();
+        store.register("issuer-1", "holder-1");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> store.transition("issuer-1", ISSUED, REJECTED));
+        assertThatIllegalArgumentException().isThrownBy(() -> store.transition("issuer-1", RECEIVED, RECEIVED));
+        assertThatIllegalArgumentException().isThrownBy(() -> store.register("x".repeat(125), "holder-1"));
+    }
+
+    @Test
+    void verifyHolderPidIndex() {
+        var store = CredentialRequestStatusStore.builder().build();
+        store.register("issuer-1", "holder-1");
+        store.register("issuer-2", "holder-1");
+        store.register("issuer-3", "holder-2");
+        store.reject("issuer-2");
+
+        assertThat(store.statusByHolderPid("holder-1")).extracting(CredentialStatus::issuerPid)
+                .containsExactlyInAnyOrder("issuer-1", "issuer-2");
+        assertThat(store.statusByHolderPid("holder-1")).extracting(CredentialStatus::status)
+                .containsExactlyInAnyOrder(RECEIVED, REJECTED);
+        assertThat(store.statusByHolderPid("unknown")).isEmpty();
+    }
+
+    @Test
+    void verifyConcurrentTransitions() throws Exception {
+        var store = CredentialRequestStatusStore.builder().build();
+        for (var i = 0; i < 1_000; i++) {
+            store.register("issuer-" + i, "holder-" + i);
+        }
+
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Integer>>();
+            for (var t = 0; t < 8; t++) {
+                var issue = t % 2 == 0;
+                tasks.add(() -> {
+                    var won = 0;
+                    for (var i = 0; i < 1_000; i++) {
+                        if (issue ? store.issue("issuer-" + i) : store.reject("issuer-" + i)) {
+                            won++;
+                        }
+                    }
+                    return won;
+                });
+            }
+            var total = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                total += result.get();
+            }
+            assertThat(total).isEqualTo(1_000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void verifyReplay(@TempDir Path directory) {
+        var file = directory.resolve("status.log");
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).segmentRecords(4).build()) {
+            for (var i = 0; i < 10; i++) {
+                store.register("issuer-" + i, "holder-" + i);
+            }
+            store.issue("issuer-1");
+            store.reject("issuer-2");
+        }
+
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).segmentRecords(4).build()) {
+            assertThat(store.size()).isEqualTo(10);
+            assertThat(store.status("issuer-0").status()).isEqualTo(RECEIVED);
+            assertThat(store.status("issuer-1").status()).isEqualTo(ISSUED);
+            assertThat(store.status("issuer-2").status()).isEqualTo(REJECTED);
+            assertThat(store.statusByHolderPid("holder-9")).hasSize(1);
+
+            // appends continue after the replayed records
+            assertThat(store.issue("issuer-0")).isTrue();
+        }
+
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).segmentRecords(4).build()) {
+            assertThat(store.status("issuer-0").status()).isEqualTo(ISSUED);
+        }
+    }
+
+    @Test
+    void verifyIncompleteRecordIsSkipped(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("status.log");
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).build()) {
+            store.register("issuer-1", "holder-1");
+            store.register("issuer-2", "holder-2");
+            store.issue("issuer-1");
+        }
+        // corrupt the second record, i.e. the registration of issuer-2, as if its write had been interrupted
+        try (var channel = FileChannel.open(file, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), 2 * 256 + 8);
+        }
+
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).build()) {
+            assertThat(store.status("issuer-1").status()).isEqualTo(ISSUED);
+            assertThat(store.status("issuer-2")).isNull();
+        }
+    }
+
+    @Test
+    void verifyStatusCodes(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("status.log");
+        try (var store = CredentialRequestStatusStore.builder().persistTo(file).build()) {
+            store.register("issuer-1", "holder-1");
+            store.register("issuer-2", "holder-2");
+            store.reject("issuer-1");
+            store.issue("issuer-2");
+        }
+
+        // the status codes are part of the file format and must not follow the declaration order of the enum
+        var bytes = Files.readAllBytes(file);
+        assertThat(new byte[]{bytes[256 + 4], bytes[2 * 256 + 4], bytes[3 * 256 + 4], bytes[4 * 256 + 4]})
+                .containsExactly(1, 1, 2, 3);
+    }
+
+    @Test
+    void verifyMismatchedLog(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("status.log");
+        CredentialRequestStatusStore.builder().persistTo(file).segmentRecords(4).build().close();
+
+        assertThatIllegalStateException().isThrownBy(() -> CredentialRequestStatusStore.builder().persistTo(file).build());
+
+        var other = Files.write(directory.resolve("other.log"), new byte[]{1, 2, 3, 4});
+        assertThatIllegalStateException().isThrownBy(() -> CredentialRequestStatusStore.builder().persistTo(other).build());
+    }
+}
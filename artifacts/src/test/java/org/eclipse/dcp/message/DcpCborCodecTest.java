@@ -0,0 +1,178 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DcpCborCodecTest {
+
+    private final DcpCborCodec codec = new DcpCborCodec();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/presentation/example/presentation-query-message.json",
+            "/presentation/example/presentation-query-message-w-presentation-definition.json",
+            "/presentation/example/presentation-response-message.json",
+            "/presentation/example/presentation-response-message-w-presentation-submission.json",
+            "/issuance/example/credential-request-message.json",
+            "/issuance/example/credential-message.json",
+            "/issuance/example/credential-message-rejected.json",
+            "/issuance/example/credential-offer-message.json",
+            "/issuance/example/credential-object.json",
+            "/issuance/example/credential-status.json",
+            "/issuance/example/issuer-metadata.json"
+    })
+    void verifyExampleRoundTrip(String exampleFile) throws IOException {
+        var json = read(exampleFile);
+
+        var cbor = codec.encode(json);
+
+        assertThat(mapper.readTree(codec.decode(cbor))).isEqualTo(mapper.readTree(json));
+        assertThat(cbor.length).isLessThan(mapper.readTree(json).toString().length());
+    }
+
+    @Test
+    void verifyTermsAreCompact() throws IOException {
+        var json = mapper.readTree(read("/issuance/example/credential-status.json")).toString();
+
+        var cbor = codec.encode(json);
+
+        // the context, type and status value and all member names are single bytes
+        assertThat(cbor.length).isLessThan(json.length() / 2);
+    }
+
+    @Test
+    void verifyLosslessValues() throws IOException {
+        var json = """
+                {
+                  "1": 1,
+                  "@context": "not the DCP context",
+                  "numbers": [0, 23, 24, 255, 256, 65536, -1, -24, -25, 9223372036854775807, -9223372036854775808,
+                              18446744073709551615, -18446744073709551616, 123456789012345678901234567890,
+                              -123456789012345678901234567890, 1.5, -0.001, 1e400, 3.141592653589793238462643383279],
+                  "strings": ["", "ISSUED", "issued", "https://w3id.org/dspace-dcp/v1.0/dcp.jsonld", "\\u00e9\\ud83d\\ude00"],
+                  "literals": [true, false, null],
+                  "nested": {"type": [{"id": {}}], "empty": []}
+                }""";
+
+        var decoded = codec.decode(codec.encode(json));
+
+        assertThat(mapper.readTree(decoded)).isEqualTo(mapper.readTree(json));
+    }
+
+    @Test
+    void verifyScalarMessage() {
+        assertThat(codec.decode(codec.encode("\"RECEIVED\""))).isEqualTo("\"RECEIVED\"");
+    }
+
+    @Test
+    void verifyStreamingDecodeOfConcatenatedMessages() throws IOException {
+        var first = "{\"type\":\"CredentialStatus\",\"status\":\"RECEIVED\"}";
+        var second = "{\"type\":\"CredentialStatus\",\"status\":\"ISSUED\"}";
+        var log = new ByteArrayOutputStream();
+        codec.encode(new ByteArrayInputStream(first.getBytes(StandardCharsets.UTF_8)), log);
+        codec.encode(new ByteArrayInputStream(second.getBytes(StandardCharsets.UTF_8)), log);
+
+        var in = new ByteArrayInputStream(log.toByteArray());
+        var out = new ByteArrayOutputStream();
+        codec.decode(in, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(first);
+
+        out.reset();
+        codec.decode(in, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(second);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    void verifyInvalidInput() {
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.encode("{\"type\": "));
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.encode("{} {}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.decode(new byte[]{(byte) 0xbf, (byte) 0xff}));
+
+        var cbor = codec.encode("{\"issuerPid\": \"issuer\"}");
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(cbor, cbor.length - 1))).hasCauseInstanceOf(EOFException.class);
+
+        var unknownKey = cbor.clone();
+        unknownKey[4] = 0x17;
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.decode(unknownKey)).withMessageContaining("key code");
+    }
+
+    @Test
+    void verifyTermTableCoversContext() throws IOException {
+        JsonNode context;
+        try (var stream = getClass().getResourceAsStream("/context/dcp.jsonld")) {
+            context = mapper.readTree(stream).get("@context");
+        }
+        var properties = new HashSet<String>();
+        var values = new HashSet<String>();
+        collectTerms(context, properties, values);
+
+        assertThat(CborTerms.KEYS).containsAll(properties).doesNotHaveDuplicates();
+        assertThat(CborTerms.VALUES).containsAll(values).doesNotHaveDuplicates().hasSizeLessThanOrEqualTo(CborTerms.MAX_VALUES);
+    }
+
+    /**
+     * Property terms are defined in type-scoped contexts; type terms and vocabulary values are defined as plain IRIs or as
+     * types with a scoped context.
+     */
+    private static void collectTerms(JsonNode context, Set<String> properties, Set<String> values) {
+        context.properties().forEach(entry -> {
+            var term = entry.getKey();
+            var definition = entry.getValue();
+            if (term.startsWith("@") || definition.isTextual() && definition.textValue().startsWith("http")) {
+                return;
+            }
+            if (definition.has("@context")) {
+                values.add(term);
+                definition.get("@context").properties().forEach(scoped -> {
+                    if (scoped.getValue().isTextual()) {
+                        values.add(scoped.getKey());
+                    } else {
+                        properties.add(scoped.getKey());
+                    }
+                });
+            } else if (definition.isTextual() && !definition.textValue().startsWith("@")) {
+                values.add(term);
+            } else {
+                properties.add(term);
+            }
+        });
+    }
+
+    private String read(String resource) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.OutputFormat;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OBJECT;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+import static org.eclipse.dcp.schema.DcpMessageType.ISSUER_METADATA;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * Verifies that the codec accepts exactly the messages the JSON schemas accept, using the examples and systematic mutations
+ * of them: every member and element is removed or replaced by values of each JSON type.
+ */
+public class DcpMessageCodecConformanceTest {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final List<Supplier<JsonNode>> REPLACEMENTS = List.of(
+            () -> NODES.numberNode(42),
+            () -> NODES.textNode("x"),
+            () -> NODES.booleanNode(true),
+            NODES::nullNode,
+            NODES::arrayNode,
+            NODES::objectNode,
+            () -> NODES.arrayNode().add("x"));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final DcpSchemaRegistry registry = new DcpSchemaRegistry();
+    private final DcpMessageCodec codec = new DcpMessageCodec(mapper, registry);
+
+    private static Stream<Arguments> examples() {
+        return Stream.of(
+                Arguments.of("/presentation/example/presentation-query-message.json", PRESENTATION_QUERY_MESSAGE),
+                Arguments.of("/presentation/example/presentation-query-message-w-presentation-definition.json", PRESENTATION_QUERY_MESSAGE),
+                Arguments.of("/presentation/example/presentation-response-message.json", PRESENTATION_RESPONSE_MESSAGE),
+                Arguments.of("/presentation/example/presentation-response-message-w-presentation-submission.json", PRESENTATION_RESPONSE_MESSAGE),
+                Arguments.of("/issuance/example/credential-request-message.json", CREDENTIAL_REQUEST_MESSAGE),
+                Arguments.of("/issuance/example/credential-message.json", CREDENTIAL_MESSAGE),
+                Arguments.of("/issuance/example/credential-message-rejected.json", CREDENTIAL_MESSAGE),
+                Arguments.of("/issuance/example/credential-offer-message.json", CREDENTIAL_OFFER_MESSAGE),
+                Arguments.of("/issuance/example/credential-object.json", CREDENTIAL_OBJECT),
+                Arguments.of("/issuance/example/credential-status.json", CREDENTIAL_STATUS),
+                Arguments.of("/issuance/example/issuer-metadata.json", ISSUER_METADATA)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void verifyRoundTrip(String exampleFile, DcpMessageType type) throws IOException {
+        var example = read(exampleFile);
+
+        var message = codec.read(example);
+        assertThat(message.messageType()).isEqualTo(type);
+
+        var written = codec.write(message);
+        assertThat(isSchemaValid(mapper.readTree(written), type)).describedAs(written).isTrue();
+        assertThat(codec.read(written, message.getClass())).isEqualTo(message);
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void verifyMutationsAgreeWithSchema(String exampleFile, DcpMessageType type) throws IOException {
+        var example = mapper.readTree(read(exampleFile));
+        var messageClass = codec.read(example.toString()).getClass();
+
+        var mutations = new ArrayList<JsonNode>();
+        mutate(example, example, mutations::add);
+        assertThat(mutations).isNotEmpty();
+
+        for (var mutation : mutations) {
+            var schemaValid = isSchemaValid(mutation, type);
+            assertThat(accepts(mutation.toString(), messageClass)).describedAs(mutation.toString()).isEqualTo(schemaValid);
+        }
+    }
+
+    @Test
+    void verifyErrorPointer() {
+        var message = """
+                {
+                  "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+                  "type": "CredentialOfferMessage",
+                  "issuer": "did:web:issuer",
+                  "credentials": [{"id": "1", "type": "CredentialObject"}, {"id": 2, "type": "CredentialObject"}]
+                }""";
+
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.read(message)).withMessageStartingWith("/credentials/1/id");
+    }
+
+    @Test
+    void verifyNonDcpMessage() {
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.read("{\"type\": \"UnknownMessage\"}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.read("[]"));
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.read("{\"type\": "));
+        assertThatIllegalArgumentException().isThrownBy(() -> codec.read("""
+                {"@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"], "type": "CredentialStatus",
+                 "issuerPid": "i", "holderPid": "h", "status": "ISSUED"} {}"""));
+    }
+
+    /**
+     * Collects a copy of the root for every removal and replacement of a value below the given node.
+     */
+    private static void mutate(JsonNode root, JsonNode node, Consumer<JsonNode> mutations) {
+        if (node instanceof ObjectNode object) {
+            var names = new ArrayList<String>();
+            object.fieldNames().forEachRemaining(names::add);
+            for (var name : names) {
+                var original = object.get(name);
+                object.remove(name);
+                mutations.accept(root.deepCopy());
+                for (var replacement : REPLACEMENTS) {
+                    object.set(name, replacement.get());
+                    mutations.accept(root.deepCopy());
+                }
+                object.set(name, original);
+                mutate(root, original, mutations);
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (var i = 0; i < array.size(); i++) {
+                var original = array.get(i);
+                for (var replacement : REPLACEMENTS) {
+                    array.set(i, replacement.get());
+                    mutations.accept(root.deepCopy());
+                }
+                array.set(i, original);
+                mutate(root, original, mutations);
+            }
+        }
+    }
+
+    private boolean isSchemaValid(JsonNode message, DcpMessageType type) {
+        return registry.getSchema(type).validate(message, OutputFormat.BOOLEAN);
+    }
+
+    private boolean accepts(String message, Class<? extends DcpMessage> type) {
+        try {
+            codec.read(message, type);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String read(String resource) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.metrics;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.eclipse.dcp.context.DcpDocumentLoader;
+import org.eclipse.dcp.context.DcpJsonLdCodec;
+import org.eclipse.dcp.schema.DcpMessageValidator;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+import static org.eclipse.dcp.schema.SchemaConstants.ODRL_CONTEXT;
+
+public class InMemoryDcpMetricsTest {
+
+    private static final String CREDENTIAL_STATUS_MESSAGE = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialStatus",
+              "issuerPid": "issuerPid",
+              "holderPid": "did:web:holder",
+              "status": "RECEIVED"
+            }""";
+
+    private final InMemoryDcpMetrics metrics = new InMemoryDcpMetrics();
+
+    @Test
+    void verifyHistogramPercentiles() {
+        var histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(0.99)).isEqualTo(0L);
+
+        IntStream.rangeClosed(1, 1000).parallel().forEach(i -> histogram.record(i * 1_000L));
+
+        assertThat(histogram.count()).isEqualTo(1000L);
+        assertThat(histogram.maxNanos()).isEqualTo(1_000_000L);
+        assertThat(histogram.totalNanos()).isEqualTo(500_500_000L);
+        assertThat(histogram.percentile(0.5)).isBetween(500_000L, 562_500L);
+        assertThat(histogram.percentile(0.99)).isBetween(990_000L, 1_000_000L);
+        assertThat(histogram.percentile(1)).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    void verifyBucketBounds() {
+        for (var value : new long[]{0, 7, 8, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            var bound = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+            assertThat(bound).isGreaterThanOrEqualTo(value);
+            assertThat(bound - value).isLessThanOrEqualTo(value / 8);
+        }
+    }
+
+    @Test
+    void verifyValidationMetrics() {
+        var validator = new DcpMessageValidator(new DcpSchemaRegistry(), metrics);
+
+        validator.validate(CREDENTIAL_STATUS_MESSAGE);
+        validator.validate("""
+                {
+                  "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+                  "type": "CredentialStatus"
+                }""");
+        validator.isValid("{\"@context\": [\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"], \"type\": \"PresentationQueryMessage\"}");
+
+        assertThat(metrics.validationLatency(CREDENTIAL_STATUS).count()).isEqualTo(2L);
+        assertThat(metrics.invalidCount(CREDENTIAL_STATUS)).isEqualTo(1L);
+        assertThat(metrics.errorCount("required")).isEqualTo(3L);
+        assertThat(metrics.errorCounts()).containsKey("required");
+        assertThat(metrics.validationLatency(PRESENTATION_QUERY_MESSAGE).count()).isEqualTo(1L);
+        assertThat(metrics.invalidCount(PRESENTATION_QUERY_MESSAGE)).isEqualTo(1L);
+    }
+
+    @Test
+    void verifyJsonLdAndContextMetrics() throws JsonLdError {
+        var loader = DcpDocumentLoader.builder().metrics(metrics).build();
+        var codec = new DcpJsonLdCodec(loader, metrics);
+
+        var expanded = codec.expand(parse(CREDENTIAL_STATUS_MESSAGE));
+        codec.compact(expanded, Json.createArrayBuilder().add(DCP_CONTEXT).build());
+        codec.expand(parse(CREDENTIAL_STATUS_MESSAGE.replace("[\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"]",
+                "[\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\", \"" + ODRL_CONTEXT + "\"]")));
+
+        assertThat(metrics.jsonLdLatency(JsonLdStage.EXPAND, true).count()).isEqualTo(1L);
+        assertThat(metrics.jsonLdLatency(JsonLdStage.COMPACT, true).count()).isEqualTo(1L);
+        assertThat(metrics.jsonLdLatency(JsonLdStage.EXPAND, false).count()).isEqualTo(1L);
+        assertThat(metrics.contextHitCount()).isEqualTo(2L);
+
+        assertThatExceptionOfType(JsonLdError.class)
+                .isThrownBy(() -> loader.loadDocument(URI.create("https://example.com/unknown.jsonld"), new DocumentLoaderOptions()));
+        assertThat(metrics.contextMissCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void verifyNoopIsDisabled() {
+        assertThat(DcpMetrics.NOOP.enabled()).isFalse();
+        assertThat(metrics.enabled()).isTrue();
+    }
+
+    private static JsonObject parse(String json) {
+        try (var reader = Json.createReader(new StringReader(json))) {
+            return reader.readObject();
+        }
+    }
+}
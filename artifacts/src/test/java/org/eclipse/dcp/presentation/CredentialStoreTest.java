@@ -0,0 +1,233 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import org.eclipse.dcp.message.CredentialContainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class CredentialStoreTest {
+
+    private static final String MEMBERSHIP = "MembershipCredential";
+    private static final String ORGANIZATION = "OrganizationCredential";
+
+    @Test
+    void verifyLookups() {
+        try (var store = CredentialStore.builder().build()) {
+            store.add("urn:uuid:1", "did:web:issuer-a", new CredentialContainer("jwt-1", MEMBERSHIP, "jwt"));
+            store.add("urn:uuid:2", "did:web:issuer-b", new CredentialContainer("{\"id\": \"urn:uuid:2\"}", ORGANIZATION, "json-ld"));
+            store.add(null, "did:web:issuer-a", new CredentialContainer("jwt-3", MEMBERSHIP, "jwt"));
+
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.byType(MEMBERSHIP)).extracting(StoredCredential::payload).containsExactly("jwt-1", "jwt-3");
+            assertThat(store.byIssuer("did:web:issuer-a")).hasSize(2);
+            assertThat(store.byFormat("json-ld")).extracting(StoredCredential::id).containsExactly("urn:uuid:2");
+            assertThat(store.byType("Unknown")).isEmpty();
+
+            var credential = store.byId("urn:uuid:2");
+            assertThat(credential.issuer()).isEqualTo("did:web:issuer-b");
+            assertThat(credential.container()).isEqualTo(new CredentialContainer("{\"id\": \"urn:uuid:2\"}", ORGANIZATION, "json-ld"));
+            assertThat(store.byId("urn:uuid:3")).isNull();
+            assertThat(store.byType(MEMBERSHIP).get(1).id()).isNull();
+        }
+    }
+
+    @Test
+    void verifyScopes() {
+        try (var store = CredentialStore.builder().build()) {
+            store.add("urn:uuid:1", null, new CredentialContainer("jwt-1", MEMBERSHIP, "jwt"));
+            store.add("urn:uuid:2", null, new CredentialContainer("jwt-2", ORGANIZATION, "jwt"));
+
+            assertThat(store.resolve(Scope.parse("org.eclipse.dspace.dcp.vc.type:MembershipCredential")))
+                    .extracting(StoredCredential::payload).containsExactly("jwt-1");
+            assertThat(store.resolve(Scope.parse("org.eclipse.dspace.dcp.vc.id:urn:uuid:2")))
+                    .extracting(StoredCredential::payload).containsExactly("jwt-2");
+            assertThat(store.resolve(Scope.parse("other:MembershipCredential"))).isEmpty();
+
+            var scopes = Scope.parseAll(List.of("org.eclipse.dspace.dcp.vc.id:urn:uuid:2",
+                    "org.eclipse.dspace.dcp.vc.type:OrganizationCredential", "org.eclipse.dspace.dcp.vc.type:MembershipCredential"));
+            assertThat(store.resolve(scopes)).extracting(StoredCredential::payload).containsExactly("jwt-2", "jwt-1");
+        }
+    }
+
+    @Test
+    void verifyRemove() {
+        try (var store = CredentialStore.builder().build()) {
+            store.add("urn:uuid:1", null, new CredentialContainer("jwt-1", MEMBERSHIP, "jwt"));
+            assertThatIllegalArgumentException().isThrownBy(() ->
+                    store.add("urn:uuid:1", null, new CredentialContainer("jwt-2", MEMBERSHIP, "jwt")));
+
+            assertThat(store.remove("urn:uuid:1")).isTrue();
+            assertThat(store.remove("urn:uuid:1")).isFalse();
+            assertThat(store.byId("urn:uuid:1")).isNull();
+            assertThat(store.byType(MEMBERSHIP)).isEmpty();
+            assertThat(store.size()).isZero();
+
+            store.add("urn:uuid:1", null, new CredentialContainer("jwt-2", MEMBERSHIP, "jwt"));
+            assertThat(store.byId("urn:uuid:1").payload()).isEqualTo("jwt-2");
+        }
+    }
+
+    @Test
+    void verifyManyCredentials() {
+        try (var store = CredentialStore.builder().segmentSize(64 * 1024).build()) {
+            for (var i = 0; i < 10_000; i++) {
+                store.add("urn:uuid:" + i, "did:web:issuer-" + i % 7, new CredentialContainer("payload-" + i, "Type" + i % 10, "jwt"));
+            }
+            for (var i = 0; i < 10_000; i += 3) {
+                store.remove("urn:uuid:" + i);
+            }
+
+            assertThat(store.size()).isEqualTo(6_666);
+            assertThat(store.byId("urn:uuid:9998").payload()).isEqualTo("payload-9998");
+            assertThat(store.byId("urn:uuid:9999")).isNull();
+            assertThat(store.byType("Type1")).hasSize(667);
+            assertThat(store.byIssuer("did:web:issuer-3")).allMatch(credential -> credential.issuer().equals("did:web:issuer-3"));
+        }
+    }
+
+    @Test
+    void verifyPersistence(@TempDir Path directory) {
+        try (var store = CredentialStore.builder().segmentSize(256).persistTo(directory).build()) {
+            for (var i = 0; i < 20; i++) {
+                store.add("urn:uuid:" + i, "did:web:issuer", new CredentialContainer("payload-" + i, "Type" + i % 2, "jwt"));
+            }
+            store.remove("urn:uuid:4");
+        }
+
+        try (var store = CredentialStore.builder().segmentSize(256).persistTo(directory).build()) {
+            assertThat(store.size()).isEqualTo(19);
+            assertThat(store.byId("urn:uuid:4")).isNull();
+            assertThat(store.byId("urn:uuid:19").payload()).isEqualTo("payload-19");
+            assertThat(store.byType("Type0")).hasSize(9);
+
+            store.add("urn:uuid:20", null, new CredentialContainer("payload-20", "Type0", "jwt"));
+        }
+
+        try (var store = CredentialStore.builder().segmentSize(256).persistTo(directory).build()) {
+            assertThat(store.byId("urn:uuid:20").issuer()).isNull();
+            assertThat(store.size()).isEqualTo(20);
+        }
+    }
+
+    @Test
+    void verifyEmptyFieldsArePersisted(@TempDir Path directory) {
+        try (var store = CredentialStore.builder().persistTo(directory).build()) {
+            store.add("urn:1", "did:web:issuer", new CredentialContainer("payload-1", MEMBERSHIP, ""));
+            store.add("urn:2", "", new CredentialContainer("", "", "jwt"));
+            store.add(null, null, new CredentialContainer("payload-3", MEMBERSHIP, "jwt"));
+            assertThatIllegalArgumentException().isThrownBy(() -> store.add("urn:4", null, new CredentialContainer("payload-4", null, "jwt")));
+        }
+
+        try (var store = CredentialStore.builder().persistTo(directory).build()) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.byFormat("")).extracting(StoredCredential::id).containsExactly("urn:1");
+            assertThat(store.byType("")).extracting(StoredCredential::id).containsExactly("urn:2");
+            assertThat(store.byIssuer("")).extracting(StoredCredential::id).containsExactly("urn:2");
+
+            var second = store.byId("urn:2");
+            assertThat(second.issuer()).isEmpty();
+            assertThat(second.credentialType()).isEmpty();
+            assertThat(second.payload()).isEmpty();
+
+            var third = store.byType(MEMBERSHIP).get(1);
+            assertThat(third.id()).isNull();
+            assertThat(third.issuer()).isNull();
+            assertThat(third.payload()).isEqualTo("payload-3");
+        }
+    }
+
+    @Test
+    void verifyOversizedCredential() {
+        try (var store = CredentialStore.builder().segmentSize(64).build()) {
+            assertThatIllegalArgumentException().isThrownBy(() ->
+                    store.add("urn:uuid:1", null, new CredentialContainer("x".repeat(64), MEMBERSHIP, "jwt")));
+        }
+    }
+
+    @Test
+    void verifyReadsDuringWrites() throws Exception {
+        try (var store = CredentialStore.builder().segmentSize(64 * 1024).build()) {
+            var done = new AtomicBoolean();
+            var failed = new AtomicBoolean();
+            var executor = Executors.newFixedThreadPool(4);
+            for (var t = 0; t < 4; t++) {
+                executor.execute(() -> {
+                    while (!done.get()) {
+                        for (var credential : store.byType(MEMBERSHIP)) {
+                            if (!credential.payload().equals("payload-" + credential.id())) {
+                                failed.set(true);
+                            }
+                        }
+                    }
+                });
+            }
+            for (var i = 0; i < 20_000; i++) {
+                store.add(String.valueOf(i), null, new CredentialContainer("payload-" + i, MEMBERSHIP, "jwt"));
+            }
+            done.set(true);
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(failed).isFalse();
+        }
+    }
+
+    @Test
+    void verifyLookupsDuringWrites() throws Exception {
+        try (var store = CredentialStore.builder().segmentSize(64 * 1024).build()) {
+            var done = new AtomicBoolean();
+            var failures = new AtomicInteger();
+            var executor = Executors.newFixedThreadPool(4);
+            for (var t = 0; t < 4; t++) {
+                executor.execute(() -> {
+                    while (!done.get()) {
+                        // the most recently added credentials are the ones that may be published only in part
+                        for (var credentials : List.of(store.byType(MEMBERSHIP), store.byIssuer("did:web:issuer"), store.byFormat("jwt"))) {
+                            if (credentials.isEmpty()) {
+                                continue;
+                            }
+                            var credential = credentials.get(credentials.size() - 1);
+                            try {
+                                if (!MEMBERSHIP.equals(credential.credentialType()) || !"did:web:issuer".equals(credential.issuer()) ||
+                                        !"jwt".equals(credential.format())) {
+                                    failures.incrementAndGet();
+                                }
+                            } catch (RuntimeException e) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            for (var i = 0; i < 50_000; i++) {
+                store.add(String.valueOf(i), "did:web:issuer", new CredentialContainer("payload-" + i, MEMBERSHIP, "jwt"));
+            }
+            done.set(true);
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(failures).hasValue(0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class JsonPathAccessorTest {
+
+    private static final String CREDENTIAL = """
+            {
+              "type": ["VerifiableCredential", "MembershipCredential"],
+              "credentialSubject": {
+                "memberOf": [{"name": "a"}, {"name": "b"}],
+                "legal name": "Example Corp"
+              }
+            }""";
+
+    @Test
+    void verifySelect() throws IOException {
+        var credential = new ObjectMapper().readTree(CREDENTIAL);
+
+        assertThat(select("$.type", credential)).hasSize(1).first().matches(JsonNode::isArray);
+        assertThat(select("$.type[1]", credential)).extracting(JsonNode::asText).containsExactly("MembershipCredential");
+        assertThat(select("$['type'][*]", credential)).extracting(JsonNode::asText).containsExactly("VerifiableCredential", "MembershipCredential");
+        assertThat(select("$.credentialSubject.memberOf[*].name", credential)).extracting(JsonNode::asText).containsExactly("a", "b");
+        assertThat(select("$.credentialSubject[\"legal name\"]", credential)).extracting(JsonNode::asText).containsExactly("Example Corp");
+        assertThat(select("$.credentialSubject.unknown", credential)).isEmpty();
+        assertThat(select("$.type[5]", credential)).isEmpty();
+        assertThat(JsonPathAccessor.compile("$.type").first(credential)).isSameAs(credential.get("type"));
+    }
+
+    @Test
+    void verifyMemberPath() {
+        assertThat(JsonPathAccessor.compile("$.vc.type").memberPath()).isEqualTo("vc.type");
+        assertThat(JsonPathAccessor.compile("$['type']").memberPath()).isEqualTo("type");
+        assertThat(JsonPathAccessor.compile("$.type[0]").memberPath()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"type", "$..type", "$.type[", "$.type[-1]", "$.type[?(@.x)]", "$."})
+    void verifyUnsupported(String expression) {
+        assertThatIllegalArgumentException().isThrownBy(() -> JsonPathAccessor.compile(expression));
+    }
+
+    private List<JsonNode> select(String expression, JsonNode node) {
+        return JsonPathAccessor.compile(expression).select(node);
+    }
+}
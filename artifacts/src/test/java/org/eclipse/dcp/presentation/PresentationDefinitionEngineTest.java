@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.OutputFormat;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.networknt.schema.SpecVersion.VersionFlag.V7;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class PresentationDefinitionEngineTest {
+
+    private static final String MULTI_DESCRIPTOR_DEFINITION = """
+            {
+              "id": "membership",
+              "input_descriptors": [
+                {
+                  "id": "member",
+                  "constraints": {
+                    "fields": [
+                      {"path": ["$.type", "$.vc.type"], "filter": {"type": "array", "contains": {"const": "MembershipCredential"}}},
+                      {"path": ["$.credentialSubject.status"], "filter": {"type": "string", "enum": ["active"]}},
+                      {"path": ["$.credentialSubject.since"], "optional": true}
+                    ]
+                  }
+                },
+                {
+                  "id": "dismantler",
+                  "constraints": {
+                    "fields": [
+                      {"path": ["$.credentialSubject.licence"]}
+                    ]
+                  }
+                }
+              ]
+            }""";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PresentationDefinitionEngine engine = new PresentationDefinitionEngine();
+
+    @Test
+    void verifyExampleDefinition() throws IOException {
+        var definition = readDefinition();
+        var credentials = CredentialSet.of(List.of(
+                credential("urn:1", "\"MembershipCredential\"", "{}"),
+                credential("urn:2", "\"OrganizationCredential\"", "{}"),
+                credential("urn:3", "[\"VerifiableCredential\", \"OrganizationCredential\"]", "{}")));
+
+        var match = engine.evaluate(definition, credentials);
+
+        assertThat(match.definitionId()).isEqualTo("presentation1");
+        assertThat(match.satisfied()).isTrue();
+        assertThat(match.matches("organization credential")).extracting(node -> node.get("id").asText()).containsExactly("urn:2", "urn:3");
+        assertThat(match.selectedCredentials()).extracting(node -> node.get("id").asText()).containsExactly("urn:2");
+    }
+
+    @Test
+    void verifyPresentationSubmission() throws IOException {
+        var credentials = CredentialSet.of(List.of(
+                credential("urn:1", "[\"VerifiableCredential\", \"MembershipCredential\"]", "{\"status\": \"active\"}"),
+                credential("urn:2", "[\"VerifiableCredential\", \"MembershipCredential\"]", "{\"status\": \"suspended\"}"),
+                credential("urn:3", "[\"VerifiableCredential\", \"DismantlerCredential\"]", "{\"licence\": \"D-1\"}")));
+
+        var match = engine.evaluate(mapper.readTree(MULTI_DESCRIPTOR_DEFINITION), credentials);
+
+        assertThat(match.satisfied()).isTrue();
+        assertThat(match.matches("member")).extracting(node -> node.get("id").asText()).containsExactly("urn:1");
+        assertThat(match.matches("dismantler")).extracting(node -> node.get("id").asText()).containsExactly("urn:3");
+
+        var submission = match.presentationSubmission("submission1", "ldp_vc");
+        assertThat(submission.get("definition_id").asText()).isEqualTo("membership");
+        assertThat(submission.get("descriptor_map")).extracting(node -> node.get("path").asText())
+                .containsExactly("$.verifiableCredential[0]", "$.verifiableCredential[1]");
+
+        var wrapped = mapper.createObjectNode().set("presentation_submission", submission);
+        var schema = new DcpSchemaRegistry().getSchema("https://identity.foundation/presentation-exchange/schemas/presentation-submission.json");
+        assertThat(schema.validate(wrapped)).isEmpty();
+    }
+
+    @Test
+    void verifyUnsatisfied() throws IOException {
+        var credentials = CredentialSet.of(List.of(credential("urn:1", "[\"MembershipCredential\"]", "{\"status\": \"active\"}")));
+
+        var match = engine.evaluate(mapper.readTree(MULTI_DESCRIPTOR_DEFINITION), credentials);
+
+        assertThat(match.satisfied()).isFalse();
+        assertThat(match.matches("dismantler")).isEmpty();
+        assertThat(match.presentationSubmission("submission1", "ldp_vc").get("descriptor_map")).hasSize(1);
+    }
+
+    @Test
+    void verifyTypeIndexMatchesFullScan() throws IOException {
+        var held = new ArrayList<JsonNode>();
+        for (var i = 0; i < 200; i++) {
+            var type = i % 3 == 0 ? "OrganizationCredential" : i % 3 == 1 ? "MembershipCredential" : "SubOrganizationCredentialV2";
+            held.add(credential("urn:" + i, "[\"VerifiableCredential\", \"" + type + "\"]", "{}"));
+        }
+        var credentials = CredentialSet.of(held);
+        var definition = readDefinition();
+
+        var match = engine.evaluate(definition, credentials);
+
+        // a full scan applies the filter to the type of every held credential, or to each of its elements
+        var filter = JsonSchemaFactory.getInstance(V7).getSchema(definition.at("/input_descriptors/0/constraints/fields/0/filter"));
+        var expected = new ArrayList<JsonNode>();
+        for (var credential : held) {
+            var type = credential.get("type");
+            var matches = filter.validate(type, OutputFormat.BOOLEAN);
+            for (var element : type) {
+                matches |= filter.validate(element, OutputFormat.BOOLEAN);
+            }
+            if (matches) {
+                expected.add(credential);
+            }
+        }
+        // the unanchored pattern also matches the types containing the name
+        assertThat(expected).hasSize(133);
+        assertThat(match.matches("organization credential")).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void verifyCompiledDefinitionIsCached() throws IOException {
+        var first = engine.compile(readDefinition());
+        var second = engine.compile(readDefinition());
+
+        assertThat(second).isSameAs(first);
+        assertThat(engine.cachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyMalformedDefinition() throws IOException {
+        assertThatIllegalArgumentException().isThrownBy(() -> engine.compile(mapper.readTree("{\"id\": \"x\"}")));
+        assertThatIllegalArgumentException().isThrownBy(() -> engine.compile(mapper.readTree("""
+                {"id": "x", "input_descriptors": [{"id": "a", "constraints": {"fields": [{"path": ["$..type"]}]}}]}""")));
+    }
+
+    private JsonNode readDefinition() throws IOException {
+        try (var stream = getClass().getResourceAsStream("/presentation/example/presentation-query-message-w-presentation-definition.json")) {
+            return mapper.readTree(stream).get("presentationDefinition");
+        }
+    }
+
+    private JsonNode credential(String id, String type, String subject) throws IOException {
+        return mapper.readTree("{\"id\": \"%s\", \"type\": %s, \"credentialSubject\": %s}".formatted(id, type, subject));
+    }
+}
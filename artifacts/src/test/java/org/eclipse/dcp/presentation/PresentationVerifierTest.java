@@ -0,0 +1,219 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.dcp.did.DidResolutionCache;
+import org.eclipse.dcp.message.PresentationResponseMessage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PresentationVerifierTest {
+
+    private static final String HOLDER = "did:web:holder.example.com";
+    private static final String ISSUER = "did:web:issuer.example.com";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, JsonNode> documents = new ConcurrentHashMap<>();
+    private final DidResolutionCache didCache = DidResolutionCache.builder(did -> {
+        var document = documents.get(did);
+        return document == null ? CompletableFuture.failedFuture(new IllegalStateException("Unknown " + did)) : CompletableFuture.completedFuture(document);
+    }).build();
+    private final PresentationVerifier verifier = PresentationVerifier.builder(didCache).build();
+    private final KeyPair holderKeys = generate();
+    private KeyPair issuerKeys = generate();
+
+    PresentationVerifierTest() {
+        publish(HOLDER, holderKeys, "authentication");
+        publish(ISSUER, issuerKeys, "assertionMethod");
+    }
+
+    @Test
+    void verifyPresentation() {
+        var presentation = presentation(credential("Member"), credential("Audit"), credential("Dismantler"));
+
+        var verified = verifier.verify(presentation).join();
+
+        assertThat(verified.holder()).isEqualTo(HOLDER);
+        assertThat(verified.credentials()).extracting(credential -> credential.path("vc").path("type").get(1).asText())
+                .containsExactly("Member", "Audit", "Dismantler");
+        assertThat(verifier.verificationCount()).isEqualTo(4L);
+
+        verifier.verify(presentation).join();
+        assertThat(verifier.verificationCount()).isEqualTo(4L);
+        assertThat(verifier.cacheHitCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void verifyResponseMessage() {
+        var message = new PresentationResponseMessage(List.of(), List.of(mapper.getNodeFactory().textNode(presentation(credential("Member"))),
+                mapper.getNodeFactory().textNode(presentation(credential("Audit")))), null);
+
+        assertThat(verifier.verify(message).join()).hasSize(2);
+        assertThat(verifier.verificationCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void verifyEmptyResponseMessage() throws Exception {
+        var message = new PresentationResponseMessage(List.of(), List.of(), null);
+
+        assertThat(verifier.verify(message).get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(verifier.verificationCount()).isZero();
+    }
+
+    @Test
+    void verifyInvalidCredentialSignatureFails() {
+        var credential = credential("Member");
+        var forged = credential.substring(0, credential.lastIndexOf('.') + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[64]);
+
+        assertInvalid(presentation(credential("Audit"), forged), IllegalArgumentException.class);
+    }
+
+    @Test
+    void verifyCachedPayloadWithOtherSignatureFails() {
+        var credential = credential("Member");
+        verifier.verify(presentation(credential)).join();
+
+        // the same signing input as a cached credential does not make another signature valid
+        var forged = credential.substring(0, credential.lastIndexOf('.') + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[64]);
+        assertInvalid(presentation(forged), IllegalArgumentException.class);
+    }
+
+    @Test
+    void verifyRotatedKeyMissesCache() {
+        var credential = credential("Member");
+        verifier.verify(presentation(credential)).join();
+
+        issuerKeys = generate();
+        publish(ISSUER, issuerKeys, "assertionMethod");
+        didCache.invalidate(ISSUER);
+
+        assertInvalid(presentation(credential), IllegalArgumentException.class);
+        assertThat(verifier.verify(presentation(credential("Member"))).join().credentials()).hasSize(1);
+    }
+
+    @Test
+    void verifyIssuerMismatchFails() {
+        var credential = sign(issuerKeys, ISSUER + "#key-1", Map.of("iss", "did:web:other.example.com", "sub", HOLDER,
+                "vc", Map.of("type", List.of("VerifiableCredential", "Member"))));
+
+        assertInvalid(presentation(credential), IllegalArgumentException.class);
+    }
+
+    @Test
+    void verifyPresentationKeyWithoutAuthenticationFails() {
+        publish(HOLDER, holderKeys, "assertionMethod");
+
+        assertInvalid(presentation(credential("Member")), IllegalStateException.class);
+    }
+
+    @Test
+    void verifyExpiredCredentialFails() {
+        var credential = sign(issuerKeys, ISSUER + "#key-1", Map.of("iss", ISSUER, "sub", HOLDER, "exp", Instant.now().minusSeconds(3600).getEpochSecond(),
+                "vc", Map.of("type", List.of("VerifiableCredential", "Member"))));
+
+        assertInvalid(presentation(credential), IllegalArgumentException.class);
+        assertThat(verifier.verificationCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void verifyHolderBinding() {
+        var bound = PresentationVerifier.builder(didCache).holderBinding(true).build();
+        var credential = sign(issuerKeys, ISSUER + "#key-1", Map.of("iss", ISSUER, "sub", "did:web:someone.example.com",
+                "vc", Map.of("type", List.of("VerifiableCredential", "Member"))));
+
+        assertThat(verifier.verify(presentation(credential)).join().credentials()).hasSize(1);
+        assertThatThrownBy(() -> bound.verify(presentation(credential)).join()).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertInvalid(String presentation, Class<? extends Throwable> failure) {
+        assertThatThrownBy(() -> verifier.verify(presentation).join()).hasCauseInstanceOf(failure);
+    }
+
+    private String credential(String type) {
+        return sign(issuerKeys, ISSUER + "#key-1", Map.of("iss", ISSUER, "sub", HOLDER, "vc", Map.of("type", List.of("VerifiableCredential", type))));
+    }
+
+    private String presentation(String... credentials) {
+        return sign(holderKeys, "#key-1", Map.of("iss", HOLDER, "aud", "did:web:verifier.example.com",
+                "vp", Map.of("type", List.of("VerifiablePresentation"), "verifiableCredential", List.of(credentials))));
+    }
+
+    private String sign(KeyPair keys, String kid, Map<String, Object> claims) {
+        try {
+            var encoder = Base64.getUrlEncoder().withoutPadding();
+            var signingInput = encoder.encodeToString(mapper.writeValueAsBytes(Map.of("alg", "ES256", "kid", kid))) +
+                    "." + encoder.encodeToString(mapper.writeValueAsBytes(claims));
+            var signature = Signature.getInstance("SHA256withECDSAinP1363Format");
+            signature.initSign(keys.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + encoder.encodeToString(signature.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void publish(String did, KeyPair keys, String relationship) {
+        var key = (ECPublicKey) keys.getPublic();
+        var document = mapper.createObjectNode().put("id", did);
+        document.putArray("verificationMethod").addObject()
+                .put("id", "#key-1")
+                .put("type", "JsonWebKey2020")
+                .putObject("publicKeyJwk")
+                .put("kty", "EC")
+                .put("crv", "P-256")
+                .put("x", coordinate(key.getW().getAffineX()))
+                .put("y", coordinate(key.getW().getAffineY()));
+        document.putArray(relationship).add("#key-1");
+        documents.put(did, document);
+    }
+
+    private static String coordinate(BigInteger value) {
+        var bytes = value.toByteArray();
+        var unsigned = new byte[32];
+        var length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, unsigned, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private static KeyPair generate() {
+        try {
+            var generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
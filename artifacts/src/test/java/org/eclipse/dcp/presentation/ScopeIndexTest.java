@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class ScopeIndexTest {
+
+    private final ScopeIndex<String> index = ScopeIndex.<String>builder()
+            .credential("member", "urn:uuid:1", List.of("VerifiableCredential", "MembershipCredential"))
+            .credential("dismantler", "urn:uuid:2", List.of("VerifiableCredential", "DismantlerCredential"))
+            .credential("anonymous", null, List.of("VerifiableCredential", "MembershipCredential"))
+            .build();
+
+    @Test
+    void verifyResolveByType() {
+        assertThat(index.resolve(Scope.parse("org.eclipse.dspace.dcp.vc.type:MembershipCredential"))).containsExactly("member", "anonymous");
+        assertThat(index.resolve(Scope.parse("org.eclipse.dspace.dcp.vc.type:UnknownCredential"))).isEmpty();
+    }
+
+    @Test
+    void verifyResolveById() {
+        assertThat(index.resolve(Scope.parse("org.eclipse.dspace.dcp.vc.id:urn:uuid:2"))).containsExactly("dismantler");
+        assertThat(index.matches(Scope.parse("org.eclipse.dspace.dcp.vc.id:urn:uuid:3"))).isFalse();
+    }
+
+    @Test
+    void verifyResolveQuery() {
+        var scopes = Scope.parseAll(List.of(
+                "org.eclipse.dspace.dcp.vc.type:MembershipCredential",
+                "org.eclipse.dspace.dcp.vc.id:urn:uuid:1",
+                "org.eclipse.dspace.dcp.vc.id:urn:uuid:2",
+                "custom:DismantlerCredential"));
+
+        assertThat(index.resolve(scopes)).containsExactly("member", "anonymous", "dismantler");
+    }
+
+    @Test
+    void verifyDuplicateId() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ScopeIndex.<String>builder()
+                .credential("a", "urn:uuid:1", List.of())
+                .credential("b", "urn:uuid:1", List.of()));
+    }
+}
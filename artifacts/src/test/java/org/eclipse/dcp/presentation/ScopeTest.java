@@ -0,0 +1,63 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.presentation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.eclipse.dcp.presentation.Scope.VC_ID_ALIAS;
+import static org.eclipse.dcp.presentation.Scope.VC_TYPE_ALIAS;
+
+public class ScopeTest {
+
+    @Test
+    void verifyParse() {
+        var scope = Scope.parse("org.eclipse.dspace.dcp.vc.type:Member");
+
+        assertThat(scope).isEqualTo(new Scope(VC_TYPE_ALIAS, "Member"));
+        assertThat(scope.alias()).isSameAs(VC_TYPE_ALIAS);
+        assertThat(scope.isTypeScope()).isTrue();
+        assertThat(scope.toString()).isEqualTo("org.eclipse.dspace.dcp.vc.type:Member");
+        assertThat(Scope.parse(new String("org.eclipse.dspace.dcp.vc.type:Member"))).isSameAs(scope);
+    }
+
+    @Test
+    void verifyDiscriminatorWithColons() {
+        var scope = Scope.parse("org.eclipse.dspace.dcp.vc.id:urn:uuid:8247b87d-8d72-47e1-8128-9ce47e3d829d");
+
+        assertThat(scope.alias()).isSameAs(VC_ID_ALIAS);
+        assertThat(scope.discriminator()).isEqualTo("urn:uuid:8247b87d-8d72-47e1-8128-9ce47e3d829d");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "presentation1", ":Member", "org.eclipse.dspace.dcp.vc.type:", "org.eclipse.dspace.dcp.vc.type: ", " alias:Member"})
+    void verifyMalformed(String value) {
+        assertThatIllegalArgumentException().isThrownBy(() -> Scope.parse(value));
+    }
+
+    @Test
+    void verifyParseAll() {
+        assertThat(Scope.parseAll(List.of("org.eclipse.dspace.dcp.vc.type:Member", "custom:value")))
+                .containsExactly(new Scope(VC_TYPE_ALIAS, "Member"), new Scope("custom", "value"));
+        assertThatIllegalArgumentException().isThrownBy(() -> Scope.parseAll(List.of()));
+        assertThatIllegalArgumentException().isThrownBy(() -> Scope.parseAll(null));
+        assertThatIllegalArgumentException().isThrownBy(() -> Scope.parseAll(List.of("org.eclipse.dspace.dcp.vc.type:Member", "bad")));
+    }
+}
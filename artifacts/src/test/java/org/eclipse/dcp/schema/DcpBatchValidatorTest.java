@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+
+public class DcpBatchValidatorTest {
+
+    private static final String INVALID_CREDENTIAL_STATUS = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialStatus"
+            }""";
+
+    private final DcpBatchValidator validator = new DcpBatchValidator(new DcpMessageValidator(new DcpSchemaRegistry()), 4);
+
+    @AfterEach
+    void tearDown() {
+        validator.close();
+    }
+
+    @Test
+    void verifyResultsInInputOrder() throws IOException {
+        var credentialMessage = read("/issuance/example/credential-message.json");
+        var credentialStatus = read("/issuance/example/credential-status.json");
+        var messages = new ArrayList<String>();
+        for (var i = 0; i < 500; i++) {
+            messages.add(i % 2 == 0 ? credentialMessage : credentialStatus);
+        }
+
+        var results = validator.validate(messages);
+
+        assertThat(results).hasSize(500).allMatch(BatchValidationResult::valid);
+        for (var i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).result().type()).isEqualTo(i % 2 == 0 ? CREDENTIAL_MESSAGE : CREDENTIAL_STATUS);
+        }
+        assertThat(validator.parallelism()).isEqualTo(4);
+    }
+
+    @Test
+    void verifyFailuresDoNotFailTheBatch() throws IOException {
+        var valid = read("/issuance/example/credential-status.json");
+
+        var results = validator.validate(List.of(valid, INVALID_CREDENTIAL_STATUS, "{\"type\": \"UnknownMessage\"}", "not json", valid));
+
+        assertThat(results).extracting(BatchValidationResult::valid).containsExactly(true, false, false, false, true);
+        assertThat(results.get(1).result().errors()).hasSize(3);
+        assertThat(results.get(2).failure()).isNotNull();
+        assertThat(results.get(3).failure()).isNotNull();
+    }
+
+    @Test
+    void verifyStreamAndNodes() throws IOException {
+        var valid = read("/issuance/example/credential-status.json");
+
+        assertThat(validator.validate(List.of(valid, INVALID_CREDENTIAL_STATUS).stream()))
+                .extracting(BatchValidationResult::valid).containsExactly(true, false);
+
+        var mapper = new ObjectMapper();
+        assertThat(validator.validateNodes(List.of(mapper.readTree(INVALID_CREDENTIAL_STATUS), mapper.readTree(valid))))
+                .extracting(BatchValidationResult::valid).containsExactly(false, true);
+    }
+
+    private String read(String resource) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OBJECT;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_STATUS;
+import static org.eclipse.dcp.schema.DcpMessageType.ISSUER_METADATA;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+public class DcpMessageValidatorTest {
+
+    private static final String TYPE_AFTER_NESTED_TYPES = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "presentationDefinition": {
+                "id": "presentation1",
+                "input_descriptors": [
+                  {
+                    "id": "organization credential",
+                    "constraints": {
+                      "fields": [
+                        {
+                          "path": ["$.type"],
+                          "filter": {
+                            "type": "string",
+                            "pattern": "OrganizationCredential"
+                          }
+                        }
+                      ]
+                    }
+                  }
+                ]
+              },
+              "type": "PresentationQueryMessage"
+            }""";
+
+    private static final String INVALID_CREDENTIAL_STATUS = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "CredentialStatus"
+            }""";
+
+    private final DcpMessageValidator validator = new DcpMessageValidator(new DcpSchemaRegistry());
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static Stream<Arguments> examples() {
+        return Stream.of(
+                Arguments.of("/presentation/example/presentation-query-message.json", PRESENTATION_QUERY_MESSAGE),
+                Arguments.of("/presentation/example/presentation-query-message-w-presentation-definition.json", PRESENTATION_QUERY_MESSAGE),
+                Arguments.of("/presentation/example/presentation-response-message.json", PRESENTATION_RESPONSE_MESSAGE),
+                Arguments.of("/presentation/example/presentation-response-message-w-presentation-submission.json", PRESENTATION_RESPONSE_MESSAGE),
+                Arguments.of("/issuance/example/credential-request-message.json", CREDENTIAL_REQUEST_MESSAGE),
+                Arguments.of("/issuance/example/credential-message.json", CREDENTIAL_MESSAGE),
+                Arguments.of("/issuance/example/credential-message-rejected.json", CREDENTIAL_MESSAGE),
+                Arguments.of("/issuance/example/credential-offer-message.json", CREDENTIAL_OFFER_MESSAGE),
+                Arguments.of("/issuance/example/credential-object.json", CREDENTIAL_OBJECT),
+                Arguments.of("/issuance/example/credential-status.json", CREDENTIAL_STATUS),
+                Arguments.of("/issuance/example/issuer-metadata.json", ISSUER_METADATA)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void verifyDispatch(String exampleFile, DcpMessageType expectedType) throws IOException {
+        var message = read(exampleFile);
+
+        var result = validator.validate(message);
+        assertThat(result.type()).isEqualTo(expectedType);
+        assertThat(result.valid()).describedAs(result.errors().toString()).isTrue();
+
+        var treeResult = validator.validate(mapper.readTree(message));
+        assertThat(treeResult.type()).isEqualTo(expectedType);
+        assertThat(treeResult.valid()).isTrue();
+
+        assertThat(validator.isValid(message)).isTrue();
+        assertThat(validator.isValid(mapper.readTree(message))).isTrue();
+        assertThat(validator.validateFailFast(message).valid()).isTrue();
+
+        var bytes = message.getBytes(StandardCharsets.UTF_8);
+        var bytesResult = validator.validate(bytes);
+        assertThat(bytesResult.type()).isEqualTo(expectedType);
+        assertThat(bytesResult.valid()).describedAs(bytesResult.errors().toString()).isTrue();
+        assertThat(validator.validate(ByteBuffer.wrap(bytes)).valid()).isTrue();
+        assertThat(validator.validate(new ByteArrayInputStream(bytes)).valid()).isTrue();
+        assertThat(validator.isValid(bytes)).isTrue();
+        assertThat(validator.validateFailFast(bytes).valid()).isTrue();
+    }
+
+    @Test
+    void verifyTypeAfterNestedTypes() {
+        assertThat(validator.peekType(TYPE_AFTER_NESTED_TYPES)).isEqualTo(PRESENTATION_QUERY_MESSAGE);
+        assertThat(validator.validate(TYPE_AFTER_NESTED_TYPES).valid()).isTrue();
+    }
+
+    @Test
+    void verifyInvalidMessage() {
+        var result = validator.validate(INVALID_CREDENTIAL_STATUS);
+
+        assertThat(result.type()).isEqualTo(CREDENTIAL_STATUS);
+        assertThat(result.valid()).isFalse();
+        assertThat(result.errors()).hasSize(3);
+    }
+
+    @Test
+    void verifyFailFast() throws IOException {
+        assertThat(validator.isValid(INVALID_CREDENTIAL_STATUS)).isFalse();
+        assertThat(validator.isValid(mapper.readTree(INVALID_CREDENTIAL_STATUS))).isFalse();
+
+        var result = validator.validateFailFast(INVALID_CREDENTIAL_STATUS);
+        assertThat(result.type()).isEqualTo(CREDENTIAL_STATUS);
+        assertThat(result.errors()).hasSize(1);
+        assertThat(validator.validateFailFast(mapper.readTree(INVALID_CREDENTIAL_STATUS)).errors()).hasSize(1);
+    }
+
+    @Test
+    void verifyByteBuffers() {
+        var bytes = INVALID_CREDENTIAL_STATUS.getBytes(StandardCharsets.UTF_8);
+        var heap = ByteBuffer.allocate(bytes.length + 8).position(4).put(bytes).flip().position(4);
+        var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+        for (var buffer : List.of(heap, direct, heap.slice())) {
+            var position = buffer.position();
+            var result = validator.validate(buffer);
+
+            assertThat(result.type()).isEqualTo(CREDENTIAL_STATUS);
+            assertThat(result.errors()).hasSize(3);
+            assertThat(validator.isValid(buffer)).isFalse();
+            assertThat(validator.validateFailFast(buffer).errors()).hasSize(1);
+            assertThat(buffer.position()).isEqualTo(position);
+        }
+    }
+
+    @Test
+    void verifyNonDcpMessageInBytes() {
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"type\": \"UnknownMessage\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"type\": ".getBytes(StandardCharsets.UTF_8)));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate(ByteBuffer.allocateDirect(2).put("[]".getBytes(StandardCharsets.UTF_8)).flip()));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.isValid(new ByteArrayInputStream(new byte[0])));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate(new ByteArrayInputStream("{\"type\": ".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void verifyNonDcpMessage() {
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"type\": \"UnknownMessage\"}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"type\": [\"CredentialStatus\"]}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"status\": \"RECEIVED\"}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("[]"));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("{\"type\": "));
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.isValid("{\"type\": \"UnknownMessage\"}"));
+    }
+
+    private String read(String resource) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.networknt.schema.InputFormat.JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DcpSchemaRegistryTest {
+
+    private static final String CREDENTIAL_STATUS = """
+            {
+                "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+                "type": "CredentialStatus",
+                "issuerPid": "issuerPid",
+                "holderPid": "holderPid",
+                "status": "RECEIVED"
+            }""";
+
+    private final DcpSchemaRegistry registry = new DcpSchemaRegistry();
+
+    @ParameterizedTest
+    @EnumSource(DcpMessageType.class)
+    void verifySchemaPerMessageType(DcpMessageType type) {
+        assertThat(registry.getSchema(type)).isNotNull().isSameAs(registry.getSchema(type.schemaFile()));
+        assertThat(DcpMessageType.fromTypeName(type.typeName())).isEqualTo(type);
+    }
+
+    @Test
+    void verifyWarmUp() {
+        var schema = registry.getSchema(DcpMessageType.CREDENTIAL_STATUS);
+
+        assertThat(registry.warmUp()).isSameAs(registry);
+        assertThat(registry.getSchema(DcpMessageType.CREDENTIAL_STATUS)).isSameAs(schema);
+        assertThat(schema.validate(CREDENTIAL_STATUS, JSON)).isEmpty();
+    }
+
+    @Test
+    void verifyConcurrentAccess() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Boolean>>();
+            for (var i = 0; i < 64; i++) {
+                tasks.add(() -> registry.getSchema(DcpMessageType.CREDENTIAL_STATUS).validate(CREDENTIAL_STATUS, JSON).isEmpty());
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void verifyUnknownTypeName() {
+        assertThat(DcpMessageType.fromTypeName("UnknownMessage")).isNull();
+        assertThat(DcpMessageType.fromTypeName(null)).isNull();
+    }
+}
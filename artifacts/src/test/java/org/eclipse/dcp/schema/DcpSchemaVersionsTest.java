@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import org.eclipse.dcp.metrics.DcpMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_PREFIX;
+
+public class DcpSchemaVersionsTest {
+
+    private static final String V1_1 = "https://w3id.org/dspace-dcp/v1.1/";
+    private static final String CREDENTIAL_STATUS = """
+            {
+              "@context": ["%sdcp.jsonld"],
+              "type": "CredentialStatus",
+              "issuerPid": "issuerPid",
+              "holderPid": "holderPid",
+              "status": "RECEIVED"
+            }""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void verifyBundledVersion() {
+        var registry = new DcpSchemaRegistry();
+        try (var versions = DcpSchemaVersions.builder().registry(registry).build()) {
+            assertThat(versions.prefixes()).containsExactly(DCP_PREFIX);
+            assertThat(versions.registry(DCP_PREFIX)).isSameAs(registry);
+            assertThat(versions.registry(V1_1)).isNull();
+        }
+    }
+
+    @Test
+    void verifyPrefixOf() {
+        assertThat(DcpSchemaVersions.prefixOf("https://w3id.org/dspace-dcp/v1.0/dcp.jsonld")).isEqualTo(DCP_PREFIX);
+        assertThat(DcpSchemaVersions.prefixOf("https://w3id.org/dspace-dcp/v1.1/dcp.jsonld")).isEqualTo(V1_1);
+        assertThat(DcpSchemaVersions.prefixOf("https://www.w3.org/ns/odrl.jsonld")).isNull();
+        assertThat(DcpSchemaVersions.prefixOf(null)).isNull();
+    }
+
+    @Test
+    void verifyVersionsSideBySide() throws IOException {
+        bundle("v1.1", V1_1);
+
+        try (var versions = DcpSchemaVersions.builder().directory(directory).watch(false).build()) {
+            assertThat(versions.prefixes()).containsExactlyInAnyOrder(DCP_PREFIX, V1_1);
+            assertThat(versions.registry(V1_1).prefix()).isEqualTo(V1_1);
+
+            var validator = new DcpMessageValidator(versions, DcpMetrics.NOOP);
+            assertThat(validator.validate(CREDENTIAL_STATUS.formatted(V1_1)).valid()).isTrue();
+            assertThat(validator.validate(CREDENTIAL_STATUS.formatted(DCP_PREFIX)).valid()).isTrue();
+            assertThat(validator.peekType("{\"type\": \"CredentialStatus\", \"@context\": [\"%sdcp.jsonld\"]}".formatted(V1_1)))
+                    .isEqualTo(DcpMessageType.CREDENTIAL_STATUS);
+            assertThatIllegalArgumentException().isThrownBy(() -> validator.validate(CREDENTIAL_STATUS.formatted("https://w3id.org/dspace-dcp/v9/")))
+                    .withMessageContaining("Unsupported DCP version");
+        }
+    }
+
+    @Test
+    void verifyBundleContext() throws Exception {
+        bundle("v1.1", V1_1);
+
+        try (var versions = DcpSchemaVersions.builder().directory(directory).watch(false).build()) {
+            var document = versions.documentLoader().loadDocument(URI.create(V1_1 + "dcp.jsonld"), new DocumentLoaderOptions());
+
+            assertThat(document.getJsonContent().orElseThrow().toString()).contains(V1_1);
+            assertThat(document.getDocumentUrl()).isEqualTo(URI.create(V1_1 + "dcp.jsonld"));
+        }
+    }
+
+    @Test
+    void verifyUnchangedBundleIsKept() throws IOException {
+        var bundle = bundle("v1.1", V1_1);
+
+        try (var versions = DcpSchemaVersions.builder().directory(directory).watch(false).build()) {
+            var registry = versions.registry(V1_1);
+
+            assertThat(versions.reload().registry(V1_1)).isSameAs(registry);
+
+            Files.writeString(bundle.resolve("issuance/credential-status-schema.json"),
+                    Files.readString(bundle.resolve("issuance/credential-status-schema.json")) + "\n");
+            assertThat(versions.reload().registry(V1_1)).isNotSameAs(registry);
+            assertThat(versions.reloadCount()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void verifyIncompleteBundleKeepsVersions() throws IOException {
+        bundle("v1.1", V1_1);
+        try (var versions = DcpSchemaVersions.builder().directory(directory).watch(false).build()) {
+            var registry = versions.registry(V1_1);
+            Files.createDirectories(directory.resolve("v1.2/issuance"));
+
+            assertThatIllegalStateException().isThrownBy(versions::reload).withMessageContaining("v1.2");
+            assertThat(versions.prefixes()).containsExactlyInAnyOrder(DCP_PREFIX, V1_1);
+            assertThat(versions.registry(V1_1)).isSameAs(registry);
+            assertThat(versions.lastFailure()).isPresent();
+        }
+        assertThatIllegalStateException().isThrownBy(() -> DcpSchemaVersions.builder().directory(directory).watch(false).build());
+    }
+
+    @Test
+    void verifyHotReload() throws Exception {
+        try (var versions = DcpSchemaVersions.builder().directory(directory).quietPeriod(Duration.ofMillis(100)).build()) {
+            assertThat(versions.prefixes()).containsExactly(DCP_PREFIX);
+
+            // readers keep validating against the published versions while the bundle is copied and compiled
+            var validator = new DcpMessageValidator(versions, DcpMetrics.NOOP);
+            var results = new ArrayList<Boolean>();
+            bundle("v1.1", V1_1);
+            await(() -> {
+                results.add(validator.isValid(CREDENTIAL_STATUS.formatted(DCP_PREFIX)));
+                return versions.prefixes().contains(V1_1);
+            });
+
+            assertThat(results).containsOnly(true);
+            assertThat(validator.validate(CREDENTIAL_STATUS.formatted(V1_1)).valid()).isTrue();
+            assertThat(versions.lastFailure()).isEmpty();
+        }
+    }
+
+    private Path bundle(String name, String prefix) throws IOException {
+        var bundle = directory.resolve(name);
+        var files = new ArrayList<>(DcpSchemaRegistry.COMMON_SCHEMA_FILES);
+        for (var type : DcpMessageType.values()) {
+            files.add(type.schemaFile());
+        }
+        files.add("/context/dcp.jsonld");
+        // write to a staging directory first, so that a watcher sees the bundle appear complete
+        var staging = Files.createTempDirectory(directory.getParent(), "bundle");
+        for (var file : files) {
+            try (var stream = getClass().getResourceAsStream(file)) {
+                var content = new String(stream.readAllBytes(), StandardCharsets.UTF_8).replace(DCP_PREFIX, prefix);
+                var target = staging.resolve(file.substring(1));
+                Files.createDirectories(target.getParent());
+                Files.writeString(target, content);
+            }
+        }
+        return Files.move(staging, bundle);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class PresentationResponseStreamValidatorTest {
+
+    private static final String PRESENTATION_FIRST = """
+            {
+              "presentation": ["presentation1", {"type": "VerifiablePresentation"}],
+              "type": "PresentationResponseMessage",
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"]
+            }""";
+
+    private static final String INVALID_PRESENTATION = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "PresentationResponseMessage",
+              "presentation": ["presentation1", 42, "presentation3"]
+            }""";
+
+    private static final String INVALID_TYPE = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "type": "PresentationQueryMessage",
+              "presentation": ["presentation1"]
+            }""";
+
+    private static final String INVALID_TYPE_AFTER_PRESENTATION = """
+            {
+              "@context": ["https://w3id.org/dspace-dcp/v1.0/dcp.jsonld"],
+              "presentation": ["presentation1"],
+              "type": "PresentationQueryMessage"
+            }""";
+
+    private final PresentationResponseStreamValidator validator = new PresentationResponseStreamValidator(new DcpSchemaRegistry(), new ObjectMapper());
+    private final List<JsonNode> received = new ArrayList<>();
+
+    @Test
+    void verifyExamples() throws IOException {
+        try (var stream = getClass().getResourceAsStream("/presentation/example/presentation-response-message.json")) {
+            var result = validator.validate(stream, (index, presentation) -> received.add(presentation));
+
+            assertThat(result.valid()).describedAs(result.errors().toString()).isTrue();
+            assertThat(result.delivered()).isEqualTo(2);
+            assertThat(received).extracting(JsonNode::asText).containsExactly("presentation1", "presentation2");
+        }
+        try (var stream = getClass().getResourceAsStream("/presentation/example/presentation-response-message-w-presentation-submission.json")) {
+            var result = validator.validate(stream, (index, presentation) -> { });
+
+            assertThat(result.valid()).describedAs(result.errors().toString()).isTrue();
+        }
+    }
+
+    @Test
+    void verifyLargeMessage() throws IOException {
+        var message = new StringBuilder("{\"@context\": [\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"], \"type\": \"PresentationResponseMessage\", \"presentation\": [");
+        for (var i = 0; i < 1000; i++) {
+            message.append(i == 0 ? "" : ",").append("{\"id\": \"").append(i).append("\"}");
+        }
+        message.append("]}");
+        var indexes = new ArrayList<Integer>();
+
+        var result = validator.validate(stream(message.toString()), (index, presentation) -> {
+            assertThat(presentation.get("id").asText()).isEqualTo(String.valueOf(index));
+            indexes.add(index);
+        });
+
+        assertThat(result.valid()).isTrue();
+        assertThat(result.delivered()).isEqualTo(1000);
+        assertThat(indexes).isSorted().hasSize(1000);
+    }
+
+    @Test
+    void verifyEnvelopeAfterPresentation() throws IOException {
+        var indexes = new ArrayList<Integer>();
+
+        var result = validator.validate(stream(PRESENTATION_FIRST), (index, presentation) -> indexes.add(index));
+
+        assertThat(result.valid()).isTrue();
+        assertThat(indexes).containsExactly(0, 1);
+    }
+
+    @Test
+    void verifyPendingPresentationsAreBounded() throws IOException {
+        var presentations = new StringBuilder();
+        for (var i = 0; i < 100; i++) {
+            presentations.append(i == 0 ? "" : ",").append("{\"id\": \"").append(i).append("\"}");
+        }
+        var envelopeLast = "{\"presentation\": [%s], \"type\": \"PresentationResponseMessage\", \"@context\": [\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"]}"
+                .formatted(presentations);
+        var envelopeFirst = "{\"@context\": [\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"], \"type\": \"PresentationResponseMessage\", \"presentation\": [%s]}"
+                .formatted(presentations);
+        var bounded = new PresentationResponseStreamValidator(new DcpSchemaRegistry(), new ObjectMapper(), 1024);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> bounded.validate(stream(envelopeLast), (index, presentation) -> received.add(presentation)));
+        assertThat(received).isEmpty();
+
+        // the bound only applies to presentations that precede the envelope
+        var result = bounded.validate(stream(envelopeFirst), (index, presentation) -> received.add(presentation));
+        assertThat(result.valid()).isTrue();
+        assertThat(received).hasSize(100);
+    }
+
+    @Test
+    void verifyInvalidPresentationIsNotDelivered() throws IOException {
+        var indexes = new ArrayList<Integer>();
+
+        var result = validator.validate(stream(INVALID_PRESENTATION), (index, presentation) -> indexes.add(index));
+
+        assertThat(result.valid()).isFalse();
+        assertThat(result.errors()).isEmpty();
+        assertThat(result.presentationErrors()).containsOnlyKeys(1);
+        assertThat(indexes).containsExactly(0, 2);
+    }
+
+    @Test
+    void verifyInvalidEnvelope() throws IOException {
+        var result = validator.validate(stream(INVALID_TYPE), (index, presentation) -> received.add(presentation));
+
+        assertThat(result.valid()).isFalse();
+        assertThat(result.errors()).isNotEmpty();
+        assertThat(received).isEmpty();
+
+        result = validator.validate(stream(INVALID_TYPE_AFTER_PRESENTATION), (index, presentation) -> received.add(presentation));
+
+        assertThat(result.valid()).isFalse();
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void verifyNotAnObject() {
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate(stream("[]"), (index, presentation) -> { }));
+    }
+
+    private InputStream stream(String message) {
+        return new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
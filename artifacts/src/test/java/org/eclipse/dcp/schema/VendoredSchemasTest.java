@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.dcp.schema.SchemaConstants.PRESENTATION_EXCHANGE_PREFIX;
+
+public class VendoredSchemasTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void verifyContentHashes() {
+        var schemas = VendoredSchemas.load();
+
+        assertThat(schemas.entries()).hasSize(4);
+        assertThat(schemas.verify()).isSameAs(schemas);
+    }
+
+    @Test
+    void verifyAllReferencesAreVendored() throws IOException {
+        var vendored = new HashSet<String>();
+        VendoredSchemas.load().entries().forEach(entry -> vendored.add(entry.uri()));
+
+        var references = new HashSet<String>();
+        for (var type : DcpMessageType.values()) {
+            collectReferences(read(type.schemaFile()), references);
+        }
+        for (var entry : VendoredSchemas.load().entries()) {
+            collectReferences(read(entry.resource()), references);
+        }
+
+        assertThat(references).isNotEmpty().isSubsetOf(vendored);
+    }
+
+    @Test
+    void verifyRegistryCompilesVendoredSchemas() {
+        var registry = new DcpSchemaRegistry().warmUp();
+
+        for (var entry : VendoredSchemas.load().entries()) {
+            assertThat(registry.getSchema(entry.uri())).isNotNull();
+        }
+    }
+
+    private JsonNode read(String resource) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            return mapper.readTree(stream);
+        }
+    }
+
+    private void collectReferences(JsonNode node, Set<String> references) {
+        var ref = node.get("$ref");
+        if (ref != null && ref.asText().startsWith(PRESENTATION_EXCHANGE_PREFIX)) {
+            var uri = ref.asText();
+            var fragment = uri.indexOf('#');
+            references.add(fragment == -1 ? uri : uri.substring(0, fragment));
+        }
+        node.elements().forEachRemaining(child -> collectReferences(child, references));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.dcp.status.StatusListTest.encode;
+
+public class StatusListEngineTest {
+    private static final String LIST_URL = "https://issuer.example.com/credentials/status/3";
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @Test
+    void verifyListIsDecodedOnce() throws IOException {
+        var pending = new CompletableFuture<StatusListCredential>();
+        var engine = StatusListEngine.builder(url -> {
+            resolutions.incrementAndGet();
+            return pending;
+        }).clock(clock).build();
+
+        var checks = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < 50; i++) {
+            checks.add(engine.isSet(new StatusListEntry(LIST_URL, i, "revocation", 1)));
+        }
+        pending.complete(credential(null));
+
+        assertThat(checks).extracting(CompletableFuture::join).containsOnly(false).hasSize(50);
+        assertThat(engine.isSet(new StatusListEntry(LIST_URL, 94567, "revocation", 1)).join()).isTrue();
+        assertThat(resolutions).hasValue(1);
+        assertThat(engine.decodeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyRefresh() throws IOException {
+        var credential = credential(NOW.plus(Duration.ofHours(1)));
+        var engine = StatusListEngine.builder(url -> {
+            resolutions.incrementAndGet();
+            return CompletableFuture.completedFuture(credential);
+        }).maxAge(Duration.ofMinutes(10)).clock(clock).build();
+        var entry = new StatusListEntry(LIST_URL, 0, "revocation", 1);
+
+        engine.isSet(entry).join();
+        now.set(NOW.plus(Duration.ofMinutes(5)));
+        engine.isSet(entry).join();
+        assertThat(resolutions).hasValue(1);
+
+        now.set(NOW.plus(Duration.ofMinutes(11)));
+        engine.isSet(entry).join();
+        assertThat(resolutions).hasValue(2);
+
+        // validUntil of the credential comes before the maximum age
+        now.set(NOW.plus(Duration.ofMinutes(55)));
+        engine.isSet(entry).join();
+        now.set(NOW.plus(Duration.ofMinutes(65)));
+        assertThatThrownBy(() -> engine.isSet(entry).join()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(resolutions).hasValue(4);
+    }
+
+    @Test
+    void verifyFailedResolutionIsRetried() throws IOException {
+        var credential = credential(null);
+        var engine = StatusListEngine.builder(url -> resolutions.incrementAndGet() == 1 ?
+                CompletableFuture.failedFuture(new IOException("unavailable")) :
+                CompletableFuture.completedFuture(credential)).clock(clock).build();
+        var entry = new StatusListEntry(LIST_URL, 0, "revocation", 1);
+
+        assertThatThrownBy(() -> engine.isSet(entry).join()).hasCauseInstanceOf(IOException.class);
+        assertThat(engine.isSet(entry).join()).isFalse();
+    }
+
+    @Test
+    void verifyPurposeMismatch() throws IOException {
+        var credential = credential(null);
+        var engine = StatusListEngine.builder(url -> CompletableFuture.completedFuture(credential)).clock(clock).build();
+
+        assertThatThrownBy(() -> engine.isSet(new StatusListEntry(LIST_URL, 0, "suspension", 1)).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void verifyResolverRunsOutsideCacheEntryLock() throws IOException {
+        var credential = credential(null);
+        var engine = new AtomicReference<StatusListEngine>();
+        var nested = new AtomicReference<CompletableFuture<Boolean>>();
+        engine.set(StatusListEngine.builder(url -> {
+            resolutions.incrementAndGet();
+            // a resolver calling back into the engine would fail with a recursive update if it ran inside compute
+            nested.set(engine.get().isSet(new StatusListEntry(LIST_URL, 1, "revocation", 1)));
+            return CompletableFuture.completedFuture(credential);
+        }).clock(clock).build());
+
+        assertThat(engine.get().isSet(new StatusListEntry(LIST_URL, 0, "revocation", 1)).join()).isFalse();
+        assertThat(nested.get().join()).isFalse();
+        assertThat(resolutions).hasValue(1);
+    }
+
+    @Test
+    void verifyListSizeIsLimited() throws IOException {
+        var credential = credential(null);
+        var engine = StatusListEngine.builder(url -> CompletableFuture.completedFuture(credential)).maxListBytes(8 * 1024).clock(clock).build();
+
+        assertThatThrownBy(() -> engine.isSet(new StatusListEntry(LIST_URL, 0, "revocation", 1)).join())
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusListEngine.builder(url -> null).maxListBytes(-1));
+    }
+
+    @Test
+    void verifyParseEntryAndCredential() throws IOException {
+        var mapper = new ObjectMapper();
+        var entry = StatusListEntry.of(mapper.readTree("""
+                {
+                  "id": "https://issuer.example.com/credentials/status/3#94567",
+                  "type": "BitstringStatusListEntry",
+                  "statusPurpose": "revocation",
+                  "statusListIndex": "94567",
+                  "statusListCredential": "https://issuer.example.com/credentials/status/3"
+                }"""));
+        assertThat(entry).isEqualTo(new StatusListEntry(LIST_URL, 94567, "revocation", 1));
+
+        var credential = StatusListCredential.of(mapper.readTree("""
+                {
+                  "type": ["VerifiableCredential", "StatusList2021Credential"],
+                  "expirationDate": "2024-07-01T00:00:00Z",
+                  "credentialSubject": {
+                    "type": "StatusList2021",
+                    "statusPurpose": "revocation",
+                    "encodedList": "H4sIAAAAAAAAA-3BMQEAAADCoPVPbQwfoAAAAAAAAAAAAAAAAAAAAIC3AYbSVKsAQAAA"
+                  }
+                }"""));
+        assertThat(credential.validUntil()).isEqualTo(Instant.parse("2024-07-01T00:00:00Z"));
+        assertThat(StatusList.decode(credential.encodedList(), false).size()).isEqualTo(131072);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusListEntry.of(mapper.readTree("""
+                {"type": "BitstringStatusListEntry", "statusPurpose": "revocation", "statusListIndex": "x", "statusListCredential": "https://a"}""")));
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusListEntry.of(mapper.readTree("""
+                {"type": "CredentialStatusList2017", "statusPurpose": "revocation", "statusListIndex": "1", "statusListCredential": "https://a"}""")));
+    }
+
+    private StatusListCredential credential(Instant validUntil) throws IOException {
+        var bits = new byte[16 * 1024];
+        bits[94567 / 8] |= (byte) (0x80 >>> (94567 % 8));
+        return new StatusListCredential("revocation", encode(bits, true), validUntil);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.status;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatusListTest {
+
+    /**
+     * Encodes a bitstring the way an issuer does.
+     */
+    static String encode(byte[] bits, boolean multibase) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var stream = new GZIPOutputStream(compressed)) {
+            stream.write(bits);
+        }
+        var encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(compressed.toByteArray());
+        return multibase ? "u" + encoded : encoded;
+    }
+
+    @Test
+    void verifyBitOrder() throws IOException {
+        var bits = new byte[16 * 1024];
+        bits[0] = (byte) 0b1000_0001;
+        bits[bits.length - 1] = 0b0000_0001;
+
+        var list = StatusList.decode(encode(bits, true), false);
+
+        assertThat(list.size()).isEqualTo(bits.length * 8);
+        assertThat(list.get(0)).isTrue();
+        assertThat(list.get(1)).isFalse();
+        assertThat(list.get(7)).isTrue();
+        assertThat(list.get(list.size() - 1)).isTrue();
+        assertThat(list.get(list.size() - 2)).isFalse();
+    }
+
+    @Test
+    void verifyEncodings() throws IOException {
+        var bits = new byte[] {(byte) 0xF0, 0x0F};
+        var compressed = Base64.getUrlDecoder().decode(encode(bits, false));
+
+        for (var encoded : new String[] {encode(bits, true), encode(bits, false), Base64.getEncoder().encodeToString(compressed)}) {
+            var list = StatusList.decode(encoded, true);
+            assertThat(list.isDirect()).isTrue();
+            assertThat(list.get(0)).isTrue();
+            assertThat(list.get(4)).isFalse();
+            assertThat(list.get(15)).isTrue();
+        }
+    }
+
+    @Test
+    void verifyMultiBitStatus() throws IOException {
+        var list = StatusList.decode(encode(new byte[] {(byte) 0b0110_0011}, false), false);
+
+        assertThat(list.value(0, 2)).isEqualTo(1);
+        assertThat(list.value(1, 2)).isEqualTo(2);
+        assertThat(list.value(2, 2)).isEqualTo(0);
+        assertThat(list.value(3, 2)).isEqualTo(3);
+        assertThat(list.value(0, 8)).isEqualTo(0b0110_0011);
+    }
+
+    @Test
+    void verifyDecodedSizeIsLimited() throws IOException {
+        assertThat(StatusList.decode(encode(new byte[16], false), false, 16).size()).isEqualTo(128);
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusList.decode(encode(new byte[16], false), false, 15));
+
+        // 16 MiB of zeros compress to a few KiB
+        var bomb = encode(new byte[16 * 1024 * 1024], false);
+        assertThat(bomb.length()).isLessThan(64 * 1024);
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusList.decode(bomb, false));
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusList.decode(bomb, false, StatusList.MAX_BYTES_LIMIT + 1));
+    }
+
+    @Test
+    void verifyInvalidInput() throws IOException {
+        var list = StatusList.decode(encode(new byte[1], false), false);
+
+        assertThatThrownBy(() -> list.get(8)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> list.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusList.decode("not base64!", false));
+        assertThatIllegalArgumentException().isThrownBy(() -> StatusList.decode(Base64.getEncoder().encodeToString(new byte[8]), false));
+    }
+}
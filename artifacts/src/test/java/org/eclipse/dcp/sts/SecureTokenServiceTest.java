@@ -0,0 +1,223 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SecureTokenServiceTest {
+
+    private static final String DID = "did:web:holder.example.com";
+    private static final String VERIFIER = "did:web:verifier.example.com";
+    private static final String KEY_ID = DID + "#key-1";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-06-01T12:00:00Z"));
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private final KeyPair ecKeys = generate("EC");
+    private SecureTokenService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void verifySelfIssuedIdToken() throws Exception {
+        service = service(ecKeys, 0).warmUp();
+
+        var response = service.token(request(VERIFIER, null)).join();
+
+        assertThat(response.tokenType()).isEqualTo("Bearer");
+        assertThat(response.expiresIn()).isEqualTo(300L);
+        assertThat(verify(response.accessToken(), ecKeys.getPublic(), "SHA256withECDSAinP1363Format")).isTrue();
+        var header = part(response.accessToken(), 0);
+        assertThat(header.get("alg").asText()).isEqualTo("ES256");
+        assertThat(header.get("kid").asText()).isEqualTo(KEY_ID);
+        var claims = part(response.accessToken(), 1);
+        assertThat(claims.get("iss").asText()).isEqualTo(DID);
+        assertThat(claims.get("sub").asText()).isEqualTo(DID);
+        assertThat(claims.get("aud").asText()).isEqualTo(VERIFIER);
+        assertThat(claims.get("jti").asText()).isNotEmpty();
+        assertThat(claims.get("iat").asLong()).isEqualTo(now.get().getEpochSecond());
+        assertThat(claims.get("exp").asLong()).isEqualTo(now.get().getEpochSecond() + 300);
+        assertThat(claims.has("token")).isFalse();
+    }
+
+    @Test
+    void verifyEd25519() throws Exception {
+        var keys = generate("Ed25519");
+        service = service(keys, 0);
+
+        var token = service.token(request(VERIFIER, null)).join().accessToken();
+
+        assertThat(part(token, 0).get("alg").asText()).isEqualTo("EdDSA");
+        assertThat(verify(token, keys.getPublic(), "Ed25519")).isTrue();
+    }
+
+    @Test
+    void verifyAccessTokenClaim() throws Exception {
+        service = service(ecKeys, 0);
+
+        var token = service.token(request(VERIFIER, "org.eclipse.dspace.dcp.vc.type:Member org.eclipse.dspace.dcp.vc.type:Audit")).join().accessToken();
+
+        var accessToken = part(token, 1).get("token").asText();
+        assertThat(verify(accessToken, ecKeys.getPublic(), "SHA256withECDSAinP1363Format")).isTrue();
+        var accessClaims = part(accessToken, 1);
+        assertThat(accessClaims.get("sub").asText()).isEqualTo(DID);
+        assertThat(accessClaims.get("scope").asText()).isEqualTo("org.eclipse.dspace.dcp.vc.type:Audit org.eclipse.dspace.dcp.vc.type:Member");
+
+        var passedThrough = service.token(new TokenRequest("client_credentials", "agent", "secret", VERIFIER, null, "opaque-token")).join();
+        assertThat(part(passedThrough.accessToken(), 1).get("token").asText()).isEqualTo("opaque-token");
+        assertThat(service.signatureCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void verifyRefusedRequests() {
+        service = service(ecKeys, 0);
+
+        assertRefused(new TokenRequest("client_credentials", "agent", "wrong", VERIFIER, null, null), "invalid_client");
+        assertRefused(new TokenRequest("client_credentials", "unknown", "secret", VERIFIER, null, null), "invalid_client");
+        assertRefused(new TokenRequest("password", "agent", "secret", VERIFIER, null, null), "unsupported_grant_type");
+        assertRefused(new TokenRequest("client_credentials", "agent", "secret", null, null, null), "invalid_request");
+        assertThat(service.signatureCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void verifyNoReuseByDefault() {
+        service = service(ecKeys, 0);
+
+        var first = service.token(request(VERIFIER, "a")).join();
+        var second = service.token(request(VERIFIER, "a")).join();
+
+        assertThat(first.accessToken()).isNotEqualTo(second.accessToken());
+        assertThat(service.reuseCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void verifyReuseUntilFractionOfLifetime() {
+        service = service(ecKeys, 0.5);
+
+        var first = service.token(request(VERIFIER, "a b")).join();
+        now.set(now.get().plusSeconds(149));
+        var reused = service.token(request(VERIFIER, "b a")).join();
+        assertThat(reused.accessToken()).isEqualTo(first.accessToken());
+        assertThat(reused.expiresIn()).isEqualTo(151L);
+
+        assertThat(service.token(request(VERIFIER, "a")).join().accessToken()).isNotEqualTo(first.accessToken());
+        assertThat(service.token(request("did:web:other.example.com", "a b")).join().accessToken()).isNotEqualTo(first.accessToken());
+
+        now.set(now.get().plusSeconds(1));
+        assertThat(service.token(request(VERIFIER, "a b")).join().accessToken()).isNotEqualTo(first.accessToken());
+        assertThat(service.reuseCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void verifyConcurrentRequestsShareSignature() {
+        service = service(ecKeys, 0.5);
+
+        var futures = new ArrayList<CompletableFuture<TokenResponse>>();
+        for (var i = 0; i < 64; i++) {
+            futures.add(service.token(request(VERIFIER, null)));
+        }
+
+        assertThat(futures.stream().map(CompletableFuture::join).map(TokenResponse::accessToken).distinct().count()).isEqualTo(1L);
+        assertThat(service.signatureCount()).isEqualTo(1L);
+    }
+
+    private SecureTokenService service(KeyPair keys, double reuseFraction) {
+        return SecureTokenService.builder()
+                .signingKey(SigningKey.of(KEY_ID, keys.getPrivate()))
+                .client(StsClient.of("agent", DID, KEY_ID, "secret"))
+                .reuseTokens(reuseFraction)
+                .signingThreads(4)
+                .clock(clock)
+                .build();
+    }
+
+    private void assertRefused(TokenRequest request, String error) {
+        assertThatThrownBy(() -> service.token(request).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TokenRequestException.class)
+                .satisfies(e -> assertThat(((TokenRequestException) e.getCause()).error()).isEqualTo(error));
+    }
+
+    private static TokenRequest request(String audience, String scope) {
+        return new TokenRequest("client_credentials", "agent", "secret", audience, scope, null);
+    }
+
+    private JsonNode part(String jwt, int index) throws Exception {
+        return mapper.readTree(Base64.getUrlDecoder().decode(jwt.split("\\.")[index]));
+    }
+
+    private static boolean verify(String jwt, PublicKey key, String algorithm) throws GeneralSecurityException {
+        var separator = jwt.lastIndexOf('.');
+        var signature = Signature.getInstance(algorithm);
+        signature.initVerify(key);
+        signature.update(jwt.substring(0, separator).getBytes(StandardCharsets.US_ASCII));
+        return signature.verify(Base64.getUrlDecoder().decode(jwt.substring(separator + 1)));
+    }
+
+    private static KeyPair generate(String algorithm) {
+        try {
+            var generator = KeyPairGenerator.getInstance(algorithm);
+            if ("EC".equals(algorithm)) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.sts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the {@code /token} endpoint over local HTTP with concurrent clients and reports throughput and latency percentiles
+ * as a JUnit report entry.
+ */
+public class TokenEndpointLoadTest {
+
+    private static final String DID = "did:web:holder.example.com";
+    private static final String KEY_ID = DID + "#key-1";
+    private static final int CLIENTS = 4;
+    private static final int REQUESTS = 128;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private SecureTokenService service;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpClient client;
+    private URI endpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        service = SecureTokenService.builder()
+                .signingKey(SigningKey.of(KEY_ID, generator.generateKeyPair().getPrivate()))
+                .client(StsClient.of("agent", DID, KEY_ID, "secret"))
+                .build()
+                .warmUp();
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/token", new TokenEndpoint(service));
+        server.setExecutor(serverExecutor);
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/token");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdown();
+        service.close();
+    }
+
+    @Test
+    void verifyLoad(TestReporter reporter) throws Exception {
+        var latencies = new long[REQUESTS];
+        var clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            var start = System.nanoTime();
+            var results = IntStream.range(0, REQUESTS)
+                    .mapToObj(i -> clients.submit(() -> {
+                        var sent = System.nanoTime();
+                        var response = post("grant_type=client_credentials&client_id=agent&client_secret=secret" +
+                                "&audience=did%3Aweb%3Averifier" + (i % 8) + ".example.com&bearer_access_scope=org.eclipse.dspace.dcp.vc.type%3AMember");
+                        latencies[i] = System.nanoTime() - sent;
+                        return response.statusCode();
+                    }))
+                    .toList();
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(200);
+            }
+            var elapsed = System.nanoTime() - start;
+            assertThat(service.signatureCount()).isEqualTo(2L * REQUESTS);
+
+            // published as a JUnit report entry rather than printed, so that it shows up where the launcher reports entries
+            Arrays.sort(latencies);
+            reporter.publishEntry(Map.of(
+                    "requests", String.valueOf(REQUESTS),
+                    "clients", String.valueOf(CLIENTS),
+                    "tokensPerSecond", "%.0f".formatted(REQUESTS * 1e9 / elapsed),
+                    "p50Millis", "%.2f".formatted(latencies[REQUESTS / 2] / 1e6),
+                    "p99Millis", "%.2f".formatted(latencies[REQUESTS * 99 / 100] / 1e6)));
+        } finally {
+            clients.shutdown();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void verifyErrorResponse() throws Exception {
+        var response = post("grant_type=client_credentials&client_id=agent&client_secret=wrong&audience=did%3Aweb%3Averifier.example.com");
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        var body = mapper.readTree(response.body());
+        assertThat(body.isArray()).isTrue();
+        assertThat(body.get(0).get("error").asText()).isEqualTo("invalid_client");
+    }
+
+    @Test
+    void verifyMalformedRequest() throws Exception {
+        var response = post("grant_type=client_credentials&client_id=agent&client_secret=secret&audience=%zz");
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(mapper.readTree(response.body()).get(0).get("error").asText()).isEqualTo("invalid_request");
+    }
+
+    private HttpResponse<String> post(String form) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
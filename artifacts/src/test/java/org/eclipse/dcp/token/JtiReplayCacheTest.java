@@ -0,0 +1,159 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.token;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.eclipse.dcp.token.JtiReplayCache.Result.ACCEPTED;
+import static org.eclipse.dcp.token.JtiReplayCache.Result.EXPIRED;
+import static org.eclipse.dcp.token.JtiReplayCache.Result.REJECTED;
+import static org.eclipse.dcp.token.JtiReplayCache.Result.REPLAYED;
+
+public class JtiReplayCacheTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @Test
+    void verifyReplay() {
+        var cache = JtiReplayCache.builder().clock(clock).build();
+        var exp = NOW.plus(Duration.ofMinutes(5));
+
+        assertThat(cache.record("jti-1", exp)).isEqualTo(ACCEPTED);
+        assertThat(cache.record("jti-1", exp)).isEqualTo(REPLAYED);
+        assertThat(cache.record("jti-1", exp.plusSeconds(60))).isEqualTo(REPLAYED);
+        assertThat(cache.record("jti-2", exp)).isEqualTo(ACCEPTED);
+        assertThat(cache.replayCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyExpiryWithLeeway() {
+        var cache = JtiReplayCache.builder().leeway(Duration.ofSeconds(30)).clock(clock).build();
+
+        assertThat(cache.record("jti-1", NOW.minusSeconds(10))).isEqualTo(ACCEPTED);
+        assertThat(cache.record("jti-2", NOW.minusSeconds(30))).isEqualTo(EXPIRED);
+    }
+
+    @Test
+    void verifyBucketsAreDropped() {
+        var cache = JtiReplayCache.builder()
+                .leeway(Duration.ofSeconds(5))
+                .bucketWidth(Duration.ofSeconds(10))
+                .clock(clock)
+                .build();
+        for (var i = 0; i < 100; i++) {
+            cache.record("early-" + i, NOW.plusSeconds(30));
+            cache.record("late-" + i, NOW.plusSeconds(300));
+        }
+        assertThat(cache.size()).isEqualTo(200);
+
+        now.set(NOW.plusSeconds(60));
+        assertThat(cache.record("trigger", NOW.plusSeconds(120))).isEqualTo(ACCEPTED);
+
+        assertThat(cache.size()).isEqualTo(101);
+        assertThat(cache.record("late-1", NOW.plusSeconds(300))).isEqualTo(REPLAYED);
+        // the token of the dropped value is expired now
+        assertThat(cache.record("early-1", NOW.plusSeconds(30))).isEqualTo(EXPIRED);
+    }
+
+    @Test
+    void verifyLimits() {
+        var cache = JtiReplayCache.builder().maxEntries(2).maxTokenLifetime(Duration.ofMinutes(5)).clock(clock).build();
+
+        assertThat(cache.record("jti-1", NOW.plus(Duration.ofMinutes(6)))).isEqualTo(REJECTED);
+        assertThat(cache.record("x".repeat(JtiReplayCache.MAX_JTI_LENGTH + 1), NOW.plusSeconds(60))).isEqualTo(REJECTED);
+        assertThat(cache.record("jti-1", NOW.plusSeconds(60))).isEqualTo(ACCEPTED);
+        assertThat(cache.record("jti-2", NOW.plusSeconds(60))).isEqualTo(ACCEPTED);
+        assertThat(cache.record("jti-3", NOW.plusSeconds(60))).isEqualTo(REJECTED);
+        assertThat(cache.rejectionCount()).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(cache.maxEntries());
+    }
+
+    @Test
+    void verifyConcurrentReplay() throws Exception {
+        var cache = JtiReplayCache.builder().clock(clock).build();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<JtiReplayCache.Result>>();
+            for (var i = 0; i < 64; i++) {
+                tasks.add(() -> cache.record("jti-1", NOW.plusSeconds(60)));
+            }
+            var results = executor.invokeAll(tasks).stream().map(this::get).toList();
+
+            assertThat(results).filteredOn(ACCEPTED::equals).hasSize(1);
+            assertThat(results).filteredOn(REPLAYED::equals).hasSize(63);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void verifyPersistence(@TempDir Path directory) {
+        var file = directory.resolve("jti.cache");
+        try (var cache = JtiReplayCache.builder().maxEntries(1000).persistTo(file).clock(clock).build()) {
+            assertThat(cache.record("jti-1", NOW.plusSeconds(60))).isEqualTo(ACCEPTED);
+            assertThat(cache.record("jti-2", NOW.plusSeconds(300))).isEqualTo(ACCEPTED);
+        }
+
+        now.set(NOW.plusSeconds(120));
+        try (var restored = JtiReplayCache.builder().maxEntries(1000).persistTo(file).clock(clock).build()) {
+            assertThat(restored.size()).isEqualTo(1);
+            assertThat(restored.record("jti-2", NOW.plusSeconds(300))).isEqualTo(REPLAYED);
+            assertThat(restored.record("jti-3", NOW.plusSeconds(300))).isEqualTo(ACCEPTED);
+        }
+
+        assertThatIllegalStateException().isThrownBy(() -> JtiReplayCache.builder().maxEntries(10).persistTo(file).build());
+    }
+
+    private JtiReplayCache.Result get(Future<JtiReplayCache.Result> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.context.fixtures;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsonp.JSONPModule;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonStructure;
+import org.eclipse.dcp.context.DcpDocumentLoader;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.apicatalog.jsonld.JsonLd.compact;
+import static com.apicatalog.jsonld.JsonLd.expand;
+import static com.apicatalog.jsonld.lang.Keywords.CONTEXT;
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.dcp.schema.SchemaConstants.DCP_CONTEXT;
+
+/**
+ * Base class for Json-Ld expansion and compaction tests.
+ * <p>
+ * The mapper, the compaction context, the document loader and the compiled schemas are created on first use and shared by
+ * all tests; none of them is modified after creation, so subclasses run concurrently when JUnit parallel execution is
+ * enabled. {@link #options} are created per test, since {@link JsonLdOptions} are mutable.
+ */
+@Execution(ExecutionMode.CONCURRENT)
+public abstract class AbstractJsonLdTest {
+    private static final String CONTEXT_REFERENCE = format("{\"@context\": [\"%s\"]}", DCP_CONTEXT);
+    protected final ObjectMapper mapper = Shared.MAPPER;
+    protected final JsonStructure compactionContext = Shared.COMPACTION_CONTEXT;
+    protected final JsonLdOptions options = new JsonLdOptions();
+
+    protected AbstractJsonLdTest() {
+        options.setDocumentLoader(DcpDocumentLoader.getInstance());
+    }
+
+    protected void verifyRoundTrip(String jsonFile, String schemaFile) {
+        try (var stream = getClass().getResourceAsStream(jsonFile)) {
+            var message = mapper.readValue(stream, JsonObject.class);
+            verifyRoundTrip(message, schemaFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected void verifyRoundTrip(JsonObject message, String schemaFile) {
+        try {
+            var schema = DcpSchemaRegistry.getInstance().getSchema(schemaFile);
+            var resultExAnte = schema.validate(mapper.convertValue(message, JsonNode.class));
+            assertThat(resultExAnte.isEmpty()).describedAs(String.join(", ", resultExAnte.stream().map(Object::toString).toList())).isTrue();
+
+
+            var context = Json.createObjectBuilder().add(CONTEXT, message.get(CONTEXT)).build();
+            var expanded = expand(JsonDocument.of(message)).options(options).get();
+            var compacted = compact(JsonDocument.of(expanded), JsonDocument.of(context)).options(options).get();
+
+
+            var resultExPost = schema.validate(mapper.convertValue(compacted, JsonNode.class));
+            assertThat(resultExPost.isEmpty()).describedAs(String.join(", ", resultExPost.stream().map(Object::toString).toList())).isTrue();
+            assertThat(compacted).isEqualTo(message);
+        } catch (JsonLdError e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The instances shared by all tests, created when the first test is instantiated.
+     */
+    private static final class Shared {
+        private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JSONPModule());
+        private static final JsonStructure COMPACTION_CONTEXT = readContext();
+
+        private static JsonStructure readContext() {
+            try {
+                return MAPPER.readValue(CONTEXT_REFERENCE, JsonStructure.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
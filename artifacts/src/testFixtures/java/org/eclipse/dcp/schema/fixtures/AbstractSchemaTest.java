@@ -15,38 +15,33 @@
 package org.eclipse.dcp.schema.fixtures;
 
 import com.networknt.schema.JsonSchema;
-import com.networknt.schema.JsonSchemaFactory;
-import com.networknt.schema.SchemaLocation;
 import com.networknt.schema.ValidationMessage;
-
-import static com.networknt.schema.SpecVersion.VersionFlag.V202012;
-import static org.eclipse.dcp.schema.SchemaConstants.DCP_PREFIX;
+import org.eclipse.dcp.schema.DcpSchemaRegistry;
+import org.eclipse.dcp.schema.SchemaConstants;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
 /**
- * Base test class.
+ * Base class for schema tests.
+ * <p>
+ * Schemas are taken from the process-wide {@link DcpSchemaRegistry}, which is created on first use and compiles each schema
+ * once; compiled schemas are immutable and shared by all tests, so subclasses run concurrently when JUnit parallel execution
+ * is enabled. Each test gets its own instance, so {@link #schema} is never shared.
  */
+@Execution(ExecutionMode.CONCURRENT)
 public abstract class AbstractSchemaTest {
-    public static final String PRESENTATION_EXCHANGE_PREFIX = "https://identity.foundation/";
+    public static final String PRESENTATION_EXCHANGE_PREFIX = SchemaConstants.PRESENTATION_EXCHANGE_PREFIX;
     protected static final String MIN_CONTAINS = "minContains";
     protected static final String REQUIRED = "required";
     protected static final String ONE_OF = "oneOf";
     protected static final String TYPE = "type";
     protected static final String ENUM = "enum";
-    private static final String CLASSPATH_SCHEMA = "classpath:/";
     protected JsonSchema schema;
 
     protected void setUp(String schemaFile) {
-        var schemaFactory = JsonSchemaFactory.getInstance(V202012, builder ->
-                builder.schemaMappers(schemaMappers ->
-                        schemaMappers.mapPrefix(DCP_PREFIX, CLASSPATH_SCHEMA)
-                                .mapPrefix(PRESENTATION_EXCHANGE_PREFIX, CLASSPATH_SCHEMA))
-        );
-
-        schema = schemaFactory.getSchema(SchemaLocation.of(DCP_PREFIX + schemaFile));
+        schema = DcpSchemaRegistry.getInstance().getSchema(schemaFile);
     }
 
-
-
     protected SchemaError errorExtractor(ValidationMessage validationMessage) {
         return new SchemaError(validationMessage.getProperty(), validationMessage.getType());
     }
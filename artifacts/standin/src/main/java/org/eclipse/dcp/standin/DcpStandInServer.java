@@ -0,0 +1,432 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.ValidationMessage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.dcp.issuance.CredentialRequestStatusStore;
+import org.eclipse.dcp.message.DcpMessageCodec;
+import org.eclipse.dcp.schema.DcpMessageType;
+import org.eclipse.dcp.schema.DcpMessageValidator;
+import org.eclipse.dcp.sts.SecureTokenService;
+import org.eclipse.dcp.sts.SigningKey;
+import org.eclipse.dcp.sts.StsClient;
+import org.eclipse.dcp.sts.TokenEndpoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_OFFER_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.CREDENTIAL_REQUEST_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.ISSUER_METADATA;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_QUERY_MESSAGE;
+import static org.eclipse.dcp.schema.DcpMessageType.PRESENTATION_RESPONSE_MESSAGE;
+
+/**
+ * An in-process stand-in for the DCP endpoints on the JDK HTTP server, for measuring clients and capacity without deploying
+ * real services.
+ * <p>
+ * The server hosts a Credential Service under {@value #CREDENTIAL_SERVICE_PATH} (Resolution API, Storage API and credential
+ * offers), an Issuer Service under {@value #ISSUER_SERVICE_PATH} (Credential Request API, Credential Request Status API and
+ * issuer metadata) and a Secure Token Service under {@value #STS_PATH}. Request bodies are validated against the bundled
+ * schemas and rejected with {@code 400} and the validation errors; responses are the bundled example messages. Credential
+ * requests are tracked in a {@link CredentialRequestStatusStore} and stay {@code RECEIVED}. Tokens are minted by a
+ * {@link SecureTokenService} with a key generated at startup, and are not required by the other endpoints.
+ * <p>
+ * The JDK server writes the headers and the body of a response separately, so with Nagle's algorithm a response with a body
+ * waits for the delayed ACK of the client. Measuring runs therefore call {@link #noDelay(boolean)} before the first server is
+ * created.
+ */
+public final class DcpStandInServer implements AutoCloseable {
+
+    /**
+     * The base path of the Credential Service endpoints.
+     */
+    public static final String CREDENTIAL_SERVICE_PATH = "/cs";
+
+    /**
+     * The base path of the Issuer Service endpoints.
+     */
+    public static final String ISSUER_SERVICE_PATH = "/issuer";
+
+    /**
+     * The base path of the Secure Token Service endpoint.
+     */
+    public static final String STS_PATH = "/sts";
+
+    /**
+     * The id of the STS client registered by default.
+     */
+    public static final String DEFAULT_CLIENT_ID = "stand-in";
+
+    /**
+     * The secret of the STS client registered by default.
+     */
+    public static final String DEFAULT_CLIENT_SECRET = "stand-in-secret";
+
+    private static final String DID = "did:web:stand-in.example.com";
+    private static final String KEY_ID = DID + "#key-1";
+    private static final String SCOPE = "scope";
+    private static final String PRESENTATION_DEFINITION = "presentationDefinition";
+    private static final String HOLDER_PID = "holderPid";
+    private static final String REQUESTS = "/requests/";
+    private static final Response NOT_FOUND = new Response(404, null, null);
+    private static final Response METHOD_NOT_ALLOWED = new Response(405, null, null);
+    private static final Response OK = new Response(200, null, null);
+    private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final DcpMessageValidator validator;
+    private final DcpMessageCodec codec;
+    private final SecureTokenService tokenService;
+    private final CredentialRequestStatusStore statusStore = CredentialRequestStatusStore.builder().build();
+    private final ExecutorService executor;
+    private final HttpServer server;
+    private final byte[] presentationResponse;
+    private final byte[] presentationResponseWithSubmission;
+    private final byte[] issuerMetadata;
+    private final LongAdder storedMessages = new LongAdder();
+    private final LongAdder offers = new LongAdder();
+
+    private DcpStandInServer(Builder builder) throws IOException {
+        validator = builder.validator;
+        codec = new DcpMessageCodec();
+        presentationResponse = example("/presentation/example/presentation-response-message.json", PRESENTATION_RESPONSE_MESSAGE);
+        presentationResponseWithSubmission = example("/presentation/example/presentation-response-message-w-presentation-submission.json",
+                PRESENTATION_RESPONSE_MESSAGE);
+        issuerMetadata = example("/issuance/example/issuer-metadata.json", ISSUER_METADATA);
+
+        server = HttpServer.create(new InetSocketAddress(builder.host, builder.port), builder.backlog);
+        tokenService = SecureTokenService.builder()
+                .signingKey(SigningKey.of(KEY_ID, generateKey()))
+                .client(StsClient.of(builder.clientId, DID, KEY_ID, builder.clientSecret))
+                .build()
+                .warmUp();
+        executor = Executors.newFixedThreadPool(builder.threads);
+        server.setExecutor(executor);
+        server.createContext(CREDENTIAL_SERVICE_PATH + "/presentations/query", endpoint("POST", message(PRESENTATION_QUERY_MESSAGE, this::queryPresentations)));
+        server.createContext(CREDENTIAL_SERVICE_PATH + "/credentials", endpoint("POST", message(CREDENTIAL_MESSAGE, this::storeCredentials)));
+        server.createContext(CREDENTIAL_SERVICE_PATH + "/offers", endpoint("POST", message(CREDENTIAL_OFFER_MESSAGE, this::offerCredentials)));
+        server.createContext(ISSUER_SERVICE_PATH + "/credentials", endpoint("POST", message(CREDENTIAL_REQUEST_MESSAGE, this::requestCredentials)));
+        server.createContext(ISSUER_SERVICE_PATH + "/metadata", endpoint("GET", (path, body) -> path.isEmpty() ? json(200, issuerMetadata) : NOT_FOUND));
+        server.createContext(ISSUER_SERVICE_PATH + REQUESTS, endpoint("GET", (path, body) -> requestStatus(path)));
+        server.createContext(STS_PATH + "/token", new TokenEndpoint(tokenService, mapper));
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Sets whether the JDK HTTP server uses {@code TCP_NODELAY}, with the {@code sun.net.httpserver.nodelay} system property.
+     * The JDK reads the property once per JVM, when the first {@link HttpServer} is created, so this must be called before any
+     * HTTP server of the JVM is created; later calls have no effect on the servers of the JVM.
+     */
+    public static void noDelay(boolean enabled) {
+        System.setProperty(NO_DELAY, String.valueOf(enabled));
+    }
+
+    /**
+     * Returns the base URI of the server, e.g. {@code http://127.0.0.1:8080}.
+     */
+    public URI uri() {
+        var address = server.getAddress();
+        return URI.create("http://%s:%d".formatted(address.getHostString(), address.getPort()));
+    }
+
+    /**
+     * Returns the number of credential requests received.
+     */
+    public int credentialRequestCount() {
+        return statusStore.size();
+    }
+
+    /**
+     * Returns the number of {@code CredentialMessage}s received by the Storage API.
+     */
+    public long storedMessageCount() {
+        return storedMessages.sum();
+    }
+
+    /**
+     * Returns the number of credential offers received.
+     */
+    public long offerCount() {
+        return offers.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        tokenService.close();
+        statusStore.close();
+    }
+
+    private Response queryPresentations(JsonNode query) {
+        var definition = query.has(PRESENTATION_DEFINITION);
+        if (definition && query.has(SCOPE)) {
+            return errors(List.of("A query must not contain both 'scope' and 'presentationDefinition'"));
+        }
+        return json(200, definition ? presentationResponseWithSubmission : presentationResponse);
+    }
+
+    private Response storeCredentials(JsonNode message) {
+        storedMessages.increment();
+        return OK;
+    }
+
+    private Response offerCredentials(JsonNode message) {
+        offers.increment();
+        return OK;
+    }
+
+    private Response requestCredentials(JsonNode request) {
+        var issuerPid = UUID.randomUUID().toString();
+        statusStore.register(issuerPid, request.get(HOLDER_PID).textValue());
+        return new Response(201, Map.of("Location", ISSUER_SERVICE_PATH + REQUESTS + issuerPid), null);
+    }
+
+    private Response requestStatus(String issuerPid) {
+        var status = issuerPid.isEmpty() ? null : statusStore.status(issuerPid);
+        if (status == null) {
+            return NOT_FOUND;
+        }
+        var out = new ByteArrayOutputStream();
+        try {
+            codec.write(status, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json(200, out.toByteArray());
+    }
+
+    /**
+     * Reads the body of a DCP message request and hands the message to the handler if it is a valid message of the type.
+     */
+    private Handler message(DcpMessageType type, MessageHandler handler) {
+        return (path, body) -> {
+            if (!path.isEmpty()) {
+                return NOT_FOUND;
+            }
+            JsonNode message;
+            try {
+                message = mapper.readTree(body);
+                var result = validator.validate(message);
+                if (result.type() != type) {
+                    return errors(List.of("Expected a %s, got a %s".formatted(type.typeName(), result.type().typeName())));
+                }
+                if (!result.valid()) {
+                    return errors(result.errors().stream().map(ValidationMessage::getMessage).toList());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                return errors(List.of("Not a DCP message: " + e.getMessage()));
+            }
+            return handler.handle(message);
+        };
+    }
+
+    private HttpHandler endpoint(String method, Handler handler) {
+        return exchange -> {
+            try {
+                byte[] body;
+                try (var stream = exchange.getRequestBody()) {
+                    body = stream.readAllBytes();
+                }
+                if (!method.equals(exchange.getRequestMethod())) {
+                    send(exchange, METHOD_NOT_ALLOWED);
+                } else {
+                    var path = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+                    send(exchange, handler.handle(path, body));
+                }
+            } catch (RuntimeException e) {
+                send(exchange, new Response(500, null, null));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.headers() != null) {
+            response.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        }
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), response.body().length);
+        try (var stream = exchange.getResponseBody()) {
+            stream.write(response.body());
+        }
+    }
+
+    private Response errors(List<String> errors) {
+        try {
+            return json(400, mapper.writeValueAsBytes(errors));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Response json(int status, byte[] body) {
+        return new Response(status, null, body);
+    }
+
+    /**
+     * Reads a bundled example message, verifying that it is a valid message of the type.
+     */
+    private byte[] example(String resource, DcpMessageType type) throws IOException {
+        try (var stream = getClass().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IllegalStateException("Example not found: " + resource);
+            }
+            var bytes = stream.readAllBytes();
+            var result = validator.validate(bytes);
+            if (result.type() != type || !result.valid()) {
+                throw new IllegalStateException("Example %s is not a valid %s: %s".formatted(resource, type.typeName(), result.errors()));
+            }
+            return bytes;
+        }
+    }
+
+    private static PrivateKey generateKey() {
+        try {
+            var generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair().getPrivate();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 keys are not supported", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(String path, byte[] body);
+    }
+
+    @FunctionalInterface
+    private interface MessageHandler {
+        Response handle(JsonNode message);
+    }
+
+    private record Response(int status, Map<String, String> headers, byte[] body) {
+    }
+
+    /**
+     * Configures and starts a {@link DcpStandInServer}.
+     */
+    public static final class Builder {
+        private String host = "127.0.0.1";
+        private int port;
+        private int backlog;
+        private int threads = Runtime.getRuntime().availableProcessors() * 2;
+        private String clientId = DEFAULT_CLIENT_ID;
+        private String clientSecret = DEFAULT_CLIENT_SECRET;
+        private DcpMessageValidator validator;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the address to listen on, the loopback address by default.
+         */
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets the port to listen on; 0, the default, picks a free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of queued incoming connections; 0, the default, uses the system default.
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads handling requests, twice the number of processors by default.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the credentials of the STS client, {@value DcpStandInServer#DEFAULT_CLIENT_ID} and
+         * {@value DcpStandInServer#DEFAULT_CLIENT_SECRET} by default.
+         */
+        public Builder client(String clientId, String clientSecret) {
+            this.clientId = clientId;
+            this.clientSecret = clientSecret;
+            return this;
+        }
+
+        /**
+         * Sets the validator for request bodies, one backed by the process-wide registry by default.
+         */
+        public Builder validator(DcpMessageValidator validator) {
+            this.validator = validator;
+            return this;
+        }
+
+        /**
+         * Creates and starts the server.
+         *
+         * @throws UncheckedIOException if the server cannot be bound
+         */
+        public DcpStandInServer build() {
+            if (validator == null) {
+                validator = new DcpMessageValidator();
+            }
+            try {
+                return new DcpStandInServer(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
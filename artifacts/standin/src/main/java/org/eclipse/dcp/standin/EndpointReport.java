@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.standin;
+
+import java.time.Duration;
+
+/**
+ * The measurements of one endpoint in a {@link LoadDriver} run.
+ *
+ * @param endpoint the endpoint
+ * @param requests the number of measured requests
+ * @param errors the number of requests that failed or were answered with an unexpected status
+ * @param throughput the requests completed per second
+ * @param p50 the median latency
+ * @param p99 the 99th percentile latency
+ * @param p999 the 99.9th percentile latency
+ * @param max the highest latency
+ */
+public record EndpointReport(LoadDriver.Endpoint endpoint, long requests, long errors, double throughput, Duration p50, Duration p99, Duration p999,
+                             Duration max) {
+
+    /**
+     * Formats the report as a line of the table printed by {@link LoadDriver#main(String[])}.
+     */
+    public String format() {
+        return "%-28s %9d %7d %10.0f %9.2f %9.2f %9.2f %9.2f".formatted(endpoint.label(), requests, errors, throughput,
+                millis(p50), millis(p99), millis(p999), millis(max));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.standin;
+
+import org.eclipse.dcp.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.eclipse.dcp.standin.DcpStandInServer.CREDENTIAL_SERVICE_PATH;
+import static org.eclipse.dcp.standin.DcpStandInServer.DEFAULT_CLIENT_ID;
+import static org.eclipse.dcp.standin.DcpStandInServer.DEFAULT_CLIENT_SECRET;
+import static org.eclipse.dcp.standin.DcpStandInServer.ISSUER_SERVICE_PATH;
+import static org.eclipse.dcp.standin.DcpStandInServer.STS_PATH;
+
+/**
+ * Drives the endpoints of a {@link DcpStandInServer} with concurrent clients and reports throughput and latency per endpoint.
+ * <p>
+ * Endpoints are driven one after the other: each first receives the warm-up requests, which are not measured, and then the
+ * measured requests, sent by a fixed number of client threads that each wait for a response before sending the next request.
+ * Request bodies are the bundled example messages. Without a target, a stand-in server is started on the loopback interface
+ * for the run, so the driver works fully offline; a target must serve the endpoints under the paths of the stand-in.
+ * <p>
+ * Run from the command line with {@code ./gradlew :standin:run --args="--concurrency 32 --requests 20000"}; the options are
+ * {@code --target <uri>}, {@code --concurrency <n>}, {@code --requests <n>}, {@code --warmup <n>},
+ * {@code --endpoints <name,...>} with the names of {@link Endpoint} and {@code --no-delay <true|false>}, which defaults to
+ * {@code true} and sets {@link DcpStandInServer#noDelay(boolean)} for the stand-in. When the driver is run from code, the
+ * caller sets it before any HTTP server of the JVM is created.
+ */
+public final class LoadDriver {
+
+    /**
+     * The driven endpoints.
+     */
+    public enum Endpoint {
+        PRESENTATION_QUERY("POST /presentations/query", 200),
+        STORAGE("POST /credentials (storage)", 200),
+        CREDENTIAL_OFFER("POST /offers", 200),
+        CREDENTIAL_REQUEST("POST /credentials (request)", 201),
+        REQUEST_STATUS("GET /requests/{id}", 200),
+        ISSUER_METADATA("GET /metadata", 200),
+        TOKEN("POST /token", 200);
+
+        private final String label;
+        private final int expectedStatus;
+
+        Endpoint(String label, int expectedStatus) {
+            this.label = label;
+            this.expectedStatus = expectedStatus;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private final URI target;
+    private final int concurrency;
+    private final int requests;
+    private final int warmup;
+    private final Set<Endpoint> endpoints;
+    private final String clientId;
+    private final String clientSecret;
+
+    private LoadDriver(Builder builder) {
+        target = builder.target;
+        concurrency = builder.concurrency;
+        requests = builder.requests;
+        warmup = builder.warmup;
+        endpoints = builder.endpoints;
+        clientId = builder.clientId;
+        clientSecret = builder.clientSecret;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the driver with command line options and prints a table of the reports.
+     *
+     * @throws IllegalArgumentException if an option is unknown or has an invalid value
+     */
+    public static void main(String[] args) {
+        var builder = builder();
+        var noDelay = true;
+        for (var i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            var value = args[i + 1];
+            switch (args[i]) {
+                case "--target" -> builder.target(URI.create(value));
+                case "--concurrency" -> builder.concurrency(Integer.parseInt(value));
+                case "--requests" -> builder.requests(Integer.parseInt(value));
+                case "--warmup" -> builder.warmup(Integer.parseInt(value));
+                case "--endpoints" -> builder.endpoints(Arrays.stream(value.split(","))
+                        .map(name -> Endpoint.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                        .toList());
+                case "--no-delay" -> noDelay = Boolean.parseBoolean(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        // before the stand-in creates the first HTTP server of the JVM, which is when the JDK reads the setting
+        DcpStandInServer.noDelay(noDelay);
+        var driver = builder.build();
+        var reports = driver.run();
+        System.out.printf("%d clients, %d requests per endpoint%n", driver.concurrency, driver.requests);
+        System.out.printf("%-28s %9s %7s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        reports.forEach(report -> System.out.println(report.format()));
+    }
+
+    /**
+     * Drives the endpoints and returns a report for each, in the order of {@link Endpoint}.
+     */
+    public List<EndpointReport> run() {
+        if (target != null) {
+            return run(target);
+        }
+        try (var server = DcpStandInServer.builder().threads(Math.max(2, concurrency)).build()) {
+            return run(server.uri());
+        }
+    }
+
+    private List<EndpointReport> run(URI base) {
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        var requestFactory = new RequestFactory(base, client);
+        var clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            var reports = new ArrayList<EndpointReport>();
+            for (var endpoint : endpoints) {
+                var request = requestFactory.request(endpoint);
+                drive(client, clients, endpoint, request, warmup, new LatencyHistogram());
+                var latencies = new LatencyHistogram();
+                var start = System.nanoTime();
+                var errors = drive(client, clients, endpoint, request, requests, latencies);
+                var elapsed = System.nanoTime() - start;
+                reports.add(new EndpointReport(endpoint, requests, errors, requests * 1e9 / elapsed,
+                        Duration.ofNanos(latencies.percentile(0.5)), Duration.ofNanos(latencies.percentile(0.99)),
+                        Duration.ofNanos(latencies.percentile(0.999)), Duration.ofNanos(latencies.maxNanos())));
+            }
+            return reports;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends the requests from all client threads and returns the number of errors.
+     */
+    private long drive(HttpClient client, ExecutorService clients, Endpoint endpoint, HttpRequest request, int count, LatencyHistogram latencies) {
+        var next = new AtomicInteger();
+        var errors = new LongAdder();
+        var workers = new ArrayList<Future<?>>();
+        for (var i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                while (next.getAndIncrement() < count) {
+                    var sent = System.nanoTime();
+                    try {
+                        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != endpoint.expectedStatus) {
+                            errors.increment();
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    }
+                    latencies.record(System.nanoTime() - sent);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (var worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while driving " + endpoint, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Driving %s failed".formatted(endpoint), e.getCause());
+        }
+        return errors.sum();
+    }
+
+    /**
+     * Builds the request of each endpoint from the bundled example messages.
+     */
+    private final class RequestFactory {
+        private final URI base;
+        private final HttpClient client;
+
+        RequestFactory(URI base, HttpClient client) {
+            this.base = base;
+            this.client = client;
+        }
+
+        HttpRequest request(Endpoint endpoint) {
+            return switch (endpoint) {
+                case PRESENTATION_QUERY -> post(CREDENTIAL_SERVICE_PATH + "/presentations/query", example("/presentation/example/presentation-query-message.json"));
+                case STORAGE -> post(CREDENTIAL_SERVICE_PATH + "/credentials", example("/issuance/example/credential-message.json"));
+                case CREDENTIAL_OFFER -> post(CREDENTIAL_SERVICE_PATH + "/offers", example("/issuance/example/credential-offer-message.json"));
+                case CREDENTIAL_REQUEST -> post(ISSUER_SERVICE_PATH + "/credentials", example("/issuance/example/credential-request-message.json"));
+                case REQUEST_STATUS -> HttpRequest.newBuilder(base.resolve(requestLocation())).GET().build();
+                case ISSUER_METADATA -> HttpRequest.newBuilder(base.resolve(ISSUER_SERVICE_PATH + "/metadata")).GET().build();
+                case TOKEN -> HttpRequest.newBuilder(base.resolve(STS_PATH + "/token"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials&client_id=%s&client_secret=%s&audience=did%%3Aweb%%3Averifier.example.com"
+                                .formatted(clientId, clientSecret) + "&bearer_access_scope=org.eclipse.dspace.dcp.vc.type%3AMember"))
+                        .build();
+            };
+        }
+
+        /**
+         * Sends a credential request whose status is then polled.
+         */
+        private String requestLocation() {
+            try {
+                var response = client.send(request(Endpoint.CREDENTIAL_REQUEST), HttpResponse.BodyHandlers.discarding());
+                return response.headers().firstValue("Location")
+                        .orElseThrow(() -> new IllegalStateException("Credential request answered with %d and no location".formatted(response.statusCode())));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while requesting credentials", e);
+            }
+        }
+
+        private HttpRequest post(String path, byte[] body) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+
+        private byte[] example(String resource) {
+            try (InputStream stream = LoadDriver.class.getResourceAsStream(resource)) {
+                if (stream == null) {
+                    throw new IllegalStateException("Example not found: " + resource);
+                }
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Configures a {@link LoadDriver}.
+     */
+    public static final class Builder {
+        private URI target;
+        private int concurrency = 16;
+        private int requests = 10_000;
+        private int warmup = 1_000;
+        private Set<Endpoint> endpoints = EnumSet.allOf(Endpoint.class);
+        private String clientId = DEFAULT_CLIENT_ID;
+        private String clientSecret = DEFAULT_CLIENT_SECRET;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the base URI of the server to drive; by default a stand-in server is started for the run.
+         */
+        public Builder target(URI target) {
+            this.target = target;
+            return this;
+        }
+
+        /**
+         * Sets the number of concurrent clients, 16 by default.
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = positive("Concurrency", concurrency);
+            return this;
+        }
+
+        /**
+         * Sets the number of measured requests per endpoint, 10,000 by default.
+         */
+        public Builder requests(int requests) {
+            this.requests = positive("Requests", requests);
+            return this;
+        }
+
+        /**
+         * Sets the number of warm-up requests per endpoint, 1,000 by default.
+         */
+        public Builder warmup(int warmup) {
+            if (warmup < 0) {
+                throw new IllegalArgumentException("Warm-up must not be negative: " + warmup);
+            }
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * Sets the endpoints to drive, all by default.
+         */
+        public Builder endpoints(List<Endpoint> endpoints) {
+            if (endpoints.isEmpty()) {
+                throw new IllegalArgumentException("No endpoints to drive");
+            }
+            this.endpoints = EnumSet.copyOf(endpoints);
+            return this;
+        }
+
+        /**
+         * Sets the credentials of the STS client, those of the stand-in by default.
+         */
+        public Builder client(String clientId, String clientSecret) {
+            this.clientId = clientId;
+            this.clientSecret = clientSecret;
+            return this;
+        }
+
+        public LoadDriver build() {
+            return new LoadDriver(this);
+        }
+
+        private static int positive(String name, int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException("%s must be positive: %d".formatted(name, value));
+            }
+            return value;
+        }
+    }
+}
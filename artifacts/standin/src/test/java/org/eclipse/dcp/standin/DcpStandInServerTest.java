@@ -0,0 +1,146 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.dcp.standin.DcpStandInServer.CREDENTIAL_SERVICE_PATH;
+import static org.eclipse.dcp.standin.DcpStandInServer.ISSUER_SERVICE_PATH;
+import static org.eclipse.dcp.standin.DcpStandInServer.STS_PATH;
+
+public class DcpStandInServerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private DcpStandInServer server;
+
+    @BeforeAll
+    static void noDelay() {
+        DcpStandInServer.noDelay(true);
+    }
+
+    @BeforeEach
+    void setUp() {
+        server = DcpStandInServer.builder().threads(2).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void verifyPresentationQuery() throws Exception {
+        var response = post(CREDENTIAL_SERVICE_PATH + "/presentations/query", read("/presentation/example/presentation-query-message.json"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(mapper.readTree(response.body()).get("type").asText()).isEqualTo("PresentationResponseMessage");
+
+        var withDefinition = post(CREDENTIAL_SERVICE_PATH + "/presentations/query",
+                read("/presentation/example/presentation-query-message-w-presentation-definition.json"));
+        assertThat(mapper.readTree(withDefinition.body()).has("presentationSubmission")).isTrue();
+    }
+
+    @Test
+    void verifyInvalidMessage() throws Exception {
+        var response = post(CREDENTIAL_SERVICE_PATH + "/presentations/query",
+                "{\"@context\": [\"https://w3id.org/dspace-dcp/v1.0/dcp.jsonld\"], \"type\": \"PresentationQueryMessage\", \"scope\": 1}".getBytes());
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(mapper.readTree(response.body()).isArray()).isTrue();
+
+        var wrongType = post(CREDENTIAL_SERVICE_PATH + "/presentations/query", read("/issuance/example/credential-message.json"));
+        assertThat(wrongType.statusCode()).isEqualTo(400);
+
+        assertThat(post(CREDENTIAL_SERVICE_PATH + "/presentations/query", "not json".getBytes()).statusCode()).isEqualTo(400);
+        assertThat(get(CREDENTIAL_SERVICE_PATH + "/presentations/query").statusCode()).isEqualTo(405);
+        assertThat(post(CREDENTIAL_SERVICE_PATH + "/presentations/queryall", new byte[0]).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void verifyStorageAndOffers() throws Exception {
+        assertThat(post(CREDENTIAL_SERVICE_PATH + "/credentials", read("/issuance/example/credential-message.json")).statusCode()).isEqualTo(200);
+        assertThat(post(CREDENTIAL_SERVICE_PATH + "/offers", read("/issuance/example/credential-offer-message.json")).statusCode()).isEqualTo(200);
+
+        assertThat(server.storedMessageCount()).isEqualTo(1);
+        assertThat(server.offerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyCredentialRequestStatus() throws Exception {
+        var response = post(ISSUER_SERVICE_PATH + "/credentials", read("/issuance/example/credential-request-message.json"));
+
+        assertThat(response.statusCode()).isEqualTo(201);
+        var location = response.headers().firstValue("Location").orElseThrow();
+        assertThat(location).startsWith(ISSUER_SERVICE_PATH + "/requests/");
+
+        var status = mapper.readTree(get(location).body());
+        assertThat(status.get("type").asText()).isEqualTo("CredentialStatus");
+        assertThat(status.get("holderPid").asText()).isEqualTo("holderPid");
+        assertThat(status.get("status").asText()).isEqualTo("RECEIVED");
+        assertThat(server.credentialRequestCount()).isEqualTo(1);
+
+        assertThat(get(ISSUER_SERVICE_PATH + "/requests/unknown").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void verifyIssuerMetadata() throws Exception {
+        var response = get(ISSUER_SERVICE_PATH + "/metadata");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(mapper.readTree(response.body()).get("type").asText()).isEqualTo("IssuerMetadata");
+    }
+
+    @Test
+    void verifyToken() throws Exception {
+        var request = HttpRequest.newBuilder(server.uri().resolve(STS_PATH + "/token"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials&client_id=stand-in&client_secret=stand-in-secret" +
+                        "&audience=did%3Aweb%3Averifier.example.com"))
+                .build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(mapper.readTree(response.body()).get("access_token").asText()).isNotEmpty();
+    }
+
+    private HttpResponse<String> post(String path, byte[] body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(server.uri().resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(server.uri().resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private byte[] read(String resource) throws IOException {
+        try (InputStream stream = getClass().getResourceAsStream(resource)) {
+            return stream.readAllBytes();
+        }
+    }
+}
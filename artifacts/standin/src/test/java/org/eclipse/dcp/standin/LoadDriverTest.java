@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2024 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package org.eclipse.dcp.standin;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class LoadDriverTest {
+
+    @BeforeAll
+    static void noDelay() {
+        DcpStandInServer.noDelay(true);
+    }
+
+    @Test
+    void verifyRun() {
+        var reports = LoadDriver.builder().concurrency(4).requests(200).warmup(20).build().run();
+
+        assertThat(reports).extracting(EndpointReport::endpoint).containsExactly(LoadDriver.Endpoint.values());
+        for (var report : reports) {
+            assertThat(report.errors()).describedAs(report.format()).isZero();
+            assertThat(report.requests()).isEqualTo(200);
+            assertThat(report.throughput()).isPositive();
+            assertThat(report.p50()).isLessThanOrEqualTo(report.p99());
+            assertThat(report.p99()).isLessThanOrEqualTo(report.p999());
+            assertThat(report.p999()).isLessThanOrEqualTo(report.max());
+        }
+    }
+
+    @Test
+    void verifyEndpointSelection() {
+        var reports = LoadDriver.builder()
+                .concurrency(2)
+                .requests(50)
+                .warmup(0)
+                .endpoints(List.of(LoadDriver.Endpoint.TOKEN, LoadDriver.Endpoint.REQUEST_STATUS))
+                .build()
+                .run();
+
+        assertThat(reports).extracting(EndpointReport::endpoint).containsExactly(LoadDriver.Endpoint.REQUEST_STATUS, LoadDriver.Endpoint.TOKEN);
+        assertThat(reports).allSatisfy(report -> assertThat(report.errors()).isZero());
+    }
+
+    @Test
+    void verifyOptions() {
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadDriver.main(new String[]{"--concurrency"}));
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadDriver.main(new String[]{"--threads", "4"}));
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadDriver.builder().concurrency(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadDriver.builder().endpoints(List.of()));
+    }
+}